@@ -0,0 +1,37 @@
+package com.example.ClientNest.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.ClientNest.event.HibernateEntityChangeListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Registers the entity change listener with Hibernate's event system
+ */
+@Configuration
+public class HibernateListenerConfig {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final HibernateEntityChangeListener entityChangeListener;
+
+    public HibernateListenerConfig(EntityManagerFactory entityManagerFactory,
+            HibernateEntityChangeListener entityChangeListener) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityChangeListener = entityChangeListener;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, entityChangeListener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, entityChangeListener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, entityChangeListener);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ClientNest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Threads for the job scheduler. Background work is declared with
+ * {@link com.example.ClientNest.service.ScheduledJob} rather than @Scheduled, so that
+ * cluster-wide jobs run on one node at a time.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler jobTaskScheduler(@Value("${clientnest.jobs.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, poolSize));
+        scheduler.setThreadNamePrefix("job-");
+        // Let running jobs finish and release their leases on shutdown
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
@@ -2,14 +2,20 @@ package com.example.ClientNest.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.example.ClientNest.service.AccessTokenService;
+
 import java.util.Arrays;
 
 @Configuration
@@ -17,12 +23,18 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AccessTokenService accessTokenService) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)  // Disable CSRF protection for API endpoints
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))  // Use our custom CORS configuration
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))  // The access token is the session
+            .addFilterBefore(new AccessTokenFilter(accessTokenService), UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
             .authorizeHttpRequests(authorize -> authorize
-                .requestMatchers("/**").permitAll()  // Allow all requests without authentication
+                .requestMatchers("/api/me/**").hasRole("CUSTOMER")  // Customer portal keys off the token's customer id
+                .requestMatchers("/**").permitAll()  // Allow all other requests without authentication
             );
         
         return http.build();
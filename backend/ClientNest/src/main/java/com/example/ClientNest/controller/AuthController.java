@@ -1,8 +1,8 @@
 package com.example.ClientNest.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -11,11 +11,18 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.ClientNest.dto.LoginRequestDTO;
 import com.example.ClientNest.dto.LoginResponseDTO;
+import com.example.ClientNest.misc.AuthenticatedUser;
 import com.example.ClientNest.model.Customer;
 import com.example.ClientNest.repository.CustomerRepository;
+import com.example.ClientNest.service.AccessTokenService;
 import com.example.ClientNest.service.EmployeeService;
+import com.example.ClientNest.service.LoginRateLimiter;
+import com.example.ClientNest.service.PasswordHasher;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -28,37 +35,58 @@ public class AuthController {
     @Autowired
     private CustomerRepository customerRepository;
     
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
     
+    // Both logins complete asynchronously so BCrypt runs on the hashing pool, not a servlet thread
     @PostMapping("/login/employee")
-    public ResponseEntity<LoginResponseDTO> employeeLogin(@RequestBody LoginRequestDTO loginRequest) {
-        boolean isAuthenticated = employeeService.validateCredentials(
-                loginRequest.getEmail(), 
-                loginRequest.getPassword());
-        
-        if (isAuthenticated) {
-            var employee = employeeService.findByEmail(loginRequest.getEmail());
-            LoginResponseDTO response = new LoginResponseDTO(
-                true,
-                employee.getId(),
-                employee.getName(),
-                employee.getEmail(),
-                "EMPLOYEE"
-            );
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.status(401).body(new LoginResponseDTO(false, null, null, null, null));
+    public CompletableFuture<ResponseEntity<LoginResponseDTO>> employeeLogin(@RequestBody LoginRequestDTO loginRequest,
+            HttpServletRequest request) {
+        long retryAfterMillis = loginRateLimiter.tryAcquire(loginRequest.getEmail(), request.getRemoteAddr());
+        if (retryAfterMillis != LoginRateLimiter.ALLOWED) {
+            return CompletableFuture.completedFuture(tooManyAttempts(retryAfterMillis));
         }
+        return employeeService.authenticate(loginRequest.getEmail(), loginRequest.getPassword())
+            .thenApply(employeeOpt -> {
+                if (employeeOpt.isPresent()) {
+                    var employee = employeeOpt.get();
+                    LoginResponseDTO response = new LoginResponseDTO(
+                        true,
+                        employee.getId(),
+                        employee.getName(),
+                        employee.getEmail(),
+                        "EMPLOYEE"
+                    );
+                    withAccessToken(response);
+                    return ResponseEntity.ok(response);
+                } else {
+                    return ResponseEntity.status(401).body(new LoginResponseDTO(false, null, null, null, null));
+                }
+            });
     }
     
     @PostMapping("/login/customer")
-    public ResponseEntity<LoginResponseDTO> customerLogin(@RequestBody LoginRequestDTO loginRequest) {
+    public CompletableFuture<ResponseEntity<LoginResponseDTO>> customerLogin(@RequestBody LoginRequestDTO loginRequest,
+            HttpServletRequest request) {
+        // Limit before the lookup so unknown emails are throttled too
+        long retryAfterMillis = loginRateLimiter.tryAcquire(loginRequest.getEmail(), request.getRemoteAddr());
+        if (retryAfterMillis != LoginRateLimiter.ALLOWED) {
+            return CompletableFuture.completedFuture(tooManyAttempts(retryAfterMillis));
+        }
+
         // Find customer by email
         Optional<Customer> customerOpt = customerRepository.findByEmail(loginRequest.getEmail());
         
         if (customerOpt.isEmpty()) {
             // Customer not found
-            return ResponseEntity.status(404).body(new LoginResponseDTO(false, null, null, null, null));
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(404).body(new LoginResponseDTO(false, null, null, null, null)));
         }
         
         Customer customer = customerOpt.get();
@@ -66,26 +94,44 @@ public class AuthController {
         // Check if customer has a password set
         if (customer.getPasswordHash() == null || !customer.getHasPassword()) {
             // Password not set for this customer
-            return ResponseEntity.status(403).body(new LoginResponseDTO(false, null, null, null, null));
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(403).body(new LoginResponseDTO(false, null, null, null, null)));
         }
         
         // Validate password
-        boolean isAuthenticated = passwordEncoder.matches(loginRequest.getPassword(), customer.getPasswordHash());
-        
-        if (isAuthenticated) {
-            LoginResponseDTO response = new LoginResponseDTO(
-                true,
-                customer.getId(),
-                customer.getName(),
-                customer.getEmail(),
-                "CUSTOMER"
-            );
-            response.setCustomerId(customer.getId());
-            response.setCustomerName(customer.getName());
-            return ResponseEntity.ok(response);
-        } else {
-            // Invalid password
-            return ResponseEntity.status(401).body(new LoginResponseDTO(false, null, null, null, null));
-        }
+        String storedHash = customer.getPasswordHash();
+        return passwordHasher.verify(loginRequest.getPassword(), storedHash,
+                upgraded -> customerRepository.replacePasswordHash(customer.getId(), storedHash, upgraded))
+            .thenApply(isAuthenticated -> {
+                if (isAuthenticated) {
+                    LoginResponseDTO response = new LoginResponseDTO(
+                        true,
+                        customer.getId(),
+                        customer.getName(),
+                        customer.getEmail(),
+                        "CUSTOMER"
+                    );
+                    response.setCustomerId(customer.getId());
+                    response.setCustomerName(customer.getName());
+                    withAccessToken(response);
+                    return ResponseEntity.ok(response);
+                } else {
+                    // Invalid password
+                    return ResponseEntity.status(401).body(new LoginResponseDTO(false, null, null, null, null));
+                }
+            });
+    }
+
+    private void withAccessToken(LoginResponseDTO response) {
+        var token = accessTokenService.issue(new AuthenticatedUser(
+            response.getUserId(), response.getRole(), response.getRole(), response.getEmail()));
+        response.setAccessToken(token.token());
+        response.setAccessTokenExpiresAt(token.expiresAt());
+    }
+
+    private static ResponseEntity<LoginResponseDTO> tooManyAttempts(long retryAfterMillis) {
+        return ResponseEntity.status(429)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000))
+            .body(new LoginResponseDTO(false, null, null, null, null));
     }
 }
\ No newline at end of file
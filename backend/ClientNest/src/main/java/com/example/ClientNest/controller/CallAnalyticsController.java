@@ -0,0 +1,157 @@
+package com.example.ClientNest.controller;
+
+import com.example.ClientNest.dto.CallStatsDTO;
+import com.example.ClientNest.dto.CallTrendPointDTO;
+import com.example.ClientNest.misc.TimeBucket;
+import com.example.ClientNest.model.CallDailyStat.Party;
+import com.example.ClientNest.service.CallAnalyticsStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Call counts and talk time from the daily call statistics. Ranges are inclusive
+ * days (yyyy-MM-dd) and default to the current month up to today.
+ */
+@RestController
+@RequestMapping("/api/call-analytics")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class CallAnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallAnalyticsController.class);
+    private final CallAnalyticsStore callAnalyticsStore;
+
+    @Autowired
+    public CallAnalyticsController(CallAnalyticsStore callAnalyticsStore) {
+        this.callAnalyticsStore = callAnalyticsStore;
+    }
+
+    /**
+     * Get the call numbers of every employee over a range
+     */
+    @GetMapping("/employees")
+    public ResponseEntity<List<CallStatsDTO>> getEmployees(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("API call received: Get employee call statistics from {} to {}", from, to);
+        try {
+            return ResponseEntity.ok(callAnalyticsStore.employees(start(from, to), end(to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/employees/{id}")
+    public ResponseEntity<CallStatsDTO> getEmployee(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("API call received: Get call statistics of employee {} from {} to {}", id, from, to);
+        return get(Party.EMPLOYEE, id, from, to);
+    }
+
+    @GetMapping("/customers/{id}")
+    public ResponseEntity<CallStatsDTO> getCustomer(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("API call received: Get call statistics of customer {} from {} to {}", id, from, to);
+        return get(Party.CUSTOMER, id, from, to);
+    }
+
+    /**
+     * Get the employees or customers ranked by calls, talk time, average talk time or missed calls
+     * @param party employee or customer
+     * @param by calls, talk_time, average_talk_time or missed
+     * @param limit Maximum number of entries
+     * @return The top entries, best first
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<CallStatsDTO>> getTop(
+            @RequestParam(defaultValue = "EMPLOYEE") String party,
+            @RequestParam(defaultValue = "CALLS") String by,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("API call received: Get top {} by {} from {} to {}", party, by, from, to);
+        try {
+            Party rankedParty = Party.valueOf(party.toUpperCase(Locale.ROOT));
+            CallAnalyticsStore.Ranking ranking = CallAnalyticsStore.Ranking.valueOf(by.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(callAnalyticsStore.top(rankedParty, ranking, start(from, to), end(to),
+                    Math.max(1, Math.min(limit, 100))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get call numbers per day, week, month or quarter, for all calls or those of
+     * one employee or one customer
+     */
+    @GetMapping("/series")
+    public ResponseEntity<List<CallTrendPointDTO>> getSeries(
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(defaultValue = "DAY") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("API call received: Get call series from {} to {} by {}", from, to, bucket);
+        if (employeeId != null && customerId != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            TimeBucket timeBucket = TimeBucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+            Party party = employeeId != null ? Party.EMPLOYEE : customerId != null ? Party.CUSTOMER : null;
+            Long id = employeeId != null ? employeeId : customerId;
+            return ResponseEntity.ok(callAnalyticsStore.series(party, id, start(from, to), end(to), timeBucket));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recompute the call statistics for a range of days from the call logs
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("API call received: Rebuild call statistics from {} to {}", from, to);
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        callAnalyticsStore.rebuild(from, to);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<CallStatsDTO> get(Party party, Long id, LocalDate from, LocalDate to) {
+        try {
+            return callAnalyticsStore.get(party, id, start(from, to), end(to))
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static LocalDate start(LocalDate from, LocalDate to) {
+        return from != null ? from : end(to).withDayOfMonth(1);
+    }
+
+    private static LocalDate end(LocalDate to) {
+        return to != null ? to : LocalDate.now();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.ClientNest.controller;
 
 import com.example.ClientNest.dto.CallLogDTO;
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.model.CallLog.CallType;
 import com.example.ClientNest.service.CallLogService;
 
@@ -10,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -46,6 +49,23 @@ public class CallLogController {
         return new ResponseEntity<>(callLogs, HttpStatus.OK);
     }
 
+    // Get call logs one page at a time, e.g. /page?type=MISSED&from=2025-01-01&sort=dateTime,desc
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<CallLogDTO>> getCallLogPage(
+            PageQuery page,
+            @RequestParam(required = false) CallType type,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            CursorPageDTO<CallLogDTO> callLogs = callLogService.getCallLogPage(page, type, customerId, employeeId, from, to);
+            return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // Get call logs by customer id
     @GetMapping("/customer/{customerId}")
     public ResponseEntity<List<CallLogDTO>> getCallLogsByCustomerId(@PathVariable Long customerId) {
@@ -114,32 +134,65 @@ public class CallLogController {
         return new ResponseEntity<>(callLogs, HttpStatus.OK);
     }
 
-    // Get call logs by date range
+    // Get call logs by date range one page at a time, in date order (sort=dateTime,desc for newest first)
     @GetMapping("/date-range")
-    public ResponseEntity<List<CallLogDTO>> getCallLogsByDateRange(
+    public ResponseEntity<CursorPageDTO<CallLogDTO>> getCallLogsByDateRange(
+            PageQuery page,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<CallLogDTO> callLogs = callLogService.getCallLogsByDateRange(startDate, endDate);
-        return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        try {
+            CursorPageDTO<CallLogDTO> callLogs = callLogService.getCallLogsByDateRange(page, startDate, endDate);
+            return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
-    // Get call logs by customer id and date range
+    // Get call logs by customer id and date range one page at a time
     @GetMapping("/customer/{customerId}/date-range")
-    public ResponseEntity<List<CallLogDTO>> getCallLogsByCustomerIdAndDateRange(
+    public ResponseEntity<CursorPageDTO<CallLogDTO>> getCallLogsByCustomerIdAndDateRange(
             @PathVariable Long customerId,
+            PageQuery page,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<CallLogDTO> callLogs = callLogService.getCallLogsByCustomerIdAndDateRange(customerId, startDate, endDate);
-        return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        try {
+            CursorPageDTO<CallLogDTO> callLogs = callLogService.getCallLogsByCustomerIdAndDateRange(
+                    page, customerId, startDate, endDate);
+            return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Get call logs by employee id and date range one page at a time
+    @GetMapping("/employee/{employeeId}/date-range")
+    public ResponseEntity<CursorPageDTO<CallLogDTO>> getCallLogsByEmployeeIdAndDateRange(
+            @PathVariable Long employeeId,
+            PageQuery page,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        try {
+            CursorPageDTO<CallLogDTO> callLogs = callLogService.getCallLogsByEmployeeIdAndDateRange(
+                    page, employeeId, startDate, endDate);
+            return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
     
-    // Get call logs by customer email and date range
+    // Get call logs by customer email and date range one page at a time
     @GetMapping("/customer/email/{email}/date-range")
-    public ResponseEntity<List<CallLogDTO>> getCallLogsByCustomerEmailAndDateRange(
+    public ResponseEntity<CursorPageDTO<CallLogDTO>> getCallLogsByCustomerEmailAndDateRange(
             @PathVariable String email,
+            PageQuery page,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<CallLogDTO> callLogs = callLogService.getCallLogsByCustomerEmailAndDateRange(email, startDate, endDate);
-        return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        try {
+            CursorPageDTO<CallLogDTO> callLogs = callLogService.getCallLogsByCustomerEmailAndDateRange(
+                    page, email, startDate, endDate);
+            return new ResponseEntity<>(callLogs, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 }
\ No newline at end of file
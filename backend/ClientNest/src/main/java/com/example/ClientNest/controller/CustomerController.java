@@ -13,12 +13,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.CustomerDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.PasswordUpdateDTO;
 import com.example.ClientNest.dto.CustomerRegistrationDTO;
+import com.example.ClientNest.misc.ActivityStatus;
+import com.example.ClientNest.model.Customer;
 import com.example.ClientNest.service.CustomerService;
+import com.example.ClientNest.service.PasswordHasher;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -34,6 +40,22 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
     
+    /**
+     * Get customers one page at a time, e.g. /page?size=50&sort=name,desc&q=acme
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<CustomerDTO>> getCustomerPage(
+            PageQuery page,
+            @RequestParam(required = false) ActivityStatus status,
+            @RequestParam(required = false) Customer.CustomerType type,
+            @RequestParam(name = "q", required = false) String search) {
+        try {
+            return ResponseEntity.ok(customerService.getCustomerPage(page, status, type, search));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id) {
         try {
@@ -87,6 +109,8 @@ public class CustomerController {
         try {
             CustomerDTO updatedCustomer = customerService.setCustomerPassword(id, passwordDTO);
             return ResponseEntity.ok(updatedCustomer);
+        } catch (PasswordHasher.BusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -99,6 +123,8 @@ public class CustomerController {
         try {
             CustomerDTO updatedCustomer = customerService.registerCustomer(id, registrationDTO);
             return ResponseEntity.ok(updatedCustomer);
+        } catch (PasswordHasher.BusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
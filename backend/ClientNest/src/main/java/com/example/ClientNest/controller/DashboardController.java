@@ -1,17 +1,36 @@
 package com.example.ClientNest.controller;
 
 import com.example.ClientNest.dto.DashboardDTO;
+import com.example.ClientNest.dto.EmployeeDashboardDTO;
 import com.example.ClientNest.dto.GrowthDTO;
+import com.example.ClientNest.dto.TrendPointDTO;
+import com.example.ClientNest.misc.TimeBucket;
 import com.example.ClientNest.service.DashboardService;
+import com.example.ClientNest.service.DashboardStreamService;
+import com.example.ClientNest.service.EmployeeMetricsStore;
+import com.example.ClientNest.service.SchemaCatalog;
+import com.example.ClientNest.service.TimeBucketStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Locale;
+
+import jakarta.persistence.EntityNotFoundException;
 import java.util.List;
 
 @RestController
@@ -21,18 +40,56 @@ public class DashboardController {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
     private final DashboardService dashboardService;
+    private final SchemaCatalog schemaCatalog;
+    private final TimeBucketStore timeBucketStore;
+    private final DashboardStreamService dashboardStreamService;
 
     @Autowired
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, SchemaCatalog schemaCatalog,
+            TimeBucketStore timeBucketStore, DashboardStreamService dashboardStreamService) {
         this.dashboardService = dashboardService;
+        this.schemaCatalog = schemaCatalog;
+        this.timeBucketStore = timeBucketStore;
+        this.dashboardStreamService = dashboardStreamService;
     }
 
+    /**
+     * Get the dashboard, with time series over a date range
+     * @param from First day (yyyy-MM-dd); without a range the charts cover all time
+     * @param to Last day (yyyy-MM-dd), defaults to today
+     * @param bucket Series granularity: day, week, month or quarter
+     * @return Headline numbers, growth, charts and series
+     */
     @GetMapping
-    public ResponseEntity<DashboardDTO> getDashboardData() {
-        logger.info("API call received: Get dashboard data");
-        DashboardDTO data = dashboardService.getDashboardData();
-        logger.info("Returning dashboard data: {}", data);
-        return ResponseEntity.ok(data);
+    public ResponseEntity<DashboardDTO> getDashboardData(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String bucket) {
+        logger.info("API call received: Get dashboard data from {} to {} by {}", from, to, bucket);
+        try {
+            TimeBucket timeBucket = TimeBucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+            DashboardDTO data = dashboardService.getDashboardData(from, to, timeBucket);
+            logger.info("Returning dashboard data: {}", data);
+            return ResponseEntity.ok(data);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid dashboard range: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Subscribe to live headline numbers. Sends a "snapshot" event on connect and
+     * "delta" events with only the changed fields afterwards.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDashboard() {
+        logger.info("API call received: Subscribe to dashboard stream");
+        try {
+            return ResponseEntity.ok(dashboardStreamService.subscribe());
+        } catch (IllegalStateException e) {
+            logger.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 
     @GetMapping("/growth")
@@ -42,6 +99,26 @@ public class DashboardController {
         logger.info("Returning growth data: {}", data);
         return ResponseEntity.ok(data);
     }
+
+    /**
+     * Get monthly new customers, new leads and paid sales for a range of months
+     * @param from First month (yyyy-MM), defaults to eleven months ago
+     * @param to Last month (yyyy-MM), defaults to the current month
+     * @return One point per month, including months without activity
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<List<TrendPointDTO>> getMonthlyTrends(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        logger.info("API call received: Get monthly trends from {} to {}", from, to);
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        try {
+            return ResponseEntity.ok(dashboardService.getMonthlyTrends(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
     
     @GetMapping("/leads-by-source")
     public ResponseEntity<List<DashboardDTO.ChartDataDTO>> getLeadsBySource() {
@@ -66,5 +143,64 @@ public class DashboardController {
         logger.info("Returning opportunities by stage data: {}", data);
         return ResponseEntity.ok(data);
     }
+
+    /**
+     * Get the pipeline of one employee: leads, active opportunities by stage and paid sales
+     * @param id Employee ID
+     * @return The employee's numbers
+     */
+    @GetMapping("/employee/{id}")
+    public ResponseEntity<EmployeeDashboardDTO> getEmployeeDashboard(@PathVariable Long id) {
+        logger.info("API call received: Get dashboard for employee {}", id);
+        try {
+            return ResponseEntity.ok(dashboardService.getEmployeeDashboard(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Get employees ranked by paid revenue, won opportunities, active opportunities or active leads
+     * @param by revenue, won, opportunities or active_leads
+     * @param limit Maximum number of employees
+     * @return The top employees, best first
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<EmployeeDashboardDTO>> getLeaderboard(
+            @RequestParam(defaultValue = "REVENUE") String by,
+            @RequestParam(defaultValue = "10") int limit) {
+        logger.info("API call received: Get leaderboard by {}", by);
+        try {
+            EmployeeMetricsStore.Ranking ranking = EmployeeMetricsStore.Ranking.valueOf(by.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(dashboardService.getLeaderboard(ranking, Math.max(1, Math.min(limit, 100))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Re-read table and column names after a schema change
+     */
+    @PostMapping("/schema/refresh")
+    public ResponseEntity<String> refreshSchema() {
+        logger.info("API call received: Refresh dashboard schema catalog");
+        return ResponseEntity.ok(schemaCatalog.refresh().toString());
+    }
+
+    /**
+     * Recompute the daily metrics behind the charts, series and monthly numbers for a
+     * range of months from the base tables
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        logger.info("API call received: Rebuild daily metrics from {} to {}", from, to);
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        timeBucketStore.rebuild(from.atDay(1), to.atEndOfMonth());
+        return ResponseEntity.noContent().build();
+    }
  
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.example.ClientNest.controller;
+
+import com.example.ClientNest.service.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Download a whole table, written row by row as it is read
+     * @param dataset invoices, customers, leads or call-logs
+     * @param format ndjson or csv
+     * @param from First day to include (yyyy-MM-dd), optional
+     * @param to Last day to include (yyyy-MM-dd), optional
+     * @return The streamed file
+     */
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        logger.info("API call received: Export {} as {} from {} to {}", dataset, format, from, to);
+        try {
+            ExportService.Dataset exportDataset = ExportService.Dataset.fromPath(dataset);
+            ExportService.Format exportFormat = ExportService.Format.parse(format);
+            ExportService.Export body = exportService.open(exportDataset, exportFormat, from, to);
+            // Also free the permit if the request times out or the client leaves before the body runs
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportController.class,
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                            body.release();
+                        }
+                    });
+
+            String filename = exportDataset.getPath() + "-" + LocalDate.now() + "." + exportFormat.getExtension();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(filename).build().toString())
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid export request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Rejecting export: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
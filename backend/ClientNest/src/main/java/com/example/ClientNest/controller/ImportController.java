@@ -0,0 +1,143 @@
+package com.example.ClientNest.controller;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.ClientNest.dto.ImportJobDTO;
+import com.example.ClientNest.dto.ImportReportDTO;
+import com.example.ClientNest.model.ImportJob;
+import com.example.ClientNest.service.ImportService;
+import com.example.ClientNest.service.RecordReader;
+
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/imports")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportController.class);
+
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Upload a file as a multipart form and import it in the background
+     * @param dataset leads, customers, products or call-logs
+     * @param file The CSV (with a header row) or NDJSON file
+     * @param format csv or ndjson, taken from the part's content type or the file name when absent
+     * @return The queued job, to poll for progress
+     */
+    @PostMapping(value = "/{dataset}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobDTO> uploadFile(@PathVariable String dataset,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) throws IOException {
+        logger.info("API call received: Import {} from file {}", dataset, file.getOriginalFilename());
+        try {
+            RecordReader.Format importFormat;
+            if (format != null) {
+                importFormat = RecordReader.Format.parse(format);
+            } else {
+                try {
+                    importFormat = RecordReader.Format.fromContentType(file.getContentType());
+                } catch (IllegalArgumentException e) {
+                    importFormat = RecordReader.Format.fromFileName(file.getOriginalFilename());
+                }
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.submit(
+                    ImportJob.Dataset.fromPath(dataset), importFormat, file.getOriginalFilename(), file.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid import request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Rejecting import: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Upload a file as the request body and import it in the background
+     * @param dataset leads, customers, products or call-logs
+     * @param format csv or ndjson, taken from the Content-Type when absent
+     * @param fileName Name to show for the job, optional
+     * @return The queued job, to poll for progress
+     */
+    @PostMapping("/{dataset}")
+    public ResponseEntity<ImportJobDTO> uploadBody(@PathVariable String dataset,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fileName,
+            HttpServletRequest request) throws IOException {
+        logger.info("API call received: Import {} from request body", dataset);
+        try {
+            RecordReader.Format importFormat = format != null
+                    ? RecordReader.Format.parse(format)
+                    : RecordReader.Format.fromContentType(request.getContentType());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.submit(
+                    ImportJob.Dataset.fromPath(dataset), importFormat, fileName, request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid import request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Rejecting import: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Get the most recent import jobs
+     */
+    @GetMapping
+    public ResponseEntity<List<ImportJobDTO>> getJobs(@RequestParam(defaultValue = "20") int limit) {
+        logger.info("API call received: Get import jobs");
+        return ResponseEntity.ok(importService.getJobs(Math.max(1, Math.min(limit, 200))));
+    }
+
+    /**
+     * Get an import job's status: records processed, imported and failed, and rows per second
+     * @param id Job id
+     */
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<ImportJobDTO> getJob(@PathVariable Long id) {
+        logger.info("API call received: Get import job {}", id);
+        try {
+            return ResponseEntity.ok(importService.getJob(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Get the records an import job could not import
+     * @param id Job id
+     * @param limit Maximum number of records
+     * @return The failures, by record number
+     */
+    @GetMapping("/{id:\\d+}/errors")
+    public ResponseEntity<List<ImportReportDTO.RowError>> getErrors(@PathVariable Long id,
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.info("API call received: Get errors of import job {}", id);
+        try {
+            return ResponseEntity.ok(importService.getErrors(id, Math.max(1, Math.min(limit, 1000))));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
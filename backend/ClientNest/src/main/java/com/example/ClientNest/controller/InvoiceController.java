@@ -1,17 +1,22 @@
 package com.example.ClientNest.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.InvoiceDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.service.InvoiceService;
 
 @RestController
@@ -27,6 +32,24 @@ public class InvoiceController {
         return ResponseEntity.ok(invoiceService.getAllInvoices());
     }
     
+    /**
+     * Get invoices one page at a time, e.g. /page?status=PAID&from=2025-01-01&sort=createdAt,desc
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<InvoiceDTO>> getInvoicePage(
+            PageQuery page,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(invoiceService.getInvoicePage(page, status, customerId, employeeId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<InvoiceDTO> getInvoiceById(@PathVariable Long id) {
         return ResponseEntity.ok(invoiceService.getInvoiceById(id));
@@ -0,0 +1,75 @@
+package com.example.ClientNest.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.ClientNest.dto.JobDTO;
+import com.example.ClientNest.dto.JobRunDTO;
+import com.example.ClientNest.service.JobScheduler;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class JobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+
+    private final JobScheduler jobScheduler;
+
+    public JobController(JobScheduler jobScheduler) {
+        this.jobScheduler = jobScheduler;
+    }
+
+    /**
+     * Get all background jobs with their schedule, lease and last run
+     */
+    @GetMapping
+    public ResponseEntity<List<JobDTO>> getJobs() {
+        logger.info("API call received: Get jobs");
+        return ResponseEntity.ok(jobScheduler.getJobs());
+    }
+
+    /**
+     * Get the run history of a job
+     * @param name Job name
+     * @param limit Maximum number of runs
+     * @return The runs, newest first
+     */
+    @GetMapping("/{name}/runs")
+    public ResponseEntity<List<JobRunDTO>> getRuns(@PathVariable String name,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.info("API call received: Get runs of job {}", name);
+        try {
+            return ResponseEntity.ok(jobScheduler.getRuns(name, Math.max(1, Math.min(limit, 500))));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Run a job now in the background
+     * @param name Job name
+     */
+    @PostMapping("/{name}/run")
+    public ResponseEntity<Void> runJob(@PathVariable String name) {
+        logger.info("API call received: Run job {}", name);
+        try {
+            jobScheduler.trigger(name);
+            return ResponseEntity.accepted().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
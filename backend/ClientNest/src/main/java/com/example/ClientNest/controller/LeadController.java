@@ -1,5 +1,6 @@
 package com.example.ClientNest.controller;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,11 +13,21 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.ImportReportDTO;
 import com.example.ClientNest.dto.LeadDTO;
+import com.example.ClientNest.dto.PageQuery;
+import com.example.ClientNest.misc.ActivityStatus;
+import com.example.ClientNest.model.ImportJob;
 import com.example.ClientNest.model.Lead;
+import com.example.ClientNest.service.ImportService;
 import com.example.ClientNest.service.LeadService;
+import com.example.ClientNest.service.RecordReader;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/leads")
@@ -26,11 +37,32 @@ public class LeadController {
     @Autowired
     private LeadService leadService;
 
+    @Autowired
+    private ImportService importService;
+
     @GetMapping
     public List<LeadDTO> getAllLeadDetails() {
         return leadService.getAllLeadDetails();
     }
     
+    /**
+     * Get leads one page at a time, e.g. /page?size=50&sort=createdAt,desc&stage=NEW
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<LeadDTO>> getLeadPage(
+            PageQuery page,
+            @RequestParam(required = false) ActivityStatus status,
+            @RequestParam(required = false) Lead.Stage stage,
+            @RequestParam(required = false) Lead.Source source,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Long employeeId) {
+        try {
+            return ResponseEntity.ok(leadService.getLeadPage(page, status, stage, source, customerId, employeeId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/{id}")
     public LeadDTO getLeadDetailsById(@PathVariable Long id) {
         return leadService.getLeadDetailsById(id);
@@ -52,6 +84,26 @@ public ResponseEntity<List<Lead>> getLeadsByEmployeeId(@PathVariable Long employ
         return leadService.enterLeadDetails(leadDetails);
     }
 
+    /**
+     * Import leads from a CSV (with a header row) or NDJSON body, read as it arrives.
+     * Fields are named as in LeadDTO; customers not found by name are created.
+     * @param format csv or ndjson, taken from the Content-Type when absent
+     * @return Counts, timing and the rows that could not be imported
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportReportDTO> importLeads(@RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+        RecordReader.Format importFormat;
+        try {
+            importFormat = format != null
+                    ? RecordReader.Format.parse(format)
+                    : RecordReader.Format.fromContentType(request.getContentType());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(importService.importNow(ImportJob.Dataset.LEADS, request.getInputStream(), importFormat));
+    }
+
     @PutMapping("/{id}")
     public LeadDTO updateLeadDetails(@PathVariable Long id, @RequestBody LeadDTO leadDetails) {
         return leadService.updateLeadDetails(id, leadDetails);
@@ -13,9 +13,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.NoteDTO;
+import com.example.ClientNest.dto.PageQuery;
+import com.example.ClientNest.misc.Location;
 import com.example.ClientNest.service.NoteService;
 
 @RestController
@@ -39,6 +43,21 @@ public class NoteController {
         return ResponseEntity.ok(notes);
     }
 
+    /**
+     * Get notes one page at a time, e.g. /page?location=LEAD&locationId=4&sort=creationDate,desc
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<NoteDTO>> getNotePage(
+            PageQuery page,
+            @RequestParam(required = false) Location location,
+            @RequestParam(required = false) Long locationId) {
+        try {
+            return ResponseEntity.ok(noteService.getNotePage(page, location, locationId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get a note by ID
      */
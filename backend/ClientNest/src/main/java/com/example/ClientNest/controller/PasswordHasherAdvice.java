@@ -0,0 +1,30 @@
+package com.example.ClientNest.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.example.ClientNest.service.PasswordHasher;
+
+/**
+ * Answers 503 for every endpoint that hashes or checks a password while the hashing
+ * pool is saturated (logins, registration, set and reset password, new employees),
+ * including logins whose future failed with it.
+ */
+@RestControllerAdvice
+public class PasswordHasherAdvice {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasherAdvice.class);
+
+    @ExceptionHandler(PasswordHasher.BusyException.class)
+    public ResponseEntity<Void> busy(PasswordHasher.BusyException e) {
+        logger.warn("Refused request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ClientNest.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,8 +13,11 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.example.ClientNest.dto.PasswordResetDTO;
 import com.example.ClientNest.dto.PasswordResetRequestDTO;
+import com.example.ClientNest.service.LoginRateLimiter;
 import com.example.ClientNest.service.PasswordResetService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/api/password-reset")
 @CrossOrigin(origins = "http://localhost:5173")
@@ -21,6 +25,9 @@ public class PasswordResetController {
     
     @Autowired
     private PasswordResetService passwordResetService;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
     
     /**
      * Request a password reset
@@ -28,7 +35,13 @@ public class PasswordResetController {
      * @return Response with message
      */
     @PostMapping("/request")
-    public ResponseEntity<String> requestPasswordReset(@RequestBody PasswordResetRequestDTO requestDTO) {
+    public ResponseEntity<String> requestPasswordReset(@RequestBody PasswordResetRequestDTO requestDTO,
+            HttpServletRequest request) {
+        long retryAfterMillis = loginRateLimiter.tryAcquire(requestDTO.getEmail(), request.getRemoteAddr());
+        if (retryAfterMillis != LoginRateLimiter.ALLOWED) {
+            return tooManyAttempts(retryAfterMillis);
+        }
+
         // Always return 200 OK regardless of whether the email exists for security reasons
         @SuppressWarnings("unused")
         boolean emailSent = passwordResetService.createPasswordResetToken(requestDTO.getEmail(), requestDTO.getUserType());
@@ -54,7 +67,13 @@ public class PasswordResetController {
      * @return Response with result
      */
     @PostMapping("/reset")
-    public ResponseEntity<String> resetPassword(@RequestBody PasswordResetDTO resetDTO) {
+    public ResponseEntity<String> resetPassword(@RequestBody PasswordResetDTO resetDTO, HttpServletRequest request) {
+        // The token names no account, so only the client's budget applies
+        long retryAfterMillis = loginRateLimiter.tryAcquire(null, request.getRemoteAddr());
+        if (retryAfterMillis != LoginRateLimiter.ALLOWED) {
+            return tooManyAttempts(retryAfterMillis);
+        }
+
         boolean result = passwordResetService.resetPassword(resetDTO.getToken(), resetDTO.getPassword());
         
         if (result) {
@@ -64,4 +83,10 @@ public class PasswordResetController {
                     .body("Failed to reset password. The token may be invalid or expired.");
         }
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<String> tooManyAttempts(long retryAfterMillis) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000))
+                .body("Too many attempts. Please try again later.");
+    }
+}
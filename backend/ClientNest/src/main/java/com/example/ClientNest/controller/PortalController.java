@@ -0,0 +1,87 @@
+package com.example.ClientNest.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.ClientNest.dto.CallLogDTO;
+import com.example.ClientNest.dto.CustomerDTO;
+import com.example.ClientNest.dto.InvoiceDTO;
+import com.example.ClientNest.dto.QuotationDTO;
+import com.example.ClientNest.dto.TicketDTO;
+import com.example.ClientNest.misc.AuthenticatedUser;
+import com.example.ClientNest.service.CallLogService;
+import com.example.ClientNest.service.CustomerService;
+import com.example.ClientNest.service.InvoiceService;
+import com.example.ClientNest.service.QuotationService;
+import com.example.ClientNest.service.TicketService;
+
+/**
+ * Customer portal endpoints for the logged-in customer. The customer id comes from the
+ * access token, so these never look the customer up by email.
+ */
+@RestController
+@RequestMapping("/api/me")
+@CrossOrigin(origins = "http://localhost:5173")
+public class PortalController {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private QuotationService quotationService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private CallLogService callLogService;
+
+    @GetMapping
+    public ResponseEntity<CustomerDTO> getProfile(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(customerService.getCustomerById(user.userId()));
+    }
+
+    @GetMapping("/invoices")
+    public ResponseEntity<List<InvoiceDTO>> getInvoices(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(invoiceService.getInvoicesByCustomerId(user.userId()));
+    }
+
+    @GetMapping("/quotations")
+    public ResponseEntity<List<QuotationDTO>> getQuotations(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(quotationService.getCustomerQuotations(user.userId()));
+    }
+
+    @GetMapping("/tickets")
+    public ResponseEntity<List<TicketDTO>> getTickets(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(ticketService.getTicketsByCustomerId(user.userId()));
+    }
+
+    @PostMapping("/tickets")
+    public ResponseEntity<TicketDTO> createTicket(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestBody TicketDTO ticketDTO) {
+        try {
+            ticketDTO.setCustomerId(user.userId());
+            return new ResponseEntity<>(ticketService.createTicket(ticketDTO), HttpStatus.CREATED);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/call-logs")
+    public ResponseEntity<List<CallLogDTO>> getCallLogs(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(callLogService.getCallLogsByCustomerId(user.userId()));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.ClientNest.controller;
 
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.ProductDTO;
 import com.example.ClientNest.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,19 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<ProductDTO>> getProductPage(
+            PageQuery page,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String status,
+            @RequestParam(name = "q", required = false) String search) {
+        try {
+            return ResponseEntity.ok(productService.getProductPage(page, category, status, search));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
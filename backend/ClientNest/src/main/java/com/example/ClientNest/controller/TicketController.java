@@ -1,6 +1,9 @@
 package com.example.ClientNest.controller;
 
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.TicketDTO;
+import com.example.ClientNest.model.Ticket;
 import com.example.ClientNest.service.TicketService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -26,6 +29,19 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.getAllTickets());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<TicketDTO>> getTicketPage(
+            PageQuery page,
+            @RequestParam(required = false) Ticket.TicketStatus status,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Long employeeId) {
+        try {
+            return ResponseEntity.ok(ticketService.getTicketPage(page, status, customerId, employeeId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TicketDTO> getTicketById(@PathVariable Long id) {
         try {
@@ -0,0 +1,26 @@
+package com.example.ClientNest.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallStatsDTO {
+    // Employee or customer
+    private Long id;
+    private String name;
+    private long calls;
+    private long missedCalls;
+    private long talkSeconds;
+    // Per call that was not missed
+    private double averageTalkSeconds;
+    private double callsPerDay;
+    // Calls keyed by call type
+    private Map<String, Long> callsByType;
+}
@@ -0,0 +1,20 @@
+package com.example.ClientNest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallTrendPointDTO {
+    // First day of the bucket, yyyy-MM-dd
+    private String start;
+    private long calls;
+    private long missedCalls;
+    private long talkSeconds;
+    // Per call that was not missed
+    private double averageTalkSeconds;
+}
@@ -0,0 +1,22 @@
+package com.example.ClientNest.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    // Pass back as ?cursor= to get the following page, null on the last page
+    private String next;
+    private boolean hasNext;
+    private int size;
+    // The sort the cursor belongs to, e.g. "createdAt,desc"
+    private String sort;
+}
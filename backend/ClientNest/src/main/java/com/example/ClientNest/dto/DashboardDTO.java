@@ -25,6 +25,16 @@ public class DashboardDTO {
     private int leadGrowth;
     private int salesGrowth;
 
+    // Range and bucket size of the series, yyyy-MM-dd and DAY/WEEK/MONTH/QUARTER
+    private String from;
+    private String to;
+    private String bucket;
+    private List<TimeSeriesDTO> series;
+
+    // Set when some metrics could not be computed in time; those fall back to zero/empty
+    private boolean degraded;
+    private List<String> unavailableMetrics;
+
     @Data
     @Builder
     @NoArgsConstructor
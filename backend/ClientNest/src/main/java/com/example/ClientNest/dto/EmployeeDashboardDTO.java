@@ -0,0 +1,25 @@
+package com.example.ClientNest.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeDashboardDTO {
+    private Long employeeId;
+    private String employeeName;
+    private long totalLeads;
+    private long activeLeads;
+    private long activeOpportunities;
+    // Active opportunities keyed by stage
+    private Map<String, Long> opportunitiesByStage;
+    private long paidInvoices;
+    private BigDecimal paidRevenue;
+}
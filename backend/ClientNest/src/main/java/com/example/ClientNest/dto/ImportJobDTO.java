@@ -0,0 +1,55 @@
+package com.example.ClientNest.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import com.example.ClientNest.model.ImportJob;
+import com.example.ClientNest.service.RecordReader;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ImportJobDTO {
+    private Long id;
+    private ImportJob.Dataset dataset;
+    private RecordReader.Format format;
+    private ImportJob.Status status;
+    private String fileName;
+    private long fileSize;
+    // Records handled so far, imported or failed
+    private long rowsProcessed;
+    private long rowsImported;
+    private long rowsFailed;
+    // Over the current run, or the last one once the job has finished
+    private long rowsPerSecond;
+    private String owner;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String lastError;
+
+    public ImportJobDTO(ImportJob job) {
+        this.id = job.getId();
+        this.dataset = job.getDataset();
+        this.format = job.getFormat();
+        this.status = job.getStatus();
+        this.fileName = job.getFileName();
+        this.fileSize = job.getFileSize();
+        this.rowsProcessed = job.getRowsCommitted();
+        this.rowsImported = job.getRowsImported();
+        this.rowsFailed = job.getRowsFailed();
+        this.owner = job.getOwner();
+        this.createdAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.lastError = job.getLastError();
+        if (job.getRunStartedAt() != null) {
+            LocalDateTime end = job.getStatus() == ImportJob.Status.RUNNING || job.getFinishedAt() == null
+                    ? job.getHeartbeatAt() : job.getFinishedAt();
+            long millis = end != null ? Duration.between(job.getRunStartedAt(), end).toMillis() : 0;
+            this.rowsPerSecond = millis > 0 ? (job.getRowsCommitted() - job.getRunStartRow()) * 1000 / millis : 0;
+        }
+    }
+}
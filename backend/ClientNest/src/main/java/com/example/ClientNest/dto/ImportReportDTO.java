@@ -0,0 +1,31 @@
+package com.example.ClientNest.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ImportReportDTO {
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    // Customers created for leads that named an unknown customer
+    private long customersCreated;
+    private long durationMs;
+    private long rowsPerSecond;
+    // The first failures, by record number; errorsTruncated is set when there were more
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String message;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.ClientNest.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.ClientNest.service.ScheduledJob;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDTO {
+    private String name;
+    private ScheduledJob.Scope scope;
+    // e.g. "cron 0 30 2 * * *" or "fixedDelay 60000ms"
+    private String schedule;
+    // Whether a run is in progress on this node
+    private boolean running;
+    // Current or last lease holder; cluster jobs only
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+    // Last run: from job_run for cluster jobs, from this node's memory for node jobs
+    private JobRunDTO lastRun;
+}
@@ -0,0 +1,32 @@
+package com.example.ClientNest.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.ClientNest.model.JobRun;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class JobRunDTO {
+    private Long id;
+    private String jobName;
+    private String node;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long durationMs;
+    private JobRun.Status status;
+    private String error;
+
+    public JobRunDTO(JobRun run) {
+        this.id = run.getId();
+        this.jobName = run.getJobName();
+        this.node = run.getNode();
+        this.startedAt = run.getStartedAt();
+        this.finishedAt = run.getFinishedAt();
+        this.durationMs = run.getDurationMs();
+        this.status = run.getStatus();
+        this.error = run.getError();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ClientNest.dto;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 import com.example.ClientNest.model.Lead;
@@ -53,6 +54,19 @@ public class LeadDTO {
         this.source = source;
     }
 
+    // Constructor used by the list queries, which select flat columns instead of entities
+    public LeadDTO(Long customerId, String name, String email, String phoneNumber, String address, String city,
+            String state, Integer zipCode, String country, String website, Long id, String requirement,
+            String assignedTo, Integer conversionProbability, Double expectedRevenue, Lead.Source source,
+            LocalDateTime createdAt) {
+        this(customerId, name, email, phoneNumber, address, city, state, zipCode, country, website, id,
+                requirement, assignedTo, conversionProbability, expectedRevenue,
+                source != null ? source.name() : null);
+        if (createdAt != null) {
+            this.createdDate = createdAt.format(DateTimeFormatter.ofPattern("dd/MM/yy"));
+        }
+    }
+
     public LeadDTO(Lead lead) {
         var customer = lead.getCustomer();
         this.customerId = customer.getId();
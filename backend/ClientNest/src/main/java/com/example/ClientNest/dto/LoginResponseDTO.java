@@ -1,5 +1,7 @@
 package com.example.ClientNest.dto;
 
+import java.time.Instant;
+
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -13,6 +15,9 @@ public class LoginResponseDTO {
     private String role;
     private Long customerId;
     private String customerName;
+    // Signed token to send back as "Authorization: Bearer ..."
+    private String accessToken;
+    private Instant accessTokenExpiresAt;
     
     public LoginResponseDTO(Boolean isAuthenticated, Long userId, String name, String email, String role) {
         this.isAuthenticated = isAuthenticated;
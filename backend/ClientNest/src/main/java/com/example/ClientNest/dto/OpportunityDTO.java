@@ -3,6 +3,7 @@ package com.example.ClientNest.dto;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import com.example.ClientNest.model.Lead;
 import com.example.ClientNest.model.Opportunity;
 import com.example.ClientNest.model.Opportunity.Stage;
 import com.example.ClientNest.misc.ActivityStatus;
@@ -24,6 +25,26 @@ public class OpportunityDTO {
 
     public OpportunityDTO() {}
 
+    // Constructor used by the list queries: opportunity columns, then the lead's as in LeadDTO
+    public OpportunityDTO(Long id, Stage stage, ActivityStatus status, LocalDateTime createdAt,
+            LocalDateTime updatedAt, Long quotationId,
+            Long customerId, String name, String email, String phoneNumber, String address, String city,
+            String state, Integer zipCode, String country, String website, Long leadId, String requirement,
+            String assignedTo, Integer conversionProbability, Double expectedRevenue, Lead.Source source,
+            LocalDateTime leadCreatedAt) {
+        this.id = id;
+        this.stage = stage;
+        this.status = status;
+        if (createdAt != null) {
+            this.createdDate = createdAt.format(DateTimeFormatter.ofPattern("dd/MM/yy"));
+        }
+        this.updatedAt = updatedAt;
+        this.quotationId = quotationId;
+        this.lead = new LeadDTO(customerId, name, email, phoneNumber, address, city, state, zipCode, country,
+                website, leadId, requirement, assignedTo, conversionProbability, expectedRevenue, source,
+                leadCreatedAt);
+    }
+
     public OpportunityDTO(Opportunity opportunity) {
         this.id = opportunity.getId();
         this.stage = opportunity.getStage();
@@ -0,0 +1,19 @@
+package com.example.ClientNest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Paging parameters shared by the list endpoints, bound from the query string
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageQuery {
+    // Opaque cursor from the previous page's "next", absent for the first page
+    private String cursor;
+    private Integer size;
+    // Property and optional direction, e.g. "name" or "name,desc"
+    private String sort;
+}
@@ -0,0 +1,31 @@
+package com.example.ClientNest.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSeriesDTO {
+    private String metric;
+    // Lead source or opportunity stage, null when the metric is not split
+    private String dimension;
+    private List<PointDTO> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PointDTO {
+        // First day of the bucket, yyyy-MM-dd
+        private String start;
+        private long count;
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ClientNest.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendPointDTO {
+    // yyyy-MM
+    private String month;
+    private long newCustomers;
+    private long newLeads;
+    private long paidInvoices;
+    private BigDecimal paidSales;
+}
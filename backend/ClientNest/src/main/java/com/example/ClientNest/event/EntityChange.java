@@ -0,0 +1,75 @@
+package com.example.ClientNest.event;
+
+/**
+ * A committed insert, update or delete of an entity.
+ *
+ * For updates the values the entity had before the change can be read by
+ * property name; they are not available when the entity was updated without
+ * being loaded first.
+ */
+public final class EntityChange {
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE,
+    }
+
+    private final Type type;
+    private final Object entity;
+    private final String[] propertyNames;
+    private final Object[] previousState;
+
+    private EntityChange(Type type, Object entity, String[] propertyNames, Object[] previousState) {
+        this.type = type;
+        this.entity = entity;
+        this.propertyNames = propertyNames;
+        this.previousState = previousState;
+    }
+
+    public static EntityChange inserted(Object entity) {
+        return new EntityChange(Type.INSERT, entity, null, null);
+    }
+
+    public static EntityChange updated(Object entity, String[] propertyNames, Object[] previousState) {
+        return new EntityChange(Type.UPDATE, entity, propertyNames, previousState);
+    }
+
+    public static EntityChange deleted(Object entity) {
+        return new EntityChange(Type.DELETE, entity, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public boolean hasPreviousState() {
+        return propertyNames != null && previousState != null;
+    }
+
+    /**
+     * Get the value a property had before an update
+     * @param property The entity property name
+     * @return The previous value, or null if unknown
+     */
+    public Object getPrevious(String property) {
+        if (!hasPreviousState()) {
+            return null;
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(property)) {
+                return previousState[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChange{" + type + " " + entity.getClass().getSimpleName() + "}";
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ClientNest.event;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fans committed entity changes out to every {@link EntityChangeObserver} bean.
+ *
+ * Changes normally arrive from Hibernate, but code that writes rows without going
+ * through the persistence context (e.g. JDBC batch inserts) can publish them here
+ * so derived data stays in step.
+ */
+@Component
+public class EntityChangeDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityChangeDispatcher.class);
+
+    private final ObjectProvider<EntityChangeObserver> observerProvider;
+    private volatile List<EntityChangeObserver> observers;
+
+    public EntityChangeDispatcher(ObjectProvider<EntityChangeObserver> observerProvider) {
+        this.observerProvider = observerProvider;
+    }
+
+    public void publish(EntityChange change) {
+        for (EntityChangeObserver observer : observers()) {
+            try {
+                observer.onEntityChange(change);
+            } catch (Exception e) {
+                logger.error("Observer " + observer.getClass().getSimpleName() + " failed on " + change, e);
+            }
+        }
+    }
+
+    private List<EntityChangeObserver> observers() {
+        List<EntityChangeObserver> current = observers;
+        if (current == null) {
+            // Resolved lazily so observers may depend on beans that depend on the dispatcher
+            current = observerProvider.orderedStream().toList();
+            observers = current;
+        }
+        return current;
+    }
+}
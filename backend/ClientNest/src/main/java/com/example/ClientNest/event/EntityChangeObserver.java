@@ -0,0 +1,12 @@
+package com.example.ClientNest.event;
+
+/**
+ * Receives entity changes after the transaction that made them has committed.
+ *
+ * Implementations run on the committing thread and should only do cheap,
+ * in-memory work or short writes of their own.
+ */
+public interface EntityChangeObserver {
+
+    void onEntityChange(EntityChange change);
+}
@@ -0,0 +1,65 @@
+package com.example.ClientNest.event;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate post-commit listener that turns insert, update and delete events into
+ * {@link EntityChange}s. Rolled back changes are never published.
+ */
+@Component
+public class HibernateEntityChangeListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(HibernateEntityChangeListener.class);
+
+    private final EntityChangeDispatcher dispatcher;
+
+    public HibernateEntityChangeListener(EntityChangeDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        dispatcher.publish(EntityChange.inserted(event.getEntity()));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        dispatcher.publish(EntityChange.updated(
+                event.getEntity(), event.getPersister().getPropertyNames(), event.getOldState()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        dispatcher.publish(EntityChange.deleted(event.getEntity()));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        logger.debug("Insert of {} was not committed", event.getEntity().getClass().getSimpleName());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        logger.debug("Update of {} was not committed", event.getEntity().getClass().getSimpleName());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        logger.debug("Delete of {} was not committed", event.getEntity().getClass().getSimpleName());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+}
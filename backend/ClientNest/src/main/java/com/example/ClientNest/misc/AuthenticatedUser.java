@@ -0,0 +1,16 @@
+package com.example.ClientNest.misc;
+
+/**
+ * The user an access token was issued to, as carried in the token itself.
+ *
+ * @param userId The customer or employee id
+ * @param userType CUSTOMER or EMPLOYEE
+ * @param role The role granted at login
+ * @param email The email the user logged in with
+ */
+public record AuthenticatedUser(Long userId, String userType, String role, String email) {
+
+    public boolean isCustomer() {
+        return "CUSTOMER".equals(userType);
+    }
+}
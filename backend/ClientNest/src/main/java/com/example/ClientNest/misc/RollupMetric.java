@@ -0,0 +1,8 @@
+package com.example.ClientNest.misc;
+
+public enum RollupMetric {
+    NEW_CUSTOMERS,
+    NEW_LEADS,
+    NEW_OPPORTUNITIES,
+    PAID_SALES,
+}
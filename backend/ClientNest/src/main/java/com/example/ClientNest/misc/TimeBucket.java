@@ -0,0 +1,40 @@
+package com.example.ClientNest.misc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum TimeBucket {
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER;
+
+    /**
+     * Get the first day of the bucket containing a date; weeks start on Monday
+     * @param date Any day in the bucket
+     * @return The bucket start
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.withDayOfMonth(1).withMonth(((date.getMonthValue() - 1) / 3) * 3 + 1);
+        };
+    }
+
+    /**
+     * Get the start of the following bucket
+     * @param start A bucket start
+     * @return The next bucket start
+     */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            case QUARTER -> start.plusMonths(3);
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.ClientNest.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-day call count and talk time of one employee or one customer and call type.
+ * Every call is counted once under its employee and once under its customer. Rows
+ * are written with upserts by the call analytics store, never through JPA.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "call_daily_stat", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_call_daily_stat_party_day", columnNames = {"party", "day", "party_id", "call_type"})
+}, indexes = {
+        @Index(name = "idx_call_daily_stat_party_id_day", columnList = "party, party_id, day")
+})
+public class CallDailyStat {
+
+    public enum Party {
+        EMPLOYEE,
+        CUSTOMER
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Party party;
+
+    @Column(name = "party_id", nullable = false)
+    private Long partyId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    // CallLog.CallType name, empty for calls without a type
+    @Column(name = "call_type", nullable = false, length = 16)
+    private String callType = "";
+
+    @Column(name = "call_count", nullable = false)
+    private long callCount;
+
+    @Column(name = "talk_seconds", nullable = false)
+    private long talkSeconds;
+}
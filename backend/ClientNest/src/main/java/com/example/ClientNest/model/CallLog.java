@@ -3,11 +3,14 @@ package com.example.ClientNest.model;
 import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -15,8 +18,20 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * A logged phone call. On MySQL the table is range-partitioned by month of date_time
+ * (see CallLogPartitionManager), so every unique key includes date_time and the
+ * customer and employee references carry no foreign key constraints.
+ * uk_call_logs_external_id therefore does not keep an external id unique; ingested
+ * calls claim theirs in call_log_external_ids (see CallLogExternalId).
+ */
 @Entity
-@Table(name = "call_logs")
+@Table(name = "call_logs", indexes = {
+        @Index(name = "uk_call_logs_external_id", columnList = "external_id, date_time", unique = true),
+        @Index(name = "idx_call_logs_date_time", columnList = "date_time"),
+        @Index(name = "idx_call_logs_customer_date_time", columnList = "customer_id, date_time"),
+        @Index(name = "idx_call_logs_employee_date_time", columnList = "employee_id, date_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,10 +62,14 @@ public class CallLog {
     private Integer seconds = 0;
 
     @ManyToOne
-    @JoinColumn(name = "customer_id", nullable = false)
+    @JoinColumn(name = "customer_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Customer customer;
     
     @ManyToOne
-    @JoinColumn(name = "employee_id", nullable = false)
+    @JoinColumn(name = "employee_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Employee employee;
+
+    // The telephony system's call id for calls ingested from CDR files
+    @Column(name = "external_id", length = 100)
+    private String externalId;
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.ClientNest.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An external call id taken by a stored call log. call_logs is partitioned by
+ * date_time and cannot keep external_id unique on its own, so this unpartitioned
+ * table does. An id stays taken after its call log is deleted or archived, so the
+ * call is not ingested again.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "call_log_external_ids")
+public class CallLogExternalId {
+
+    @Id
+    @Column(name = "external_id", length = 100)
+    private String externalId;
+
+    @Column(name = "call_log_id", nullable = false)
+    private Long callLogId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
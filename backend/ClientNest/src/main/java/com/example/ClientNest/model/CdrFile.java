@@ -0,0 +1,79 @@
+package com.example.ClientNest.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A call-detail-record file seen by the CDR ingester, keyed by the SHA-256 of its
+ * contents so a file delivered again under any name is recognized.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "cdr_file", indexes = {
+        @Index(name = "uk_cdr_file_hash", columnList = "file_hash", unique = true),
+        @Index(name = "idx_cdr_file_started", columnList = "started_at")
+})
+public class CdrFile {
+
+    public enum Status {
+        PROCESSING, DONE, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_hash", nullable = false, length = 64)
+    private String fileHash;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false, length = 200)
+    private String owner;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "records_read", nullable = false)
+    private long recordsRead;
+
+    @Column(nullable = false)
+    private long imported;
+
+    // Calls already stored by an earlier delivery or run
+    @Column(nullable = false)
+    private long duplicates;
+
+    // Malformed records and calls whose numbers matched no customer or employee
+    @Column(nullable = false)
+    private long rejected;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
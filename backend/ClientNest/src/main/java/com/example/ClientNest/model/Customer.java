@@ -1,5 +1,9 @@
 package com.example.ClientNest.model;
 
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
 import com.example.ClientNest.misc.ActivityStatus;
 
 import jakarta.persistence.Column;
@@ -59,4 +63,8 @@ public class Customer {
 
     @Enumerated(EnumType.STRING)
     private ActivityStatus status = ActivityStatus.ACTIVE;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
 }
\ No newline at end of file
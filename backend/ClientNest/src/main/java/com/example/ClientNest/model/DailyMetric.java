@@ -0,0 +1,53 @@
+package com.example.ClientNest.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.example.ClientNest.misc.RollupMetric;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-day aggregate of one dashboard metric, optionally split by a dimension such
+ * as lead source or opportunity stage. Rows are written with upserts by the time
+ * bucket store, never through JPA.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "daily_metric", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_metric_metric_day_dimension", columnNames = {"metric", "day", "dimension"})
+})
+public class DailyMetric {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private RollupMetric metric;
+
+    // Empty when the metric is not split
+    @Column(nullable = false, length = 64)
+    private String dimension = "";
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "item_count", nullable = false)
+    private long itemCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+}
@@ -0,0 +1,125 @@
+package com.example.ClientNest.model;
+
+import java.time.LocalDateTime;
+
+import com.example.ClientNest.service.RecordReader;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An uploaded file being imported in the background.
+ *
+ * rowsCommitted is the number of the last record whose outcome is committed, moved
+ * forward in the same transaction as each chunk's rows, so a job picked up again
+ * after a restart skips exactly the records already handled. The owning node renews
+ * heartbeatAt while it holds the job; a job whose heartbeat has gone stale may be
+ * taken over by any node that can read its spool file.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "import_job", indexes = {
+        @Index(name = "idx_import_job_status_heartbeat", columnList = "status, heartbeat_at"),
+        @Index(name = "idx_import_job_created", columnList = "created_at")
+})
+public class ImportJob {
+
+    public enum Dataset {
+        LEADS("leads"),
+        CUSTOMERS("customers"),
+        PRODUCTS("products"),
+        CALL_LOGS("call-logs");
+
+        private final String path;
+
+        Dataset(String path) {
+            this.path = path;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public static Dataset fromPath(String path) {
+            for (Dataset dataset : values()) {
+                if (dataset.path.equalsIgnoreCase(path)) {
+                    return dataset;
+                }
+            }
+            throw new IllegalArgumentException("Unknown import: " + path);
+        }
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Dataset dataset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RecordReader.Format format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    @Column(name = "spool_path", nullable = false, length = 500)
+    private String spoolPath;
+
+    @Column(length = 200)
+    private String owner;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "rows_committed", nullable = false)
+    private long rowsCommitted;
+
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    @Column(name = "rows_failed", nullable = false)
+    private long rowsFailed;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    // Where the current run began, for its rate
+    @Column(name = "run_started_at")
+    private LocalDateTime runStartedAt;
+
+    @Column(name = "run_start_row", nullable = false)
+    private long runStartRow;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,42 @@
+package com.example.ClientNest.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A record an import job could not import, written with the chunk it belongs to.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "import_job_error", indexes = {
+        @Index(name = "idx_import_job_error_job_row", columnList = "job_id, record_number")
+})
+public class ImportJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "record_number", nullable = false)
+    private long recordNumber;
+
+    @Column(nullable = false, length = 500)
+    private String message;
+
+    public ImportJobError(Long jobId, long recordNumber, String message) {
+        this.jobId = jobId;
+        this.recordNumber = recordNumber;
+        this.message = message;
+    }
+}
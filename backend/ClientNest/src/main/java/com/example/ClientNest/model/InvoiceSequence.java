@@ -0,0 +1,29 @@
+package com.example.ClientNest.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-day invoice number counter. Rows are advanced in blocks by the invoice number
+ * allocator with atomic upserts, never through JPA.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "invoice_sequence")
+public class InvoiceSequence {
+
+    @Id
+    @Column(name = "sequence_day")
+    private LocalDate sequenceDay;
+
+    // First number not yet handed to any node
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+}
@@ -0,0 +1,36 @@
+package com.example.ClientNest.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The lease on a cluster-wide job. A node may run the job only while it owns the
+ * row and lease_until lies in the future. Rows are taken over with conditional
+ * updates by the job scheduler, never through JPA.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "job_lease")
+public class JobLease {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    // Node id of the current or last holder
+    @Column(nullable = false, length = 200)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "acquired_at", nullable = false)
+    private LocalDateTime acquiredAt;
+}
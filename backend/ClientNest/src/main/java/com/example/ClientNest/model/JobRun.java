@@ -0,0 +1,58 @@
+package com.example.ClientNest.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One run of a cluster-wide job, written by the job scheduler when the run ends.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "job_run", indexes = {
+        @Index(name = "idx_job_run_job_started", columnList = "job_name, started_at"),
+        @Index(name = "idx_job_run_started", columnList = "started_at")
+})
+public class JobRun {
+
+    public enum Status {
+        SUCCEEDED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(nullable = false, length = 200)
+    private String node;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at", nullable = false)
+    private LocalDateTime finishedAt;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(length = 1000)
+    private String error;
+}
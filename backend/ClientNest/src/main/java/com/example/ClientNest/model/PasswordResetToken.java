@@ -7,11 +7,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens", indexes = {
+        @Index(name = "idx_password_reset_tokens_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_password_reset_tokens_user", columnList = "user_email, user_type")
+})
 @Data
 public class PasswordResetToken {
     
@@ -28,7 +32,7 @@ public class PasswordResetToken {
     @Column(name = "user_type", nullable = false)
     private String userType; // "CUSTOMER" or "EMPLOYEE"
     
-    @Column(nullable = false)
+    @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
     
     @Column
@@ -0,0 +1,48 @@
+package com.example.ClientNest.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ClientNest.model.CdrFile;
+
+@Repository
+public interface CdrFileRepository extends JpaRepository<CdrFile, Long> {
+
+    Optional<CdrFile> findByFileHash(String fileHash);
+
+    /**
+     * Take over a failed or abandoned file, provided nobody renewed it since it was read.
+     * The counts start again; calls the earlier run stored are counted as duplicates.
+     * @return 1 if the file is now owned by the caller
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CdrFile f SET f.owner = :owner, f.status = com.example.ClientNest.model.CdrFile.Status.PROCESSING, "
+            + "f.fileName = :fileName, f.startedAt = :now, f.heartbeatAt = :now, f.finishedAt = NULL, f.lastError = NULL, "
+            + "f.recordsRead = 0, f.imported = 0, f.duplicates = 0, f.rejected = 0 "
+            + "WHERE f.id = :id AND f.heartbeatAt = :seenHeartbeat "
+            + "AND f.status <> com.example.ClientNest.model.CdrFile.Status.DONE")
+    int claim(Long id, String owner, String fileName, LocalDateTime now, LocalDateTime seenHeartbeat);
+
+    /**
+     * Add a batch's counts; joins the batch's transaction
+     * @return 1 if the caller still owns the file
+     */
+    @Modifying
+    @Query("UPDATE CdrFile f SET f.recordsRead = f.recordsRead + :records, f.imported = f.imported + :imported, "
+            + "f.duplicates = f.duplicates + :duplicates, f.rejected = f.rejected + :rejected, f.heartbeatAt = :now "
+            + "WHERE f.id = :id AND f.owner = :owner")
+    int advance(Long id, String owner, long records, long imported, long duplicates, long rejected, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CdrFile f SET f.status = :status, f.finishedAt = :now, f.heartbeatAt = :now, f.lastError = :error "
+            + "WHERE f.id = :id AND f.owner = :owner")
+    int finish(Long id, String owner, CdrFile.Status status, LocalDateTime now, String error);
+}
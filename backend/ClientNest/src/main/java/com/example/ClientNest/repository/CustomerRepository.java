@@ -4,13 +4,16 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ClientNest.model.Customer;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
     Optional<Customer> findByEmail(String email);
     Optional<Customer> findByName(String name);
 
@@ -24,4 +27,12 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     @Query("SELECT c FROM Customer c WHERE c.status = 'DELETED'")
     List<Customer> findDeletedCustomers();
+
+    /**
+     * Swap in a new hash unless the password was changed in the meantime
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Customer c SET c.passwordHash = :newHash WHERE c.id = :id AND c.passwordHash = :oldHash")
+    int replacePasswordHash(Long id, String oldHash, String newHash);
 }
\ No newline at end of file
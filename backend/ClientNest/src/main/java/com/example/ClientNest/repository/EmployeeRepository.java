@@ -4,8 +4,10 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ClientNest.model.Employee;
 
@@ -16,4 +18,12 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     @Query("SELECT e.name FROM Employee e")
     List<String> findAllNames();
+
+    /**
+     * Swap in a new hash unless the password was changed in the meantime
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Employee e SET e.hashedPassword = :newHash WHERE e.id = :id AND e.hashedPassword = :oldHash")
+    int replacePasswordHash(Long id, String oldHash, String newHash);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.ClientNest.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.ClientNest.model.ImportJobError;
+
+@Repository
+public interface ImportJobErrorRepository extends JpaRepository<ImportJobError, Long> {
+
+    List<ImportJobError> findByJobIdOrderByRecordNumber(Long jobId, Limit limit);
+
+    long countByJobId(Long jobId);
+}
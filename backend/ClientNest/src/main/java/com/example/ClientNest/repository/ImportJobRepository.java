@@ -0,0 +1,70 @@
+package com.example.ClientNest.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ClientNest.model.ImportJob;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    List<ImportJob> findAllByOrderByCreatedAtDesc(Limit limit);
+
+    /**
+     * Find unfinished jobs nobody has renewed since a given time, and those recorded as
+     * owned by the given node, which a restarted node with a fixed id no longer holds
+     */
+    @Query("SELECT j FROM ImportJob j WHERE j.status IN :statuses AND (j.heartbeatAt < :before OR j.owner = :owner) "
+            + "ORDER BY j.id")
+    List<ImportJob> findOrphaned(Collection<ImportJob.Status> statuses, LocalDateTime before, String owner);
+
+    /**
+     * Take over a job, provided nobody renewed it since it was read
+     * @return 1 if the job is now owned by the caller
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.owner = :owner, j.heartbeatAt = :now "
+            + "WHERE j.id = :id AND j.heartbeatAt = :seenHeartbeat AND j.status IN :statuses")
+    int claim(Long id, String owner, LocalDateTime now, LocalDateTime seenHeartbeat,
+            Collection<ImportJob.Status> statuses);
+
+    /**
+     * Mark an owned job as running from its last committed record
+     * @return 1 if the caller still owns the job
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.status = com.example.ClientNest.model.ImportJob.Status.RUNNING, j.heartbeatAt = :now, "
+            + "j.startedAt = COALESCE(j.startedAt, :now), j.runStartedAt = :now, j.runStartRow = j.rowsCommitted "
+            + "WHERE j.id = :id AND j.owner = :owner AND j.status IN :statuses")
+    int start(Long id, String owner, LocalDateTime now, Collection<ImportJob.Status> statuses);
+
+    /**
+     * Move a job past a chunk; joins the chunk's transaction
+     * @return 1 if the caller still owns the job
+     */
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.rowsCommitted = :rowsCommitted, j.rowsImported = j.rowsImported + :imported, "
+            + "j.rowsFailed = j.rowsFailed + :failed, j.heartbeatAt = :now WHERE j.id = :id AND j.owner = :owner")
+    int advance(Long id, String owner, long rowsCommitted, long imported, long failed, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.owner = :owner")
+    int renew(Collection<Long> ids, String owner, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.status = :status, j.finishedAt = :now, j.heartbeatAt = :now, j.lastError = :error "
+            + "WHERE j.id = :id AND j.owner = :owner")
+    int finish(Long id, String owner, ImportJob.Status status, LocalDateTime now, String error);
+}
@@ -0,0 +1,13 @@
+package com.example.ClientNest.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.ClientNest.model.JobLease;
+
+/**
+ * Read access to job leases; the scheduler takes and releases them with plain SQL
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+}
@@ -0,0 +1,24 @@
+package com.example.ClientNest.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ClientNest.model.JobRun;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+
+    List<JobRun> findByJobNameOrderByStartedAtDesc(String jobName, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JobRun r WHERE r.startedAt < :before")
+    int deleteStartedBefore(LocalDateTime before);
+}
@@ -3,39 +3,33 @@ package com.example.ClientNest.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 
 import com.example.ClientNest.dto.LeadDTO;
 import com.example.ClientNest.model.Lead;
 
-public interface LeadRepository extends JpaRepository<Lead, Long> {
-    List<Lead> findByStatus(String status);
+public interface LeadRepository extends JpaRepository<Lead, Long>, JpaSpecificationExecutor<Lead> {
 
-    @Query("""
-        SELECT new com.example.ClientNest.dto.LeadDTO(l)
+    // Flat columns for LeadDTO, so listing leads is a single select with no lazy loads
+    String LEAD_DTO_SELECT = """
+        SELECT new com.example.ClientNest.dto.LeadDTO(
+            c.id, c.name, c.email, c.phoneNumber, c.address, c.city, c.state, c.zipCode, c.country, c.website,
+            l.id, l.requirement, e.name, l.probability, l.expectedRevenue, l.source, l.createdAt)
         FROM Lead l
         JOIN l.customer c
         JOIN l.employee e
-        WHERE l.status = 'ACTIVE'
-        """)
+        """;
+
+    List<Lead> findByStatus(String status);
+
+    @Query(LEAD_DTO_SELECT + "WHERE l.status = 'ACTIVE'")
     List<LeadDTO> getAllLeadDetails();
 
-    @Query("""
-        SELECT new com.example.ClientNest.dto.LeadDTO(l)
-        FROM Lead l
-        JOIN l.customer c
-        JOIN l.employee e
-        WHERE l.id = :id
-        """)
+    @Query(LEAD_DTO_SELECT + "WHERE l.id = :id")
     LeadDTO getLeadDetailsById(Long id); // Use the correct type for the ID field in your Lead entity
 
-    @Query("""
-        SELECT new com.example.ClientNest.dto.LeadDTO(l)
-        FROM Lead l
-        JOIN l.customer c
-        JOIN l.employee e
-        WHERE l.status = 'DELETED'
-        """)
+    @Query(LEAD_DTO_SELECT + "WHERE l.status = 'DELETED'")
     List<LeadDTO> getDeletedLeadDetails();
 
     @Query("""
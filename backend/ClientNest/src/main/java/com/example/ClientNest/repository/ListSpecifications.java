@@ -0,0 +1,75 @@
+package com.example.ClientNest.repository;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Building blocks for the list endpoint filters. Each returns null when the filter
+ * value is absent so the results can be passed straight to {@link Specification#allOf}.
+ */
+public final class ListSpecifications {
+
+    private ListSpecifications() {
+    }
+
+    public static <T> Specification<T> equal(String attribute, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    /**
+     * Match on the id of a to-one association without joining it
+     */
+    public static <T> Specification<T> idEquals(String association, Long id) {
+        if (id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(association).get("id"), id);
+    }
+
+    /**
+     * Case-insensitive substring match on any of the given attributes
+     */
+    public static <T> Specification<T> contains(String text, String... attributes) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.or(Arrays.stream(attributes)
+                .map(attribute -> cb.like(cb.lower(root.get(attribute)), pattern, '\\'))
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * Closed range on a comparable attribute, both bounds inclusive
+     */
+    public static <T, Y extends Comparable<? super Y>> Specification<T> between(String attribute, Y from, Y to) {
+        return (root, query, cb) -> cb.between(root.<Y>get(attribute), from, to);
+    }
+
+    /**
+     * Half-open range on a comparable attribute, either bound may be null
+     */
+    public static <T, Y extends Comparable<? super Y>> Specification<T> range(String attribute, Y from, Y toExclusive) {
+        if (from == null && toExclusive == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThan(root.<Y>get(attribute), toExclusive);
+            }
+            if (toExclusive == null) {
+                return cb.greaterThanOrEqualTo(root.<Y>get(attribute), from);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(root.<Y>get(attribute), from),
+                    cb.lessThan(root.<Y>get(attribute), toExclusive));
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.example.ClientNest.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -10,7 +11,7 @@ import com.example.ClientNest.dto.NoteDTO;
 import com.example.ClientNest.model.Note;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, Long> {
+public interface NoteRepository extends JpaRepository<Note, Long>, JpaSpecificationExecutor<Note> {
     
     @Query("""
         SELECT new com.example.ClientNest.dto.NoteDTO(n)
@@ -13,31 +13,35 @@ import com.example.ClientNest.model.Quotation;
 
 @Repository
 public interface OpportunityRepository extends JpaRepository<Opportunity, Long> {
-    
-    @Query("""
-            SELECT o FROM Opportunity o
-            WHERE o.status = 'ACTIVE'
-            """)
+
+    // Flat columns for OpportunityDTO and its lead, so listing opportunities is a single
+    // select instead of one per lead, customer, employee and quotation
+    String OPPORTUNITY_DTO_SELECT = """
+            SELECT new com.example.ClientNest.dto.OpportunityDTO(
+                o.id, o.stage, o.status, o.createdAt, o.updatedAt, q.id,
+                c.id, c.name, c.email, c.phoneNumber, c.address, c.city, c.state, c.zipCode, c.country, c.website,
+                l.id, l.requirement, e.name, l.probability, l.expectedRevenue, l.source, l.createdAt)
+            FROM Opportunity o
+            JOIN o.lead l
+            JOIN l.customer c
+            JOIN l.employee e
+            LEFT JOIN o.quotation q
+            """;
+
+    @Query(OPPORTUNITY_DTO_SELECT + "WHERE o.status = 'ACTIVE'")
     List<OpportunityDTO> findAllActiveOpportunityDTOs();
 
-    @Query("""
-            SELECT o FROM Opportunity o
-            WHERE o.status = 'Deleted'
-            """)
+    @Query(OPPORTUNITY_DTO_SELECT + "WHERE o.status = 'DELETED'")
     List<OpportunityDTO> findAllDeletedOpportunityDTOs();
 
-    @Query("""
-            SELECT o FROM Opportunity o
+    @Query(OPPORTUNITY_DTO_SELECT + """
             WHERE o.stage = :stage
             AND o.status = 'ACTIVE'
             """)
-    List<OpportunityDTO> findActiveOpportunityDTOsByStage(String stage);
+    List<OpportunityDTO> findActiveOpportunityDTOsByStage(Opportunity.Stage stage);
 
     Optional<Opportunity> findByQuotation(Quotation quotation);
 
-	@Query("""
-			SELECT o FROM Opportunity o
-			WHERE o.employee.id = :employeeId
-			""")
+    @Query(OPPORTUNITY_DTO_SELECT + "WHERE o.employee.id = :employeeId")
     List<OpportunityDTO> findActiveOpportunityDTOsByEmployeeId(Long employeeId);
 }
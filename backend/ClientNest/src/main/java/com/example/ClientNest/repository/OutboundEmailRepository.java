@@ -0,0 +1,41 @@
+package com.example.ClientNest.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.ClientNest.model.OutboundEmail;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    @Query("SELECT e.id FROM OutboundEmail e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<Long> findDueIds(LocalDateTime now, Limit limit);
+
+    /**
+     * Claim the given rows for one dispatcher. Rows another dispatcher claimed first
+     * are no longer PENDING and are skipped.
+     */
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = 'SENDING', e.claimToken = :token, e.claimedAt = :now " +
+           "WHERE e.id IN :ids AND e.status = 'PENDING'")
+    int claim(Collection<Long> ids, String token, LocalDateTime now);
+
+    List<OutboundEmail> findByClaimTokenOrderById(String claimToken);
+
+    /**
+     * Hand rows back whose dispatcher stopped before recording the attempt
+     */
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = 'PENDING', e.claimToken = NULL, e.claimedAt = NULL " +
+           "WHERE e.status = 'SENDING' AND e.claimedAt < :before")
+    int releaseStaleClaims(LocalDateTime before);
+
+    long countByStatus(OutboundEmail.Status status);
+}
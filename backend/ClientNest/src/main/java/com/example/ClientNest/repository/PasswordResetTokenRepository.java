@@ -1,12 +1,16 @@
 package com.example.ClientNest.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ClientNest.model.PasswordResetToken;
 
@@ -17,7 +21,19 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     
     Optional<PasswordResetToken> findByUserEmailAndUserType(String userEmail, String userType);
     
+    /**
+     * Next batch of expired tokens after the given (expiryDate, id) position, in
+     * expiry_date index order
+     * @return Pairs of id and expiry date
+     */
+    @Query("SELECT t.id, t.expiryDate FROM PasswordResetToken t " +
+           "WHERE t.expiryDate <= :now " +
+           "AND (t.expiryDate > :afterExpiry OR (t.expiryDate = :afterExpiry AND t.id > :afterId)) " +
+           "ORDER BY t.expiryDate, t.id")
+    List<Object[]> findExpiredAfter(LocalDateTime now, LocalDateTime afterExpiry, Long afterId, Limit limit);
+
     @Modifying
-    @Query("DELETE FROM PasswordResetToken t WHERE t.expiryDate <= ?1 OR t.used = true")
-    void deleteExpiredOrUsedTokens(LocalDateTime now);
+    @Transactional
+    @Query("DELETE FROM PasswordResetToken t WHERE t.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
@@ -2,13 +2,22 @@ package com.example.ClientNest.repository;
 
 import com.example.ClientNest.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     Product findByNameContainingIgnoreCase(String name);
     List<Product> findByCategory(String category);
     List<Product> findByStatus(String status);
+
+    /**
+     * Get the id and name of every product, without loading the entities
+     * @return Rows of [id, name]
+     */
+    @Query("SELECT p.id, p.name FROM Product p")
+    List<Object[]> findAllIdsAndNames();
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.example.ClientNest.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+import com.example.ClientNest.misc.AuthenticatedUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Issues and checks the self-contained access tokens handed out at login.
+ *
+ * Tokens are HS256 JWTs whose claims carry everything a request needs to know about
+ * the caller (id, user type, role and email), so checking one is a MAC computation
+ * and a JSON parse with no database access. The key comes from JWT_SECRET, which
+ * every instance must share, and startup fails without it. Only under the dev
+ * profile is a random per-process key used instead; its tokens stop working on
+ * restart and are rejected by every other instance.
+ */
+@Service
+public class AccessTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final String DEV_PROFILE = "dev";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // Only one header is ever issued, so anything else (such as "alg":"none") is rejected outright
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.US_ASCII));
+
+    /**
+     * A signed token and the moment it stops being accepted
+     */
+    public record AccessToken(String token, Instant expiresAt) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> macs;
+
+    public AccessTokenService(
+            ObjectMapper objectMapper,
+            Environment environment,
+            @Value("${clientnest.auth.token-secret:}") String secret,
+            @Value("${clientnest.auth.token-ttl-minutes:480}") long ttlMinutes) {
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (!environment.acceptsProfiles(Profiles.of(DEV_PROFILE))) {
+                throw new IllegalStateException("JWT_SECRET is not set; every instance needs the same secret of at least "
+                        + MIN_SECRET_BYTES + " bytes, or run with the " + DEV_PROFILE + " profile for a per-process key");
+            }
+            logger.warn("No JWT_SECRET configured under the {} profile; using a random key, so access tokens will "
+                    + "not survive a restart and are rejected by any other instance", DEV_PROFILE);
+            keyBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalArgumentException("JWT_SECRET must be at least " + MIN_SECRET_BYTES + " bytes long");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Issue a token for a user who has just logged in
+     * @param user The user
+     * @return The signed token
+     */
+    public AccessToken issue(AuthenticatedUser user) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(user.userId()));
+        claims.put("typ", user.userType());
+        claims.put("role", user.role());
+        claims.put("email", user.email());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", expiresAt.getEpochSecond());
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            String signingInput = HEADER + "." + payload;
+            return new AccessToken(signingInput + "." + ENCODER.encodeToString(sign(signingInput)), expiresAt);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write access token", e);
+        }
+    }
+
+    /**
+     * Check a token's signature and expiry
+     * @param token The token from the Authorization header
+     * @return The user it was issued to, or empty if it is malformed, forged or expired
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot || !token.substring(0, firstDot).equals(HEADER)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, lastDot)))) {
+                return Optional.empty();
+            }
+            Map<?, ?> claims = objectMapper.readValue(DECODER.decode(token.substring(firstDot + 1, lastDot)), Map.class);
+            if (!(claims.get("exp") instanceof Number exp) || exp.longValue() <= Instant.now().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(
+                    Long.valueOf((String) claims.get("sub")),
+                    (String) claims.get("typ"),
+                    (String) claims.get("role"),
+                    (String) claims.get("email")));
+        } catch (IllegalArgumentException | ClassCastException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.example.ClientNest.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ClientNest.dto.CallStatsDTO;
+import com.example.ClientNest.dto.CallTrendPointDTO;
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeObserver;
+import com.example.ClientNest.misc.TimeBucket;
+import com.example.ClientNest.model.CallDailyStat.Party;
+import com.example.ClientNest.model.CallLog;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.service.IncrementWriter.Increment;
+
+/**
+ * Keeps the call_daily_stat table (call count and talk time per day, call type and
+ * employee, and per day, call type and customer) in step with call_logs and answers
+ * range, ranking and trend queries from it.
+ *
+ * Every committed call log insert, update and delete, whether through JPA, a bulk
+ * import or CDR ingestion, moves the rows of the call's day, employee and customer.
+ * A month across all employees reads at most one row per employee, day and call
+ * type, however many calls the month holds. A nightly job recomputes the recent days
+ * from call_logs, which also picks up calls updated without their previous state.
+ * Rebuilds skip the months whose call logs partition maintenance has retired, so
+ * their statistics survive.
+ */
+@Component
+public class CallAnalyticsStore implements EntityChangeObserver, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallAnalyticsStore.class);
+
+    // MySQL DATE range, used for a full rebuild
+    private static final LocalDate FULL_RANGE_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate FULL_RANGE_END = LocalDate.of(9999, 12, 30);
+
+    private static final String UNTYPED = "";
+    private static final int MAX_BUCKETS = 1000;
+
+    // Talk seconds travel as the increment amount
+    private static final String UPSERT_SQL = "INSERT INTO call_daily_stat "
+            + "(party, party_id, day, call_type, call_count, talk_seconds) VALUES (?, ?, ?, ?, ?, ?) AS delta "
+            + "ON DUPLICATE KEY UPDATE call_count = call_daily_stat.call_count + delta.call_count, "
+            + "talk_seconds = call_daily_stat.talk_seconds + delta.talk_seconds";
+
+    public enum Ranking {
+        CALLS,
+        TALK_TIME,
+        AVERAGE_TALK_TIME,
+        MISSED,
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final CallLogPartitionManager callLogPartitionManager;
+    private final int reconcileDays;
+
+    private final IncrementWriter<Key> writer = new IncrementWriter<>("call-stat-writer", this::upsert);
+
+    public CallAnalyticsStore(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SchemaCatalog schemaCatalog,
+            CallLogPartitionManager callLogPartitionManager,
+            @Value("${clientnest.call-analytics.reconcile-days:35}") int reconcileDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.callLogPartitionManager = callLogPartitionManager;
+        this.reconcileDays = reconcileDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        writer.seedIfEmpty("Call statistics",
+                () -> jdbcTemplate.queryForList("SELECT id FROM call_daily_stat LIMIT 1", Long.class).isEmpty(),
+                () -> rebuildRange(FULL_RANGE_START, FULL_RANGE_END));
+    }
+
+    /**
+     * Get the call numbers of every employee over a range
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @return One entry per employee, including employees without calls, by name
+     */
+    public List<CallStatsDTO> employees(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        Map<Long, Totals> totals = totals(Party.EMPLOYEE, null, from, to);
+        Map<Long, String> names = names(Party.EMPLOYEE, null);
+        long days = days(from, to);
+        return names.entrySet().stream()
+                .map(entry -> toDTO(entry.getKey(), entry.getValue(),
+                        totals.getOrDefault(entry.getKey(), new Totals()), days))
+                .sorted(Comparator.comparing(CallStatsDTO::getName, Comparator.nullsLast(String::compareToIgnoreCase))
+                        .thenComparing(CallStatsDTO::getId))
+                .toList();
+    }
+
+    /**
+     * Get the call numbers of one employee or customer over a range
+     * @param party Employee or customer
+     * @param id Employee or customer ID
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @return The numbers, or empty if the employee or customer does not exist
+     */
+    public Optional<CallStatsDTO> get(Party party, Long id, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        Map<Long, String> names = names(party, List.of(id));
+        if (!names.containsKey(id)) {
+            return Optional.empty();
+        }
+        Totals totals = totals(party, id, from, to).getOrDefault(id, new Totals());
+        return Optional.of(toDTO(id, names.get(id), totals, days(from, to)));
+    }
+
+    /**
+     * Get the employees or customers with the most calls, talk time, average talk
+     * time or missed calls over a range
+     * @param party Employee or customer
+     * @param ranking What to rank by
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @param limit Maximum number of entries
+     * @return The top entries with at least one call, best first
+     */
+    public List<CallStatsDTO> top(Party party, Ranking ranking, LocalDate from, LocalDate to, int limit) {
+        validateRange(from, to);
+        long days = days(from, to);
+        List<CallStatsDTO> top = totals(party, null, from, to).entrySet().stream()
+                .filter(entry -> entry.getValue().calls > 0)
+                .map(entry -> toDTO(entry.getKey(), null, entry.getValue(), days))
+                .sorted(order(ranking).reversed().thenComparing(CallStatsDTO::getId))
+                .limit(limit)
+                .toList();
+        Map<Long, String> names = names(party, top.stream().map(CallStatsDTO::getId).toList());
+        top.forEach(dto -> dto.setName(names.get(dto.getId())));
+        return top;
+    }
+
+    /**
+     * Get bucketed call numbers of all calls, or of one employee or customer
+     * @param party Employee or customer, or null for all calls
+     * @param id Employee or customer ID, ignored without a party
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @param bucket Bucket size
+     * @return One point per bucket in the range, including empty buckets
+     */
+    public List<CallTrendPointDTO> series(Party party, Long id, LocalDate from, LocalDate to, TimeBucket bucket) {
+        validateRange(from, to);
+        Map<LocalDate, Totals> buckets = new TreeMap<>();
+        int count = 0;
+        for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+            if (++count > MAX_BUCKETS) {
+                throw new IllegalArgumentException("Range " + from + " to " + to + " has more than "
+                        + MAX_BUCKETS + " " + bucket + " buckets");
+            }
+            buckets.put(start, new Totals());
+        }
+
+        // Each call has one employee, so the employee rows also hold the totals of all calls
+        List<Object> args = new ArrayList<>();
+        args.add(party != null ? party.name() : Party.EMPLOYEE.name());
+        String partyCondition = "";
+        if (party != null) {
+            partyCondition = " AND party_id = ?";
+            args.add(id);
+        }
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        jdbcTemplate.query("SELECT day, call_type, SUM(call_count) AS call_count, SUM(talk_seconds) AS talk_seconds "
+                        + "FROM call_daily_stat WHERE party = ?" + partyCondition + " AND day >= ? AND day <= ? "
+                        + "GROUP BY day, call_type",
+                rs -> {
+                    LocalDate start = bucket.start(rs.getDate("day").toLocalDate());
+                    buckets.get(start).add(rs.getString("call_type"), rs.getLong("call_count"), rs.getLong("talk_seconds"));
+                },
+                args.toArray());
+
+        List<CallTrendPointDTO> points = new ArrayList<>(buckets.size());
+        buckets.forEach((start, totals) -> points.add(CallTrendPointDTO.builder()
+                .start(start.toString())
+                .calls(totals.calls)
+                .missedCalls(totals.missed())
+                .talkSeconds(totals.talkSeconds)
+                .averageTalkSeconds(totals.averageTalkSeconds())
+                .build()));
+        return points;
+    }
+
+    /**
+     * Recompute a range of days from the call logs and wait for it to finish
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        writer.executeAndWait(() -> rebuildRange(from, to));
+    }
+
+    /**
+     * Recompute the most recent days, picking up anything the change events missed
+     */
+    @ScheduledJob(name = "call-stat-reconcile", cron = "${clientnest.call-analytics.reconcile-cron:0 0 3 * * *}")
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(reconcileDays - 1), today);
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        if (!(change.getEntity() instanceof CallLog callLog)) {
+            return;
+        }
+        List<Increment<Key>> increments = new ArrayList<>();
+        switch (change.getType()) {
+            case INSERT -> contribution(callLog.getDateTime(), callLog.getType(), callLog.getMinutes(),
+                    callLog.getSeconds(), callLog.getEmployee(), callLog.getCustomer(), 1, increments);
+            case DELETE -> contribution(callLog.getDateTime(), callLog.getType(), callLog.getMinutes(),
+                    callLog.getSeconds(), callLog.getEmployee(), callLog.getCustomer(), -1, increments);
+            case UPDATE -> {
+                if (!change.hasPreviousState()) {
+                    return;
+                }
+                // Unchanged keys cancel out in the writer
+                contribution(callLog.getDateTime(), callLog.getType(), callLog.getMinutes(),
+                        callLog.getSeconds(), callLog.getEmployee(), callLog.getCustomer(), 1, increments);
+                contribution((LocalDateTime) change.getPrevious("dateTime"),
+                        (CallLog.CallType) change.getPrevious("type"), (Integer) change.getPrevious("minutes"),
+                        (Integer) change.getPrevious("seconds"), (Employee) change.getPrevious("employee"),
+                        (Customer) change.getPrevious("customer"), -1, increments);
+            }
+        }
+        writer.add(increments);
+    }
+
+    @Override
+    public void destroy() {
+        writer.shutdown();
+    }
+
+    // Increments for a single call, added for the new state and subtracted for the old one
+
+    private void contribution(LocalDateTime dateTime, CallLog.CallType type, Integer minutes, Integer seconds,
+            Employee employee, Customer customer, long sign, List<Increment<Key>> increments) {
+        if (dateTime == null) {
+            return;
+        }
+        LocalDate day = dateTime.toLocalDate();
+        String callType = type != null ? type.name() : UNTYPED;
+        long talkSeconds = (minutes != null ? minutes : 0) * 60L + (seconds != null ? seconds : 0);
+        BigDecimal amount = BigDecimal.valueOf(sign * talkSeconds);
+        if (employee != null && employee.getId() != null) {
+            increments.add(new Increment<>(new Key(Party.EMPLOYEE, employee.getId(), day, callType), sign, amount));
+        }
+        if (customer != null && customer.getId() != null) {
+            increments.add(new Increment<>(new Key(Party.CUSTOMER, customer.getId(), day, callType), sign, amount));
+        }
+    }
+
+    // Reads
+
+    private Map<Long, Totals> totals(Party party, Long id, LocalDate from, LocalDate to) {
+        Map<Long, Totals> result = new HashMap<>();
+        List<Object> args = new ArrayList<>();
+        args.add(party.name());
+        String idCondition = "";
+        if (id != null) {
+            idCondition = " AND party_id = ?";
+            args.add(id);
+        }
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        jdbcTemplate.query("SELECT party_id, call_type, SUM(call_count) AS call_count, SUM(talk_seconds) AS talk_seconds "
+                        + "FROM call_daily_stat WHERE party = ?" + idCondition + " AND day >= ? AND day <= ? "
+                        + "GROUP BY party_id, call_type",
+                rs -> {
+                    result.computeIfAbsent(rs.getLong("party_id"), partyId -> new Totals())
+                            .add(rs.getString("call_type"), rs.getLong("call_count"), rs.getLong("talk_seconds"));
+                },
+                args.toArray());
+        return result;
+    }
+
+    /**
+     * @param ids The IDs to look up, or null for all rows
+     */
+    private Map<Long, String> names(Party party, Collection<Long> ids) {
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+        String table = party == Party.EMPLOYEE ? schema.employeeTable() : schema.customerTable();
+        Map<Long, String> names = new LinkedHashMap<>();
+        if (table == null || (ids != null && ids.isEmpty())) {
+            return names;
+        }
+        String sql = "SELECT id, name FROM " + table;
+        if (ids != null) {
+            sql += " WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        }
+        jdbcTemplate.query(sql, rs -> {
+            names.put(rs.getLong("id"), rs.getString("name"));
+        }, ids != null ? ids.toArray() : new Object[0]);
+        return names;
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Range start " + from + " is after its end " + to);
+        }
+    }
+
+    private static long days(LocalDate from, LocalDate to) {
+        return ChronoUnit.DAYS.between(from, to) + 1;
+    }
+
+    private static Comparator<CallStatsDTO> order(Ranking ranking) {
+        return switch (ranking) {
+            case CALLS -> Comparator.comparingLong(CallStatsDTO::getCalls);
+            case TALK_TIME -> Comparator.comparingLong(CallStatsDTO::getTalkSeconds);
+            case AVERAGE_TALK_TIME -> Comparator.comparingDouble(CallStatsDTO::getAverageTalkSeconds);
+            case MISSED -> Comparator.comparingLong(CallStatsDTO::getMissedCalls);
+        };
+    }
+
+    private static CallStatsDTO toDTO(Long id, String name, Totals totals, long days) {
+        Map<String, Long> byType = new LinkedHashMap<>();
+        for (CallLog.CallType type : CallLog.CallType.values()) {
+            byType.put(type.name(), totals.byType.getOrDefault(type.name(), 0L));
+        }
+        return CallStatsDTO.builder()
+                .id(id)
+                .name(name)
+                .calls(totals.calls)
+                .missedCalls(totals.missed())
+                .talkSeconds(totals.talkSeconds)
+                .averageTalkSeconds(totals.averageTalkSeconds())
+                .callsPerDay((double) totals.calls / days)
+                .callsByType(byType)
+                .build();
+    }
+
+    // Writer thread
+
+    private void upsert(List<Increment<Key>> batch) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, increment) -> {
+            ps.setString(1, increment.key().party().name());
+            ps.setLong(2, increment.key().partyId());
+            ps.setDate(3, Date.valueOf(increment.key().day()));
+            ps.setString(4, increment.key().callType());
+            ps.setLong(5, increment.count());
+            ps.setLong(6, increment.amount().longValueExact());
+        });
+    }
+
+    private void rebuildRange(LocalDate from, LocalDate to) {
+        String callLogTable = schemaCatalog.current().callLogTable();
+        if (callLogTable == null) {
+            logger.debug("No call log table, skipping rebuild");
+            return;
+        }
+        // Recounting a retired month would zero its statistics
+        LocalDate retainedFrom = callLogPartitionManager.retainedFrom();
+        LocalDate start = retainedFrom != null && from.isBefore(retainedFrom) ? retainedFrom : from;
+        if (start.isAfter(to)) {
+            logger.debug("Call logs up to {} are retired, nothing to rebuild", to);
+            return;
+        }
+
+        LocalDate end = to.plusDays(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE call_daily_stat SET call_count = 0, talk_seconds = 0 WHERE day >= ? AND day < ?",
+                    Date.valueOf(start), Date.valueOf(end));
+            rebuildParty(Party.EMPLOYEE, "employee_id", callLogTable, start, end);
+            rebuildParty(Party.CUSTOMER, "customer_id", callLogTable, start, end);
+        });
+        logger.info("Rebuilt call statistics from {} to {}", start, to);
+    }
+
+    private void rebuildParty(Party party, String idColumn, String callLogTable, LocalDate from, LocalDate end) {
+        // Plain range on date_time so an index on it can be used
+        String sql = String.format(
+                "INSERT INTO call_daily_stat (party, party_id, day, call_type, call_count, talk_seconds) "
+                        + "SELECT * FROM (SELECT ? AS party, %1$s AS party_id, DATE(date_time) AS day, "
+                        + "COALESCE(type, '') AS call_type, COUNT(*) AS call_count, "
+                        + "COALESCE(SUM(COALESCE(minutes, 0) * 60 + COALESCE(seconds, 0)), 0) AS talk_seconds "
+                        + "FROM %2$s WHERE date_time >= ? AND date_time < ? AND %1$s IS NOT NULL "
+                        + "GROUP BY %1$s, DATE(date_time), COALESCE(type, '')) AS source "
+                        + "ON DUPLICATE KEY UPDATE call_count = source.call_count, talk_seconds = source.talk_seconds",
+                idColumn, callLogTable);
+        logger.debug("Executing SQL: {}", sql);
+        jdbcTemplate.update(sql, party.name(), Date.valueOf(from), Date.valueOf(end));
+    }
+
+    private record Key(Party party, long partyId, LocalDate day, String callType) {
+    }
+
+    /**
+     * Running numbers of one employee, customer or bucket
+     */
+    private static final class Totals {
+        private long calls;
+        private long talkSeconds;
+        private final Map<String, Long> byType = new HashMap<>();
+
+        private void add(String callType, long count, long seconds) {
+            calls += count;
+            talkSeconds += seconds;
+            byType.merge(callType, count, Long::sum);
+        }
+
+        private long missed() {
+            return byType.getOrDefault(CallLog.CallType.MISSED.name(), 0L);
+        }
+
+        private double averageTalkSeconds() {
+            long answered = calls - missed();
+            return answered > 0 ? (double) talkSeconds / answered : 0;
+        }
+    }
+}
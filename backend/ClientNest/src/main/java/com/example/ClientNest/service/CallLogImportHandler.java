@@ -0,0 +1,150 @@
+package com.example.ClientNest.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeDispatcher;
+import com.example.ClientNest.model.CallLog;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.model.ImportJob;
+
+/**
+ * Imports call logs. Fields are named as in CallLogDTO (title, description, type,
+ * dateTime, minutes, seconds, customerEmail or customerName, employeeEmail or
+ * employeeName). As in CallLogService, the customer and the employee are found by
+ * email first and by name otherwise; both must already exist.
+ */
+@Component
+public class CallLogImportHandler implements ImportHandler<CallLog> {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final EntityChangeDispatcher entityChangeDispatcher;
+
+    public CallLogImportHandler(JdbcTemplate jdbcTemplate, SchemaCatalog schemaCatalog,
+            EntityChangeDispatcher entityChangeDispatcher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.entityChangeDispatcher = entityChangeDispatcher;
+    }
+
+    @Override
+    public ImportJob.Dataset dataset() {
+        return ImportJob.Dataset.CALL_LOGS;
+    }
+
+    @Override
+    public Session<CallLog> begin() {
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+        String callLogTable = schema.callLogTable();
+        String customerTable = schema.customerTable();
+        String employeeTable = schema.employeeTable();
+        if (callLogTable == null || customerTable == null || employeeTable == null) {
+            throw new IllegalStateException("Call log, customer or employee table not found");
+        }
+        Map<String, Long> customersByEmail = ImportRows.index(jdbcTemplate, "SELECT id, email FROM " + customerTable);
+        Map<String, Long> customersByName = ImportRows.index(jdbcTemplate, "SELECT id, name FROM " + customerTable);
+        Map<String, Long> employeesByEmail = ImportRows.index(jdbcTemplate, "SELECT id, email FROM " + employeeTable);
+        Map<String, Long> employeesByName = ImportRows.index(jdbcTemplate, "SELECT id, name FROM " + employeeTable);
+        String sql = "INSERT INTO " + callLogTable
+                + " (title, description, type, date_time, minutes, seconds, customer_id, employee_id)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        return new Session<>() {
+            @Override
+            public CallLog parse(RecordReader.Row row) {
+                CallLog callLog = new CallLog();
+                callLog.setTitle(ImportRows.required(row, "title"));
+                callLog.setDescription(ImportRows.required(row, "description"));
+                if (row.get("type") != null) {
+                    callLog.setType(ImportRows.parseEnum(CallLog.CallType.class, row.get("type"), "type"));
+                }
+                callLog.setDateTime(parseDateTime(ImportRows.required(row, "datetime")));
+                callLog.setMinutes(duration(row, "minutes"));
+                callLog.setSeconds(duration(row, "seconds"));
+
+                Customer customer = new Customer();
+                customer.setId(resolve(row, "customer", customersByEmail, customersByName));
+                callLog.setCustomer(customer);
+                Employee employee = new Employee();
+                employee.setId(resolve(row, "employee", employeesByEmail, employeesByName));
+                callLog.setEmployee(employee);
+                return callLog;
+            }
+
+            @Override
+            public Runnable write(List<CallLog> callLogs) {
+                ImportRows.insert(jdbcTemplate, sql, callLogs, (ps, callLog) -> {
+                    ps.setString(1, callLog.getTitle());
+                    ps.setString(2, callLog.getDescription());
+                    ps.setString(3, callLog.getType() != null ? callLog.getType().name() : null);
+                    ps.setTimestamp(4, Timestamp.valueOf(callLog.getDateTime()));
+                    ps.setInt(5, callLog.getMinutes());
+                    ps.setInt(6, callLog.getSeconds());
+                    ps.setLong(7, callLog.getCustomer().getId());
+                    ps.setLong(8, callLog.getEmployee().getId());
+                }, CallLog::setId);
+                return () -> callLogs.forEach(callLog -> entityChangeDispatcher.publish(EntityChange.inserted(callLog)));
+            }
+        };
+    }
+
+    /**
+     * @param party "customer" or "employee"
+     * @return The id found by the record's email, or by its name when it has no email
+     */
+    private static Long resolve(RecordReader.Row row, String party, Map<String, Long> byEmail,
+            Map<String, Long> byName) {
+        String email = row.get(party + "email");
+        if (email != null) {
+            Long id = byEmail.get(ImportRows.normalize(email));
+            if (id == null) {
+                throw new IllegalArgumentException(capitalize(party) + " not found with email: " + email);
+            }
+            return id;
+        }
+        String name = row.get(party + "name");
+        if (name == null) {
+            throw new IllegalArgumentException("Missing " + party + "Email or " + party + "Name");
+        }
+        Long id = byName.get(ImportRows.normalize(name));
+        if (id == null) {
+            throw new IllegalArgumentException(capitalize(party) + " not found with name: " + name);
+        }
+        return id;
+    }
+
+    private static int duration(RecordReader.Row row, String key) {
+        if (row.get(key) == null) {
+            return 0;
+        }
+        int value = ImportRows.parseInt(row.get(key), key);
+        if (value < 0) {
+            throw new IllegalArgumentException(key + " must not be negative");
+        }
+        return value;
+    }
+
+    /**
+     * Accept ISO date-times with either a T or a space between date and time
+     */
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("dateTime is not a date and time: " + value);
+        }
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.ClientNest.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps call_logs range-partitioned by month of date_time on MySQL, so date range
+ * scans only open the months they cover and old months leave in O(1).
+ *
+ * Converting the table is opt-in (convert=true) because it is one copying rebuild
+ * that blocks writes to call_logs while it runs; plan it for a quiet window or run
+ * the equivalent ALTER by hand. MySQL needs every unique key to contain the
+ * partitioning column, so the primary key becomes (id, date_time) and the external
+ * id key (external_id, date_time), which no longer keeps an external id unique on its
+ * own (CdrIngestService deduplicates through call_log_external_ids instead);
+ * partitioned InnoDB tables cannot have foreign keys, so the customer and employee
+ * constraints are dropped and the hard deletes check for call logs instead. The
+ * job's lease lasts hours so no other node starts while the rebuild runs, and the
+ * rebuild itself holds a MySQL named lock and checks the table is still
+ * unpartitioned right before altering it. Once the table is partitioned, by this job
+ * or by hand, the job keeps months-ahead
+ * empty months in front of the current one by splitting the catch-all pmax
+ * partition, and retires months older than retention-months: DROP PARTITION, or in
+ * archive mode EXCHANGE PARTITION into call_logs_archive_yyyyMM first. Both are
+ * metadata operations whatever the month holds. The call statistics keep counting
+ * retired months: CallAnalyticsStore never rebuilds days before
+ * {@link #retainedFrom()}, which would zero them. Other databases are left
+ * unpartitioned.
+ */
+@Component
+public class CallLogPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallLogPartitionManager.class);
+
+    private static final String CATCH_ALL = "pmax";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p(\\d{4})(\\d{2})");
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // Months before this many are folded into the first partition on conversion
+    private static final int MAX_INITIAL_MONTHS = 120;
+    private static final String CONVERSION_LOCK = "clientnest.call_logs.partitioning";
+
+    public enum RetireMode {
+        ARCHIVE,
+        DROP,
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final boolean enabled;
+    private final boolean convert;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final RetireMode retireMode;
+
+    public CallLogPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            SchemaCatalog schemaCatalog,
+            @Value("${clientnest.call-logs.partitioning.enabled:true}") boolean enabled,
+            @Value("${clientnest.call-logs.partitioning.convert:false}") boolean convert,
+            @Value("${clientnest.call-logs.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${clientnest.call-logs.partitioning.retention-months:0}") int retentionMonths,
+            @Value("${clientnest.call-logs.partitioning.retire-mode:archive}") String retireMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.enabled = enabled;
+        this.convert = convert;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = Math.max(0, retentionMonths);
+        this.retireMode = RetireMode.valueOf(retireMode.strip().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Partition call_logs if conversion is enabled and it is not yet, add upcoming
+     * months and retire old ones
+     */
+    @ScheduledJob(name = "call-log-partitions",
+            fixedDelay = "${clientnest.call-logs.partitioning.interval-ms:21600000}",
+            initialDelay = "${clientnest.call-logs.partitioning.initial-delay-ms:60000}",
+            lockAtMost = "${clientnest.call-logs.partitioning.lock-at-most-ms:43200000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        if (!isMySql()) {
+            logger.debug("Database is not MySQL, call logs stay unpartitioned");
+            return;
+        }
+        String table = schemaCatalog.current().callLogTable();
+        if (table == null) {
+            logger.debug("No call log table, skipping partition maintenance");
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        List<YearMonth> months = months(table);
+        if (months == null) {
+            if (!convert) {
+                logger.debug("{} is not partitioned and conversion is disabled", table);
+                return;
+            }
+            if (!partitionLocked(table, current)) {
+                return;
+            }
+            months = months(table);
+            if (months == null) {
+                return;
+            }
+        }
+        addMonths(table, months, current.plusMonths(monthsAhead));
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths - 1);
+            for (YearMonth month : months) {
+                if (month.isBefore(oldestKept)) {
+                    retire(table, month);
+                }
+            }
+        }
+    }
+
+    /**
+     * First day whose call logs are still kept, so statistics are not rebuilt from
+     * retired months
+     * @return The first day of the oldest retained month, or null if no month is ever retired
+     */
+    public LocalDate retainedFrom() {
+        if (!enabled || retentionMonths == 0 || !isMySql()) {
+            return null;
+        }
+        String table = schemaCatalog.current().callLogTable();
+        if (table == null || months(table) == null) {
+            return null;
+        }
+        return YearMonth.now().minusMonths(retentionMonths - 1).atDay(1);
+    }
+
+    /**
+     * @return The months with their own partition in order, or null if the table is not partitioned
+     */
+    private List<YearMonth> months(String table) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, table);
+        if (names.isEmpty()) {
+            return null;
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            Matcher matcher = MONTH_PARTITION.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            } else if (!CATCH_ALL.equals(name)) {
+                logger.warn("Call log partition {} is not a month partition and is left alone", name);
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Convert the table while holding the named conversion lock, which MySQL releases
+     * with the connection should this node die
+     * @return Whether the table was converted, or found converted, by now
+     */
+    private boolean partitionLocked(String table, YearMonth current) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer locked = session.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, CONVERSION_LOCK);
+            if (locked == null || locked != 1) {
+                logger.warn("Another session is partitioning {}; skipping this run", table);
+                return false;
+            }
+            try {
+                // Re-read under the lock: another node may have converted the table since
+                if (months(table) == null) {
+                    partition(table, current);
+                }
+                return true;
+            } finally {
+                session.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, CONVERSION_LOCK);
+            }
+        }));
+    }
+
+    private void partition(String table, YearMonth current) {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(date_time) FROM " + table, Timestamp.class);
+        YearMonth first = oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : current;
+        if (first.isBefore(current.minusMonths(MAX_INITIAL_MONTHS))) {
+            first = current.minusMonths(MAX_INITIAL_MONTHS);
+        }
+        YearMonth last = current.plusMonths(monthsAhead);
+
+        List<String> changes = new ArrayList<>();
+        for (String constraint : jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND CONSTRAINT_TYPE = 'FOREIGN KEY'",
+                String.class, table)) {
+            changes.add("DROP FOREIGN KEY " + constraint);
+        }
+        if (!changes.isEmpty()) {
+            // Foreign keys are dropped on their own so their indexes can go with the rebuild
+            jdbcTemplate.execute("ALTER TABLE " + table + " " + String.join(", ", changes));
+            changes.clear();
+        }
+
+        changes.add("DROP PRIMARY KEY");
+        changes.add("ADD PRIMARY KEY (id, date_time)");
+        if (hasIndex(table, "idx_call_logs_customer_date_time") && hasIndex(table, "idx_call_logs_employee_date_time")) {
+            for (String index : singleColumnIndexes(table)) {
+                changes.add("DROP INDEX " + index);
+            }
+        }
+        if (hasIndex(table, "uk_call_logs_external_id")) {
+            changes.add("DROP INDEX uk_call_logs_external_id");
+        }
+        changes.add("ADD UNIQUE KEY uk_call_logs_external_id (external_id, date_time)");
+
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            partitions.add(monthPartition(month));
+        }
+        partitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN (MAXVALUE)");
+
+        String sql = "ALTER TABLE " + table + " " + String.join(", ", changes)
+                + " PARTITION BY RANGE COLUMNS(date_time) (" + String.join(", ", partitions) + ")";
+        logger.info("Partitioning {} by month from {} to {}", table, first, last);
+        logger.debug("Executing SQL: {}", sql);
+        long started = System.currentTimeMillis();
+        jdbcTemplate.execute(sql);
+        logger.info("Partitioned {} in {} ms", table, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Split the upcoming months off pmax, which is empty unless calls are dated in the future
+     */
+    private void addMonths(String table, List<YearMonth> months, YearMonth until) {
+        YearMonth next = months.isEmpty() ? YearMonth.now() : months.get(months.size() - 1).plusMonths(1);
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month = next; !month.isAfter(until); month = month.plusMonths(1)) {
+            partitions.add(monthPartition(month));
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+        partitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + CATCH_ALL
+                + " INTO (" + String.join(", ", partitions) + ")");
+        logger.info("Added call log partitions from {} to {}", next, until);
+    }
+
+    private void retire(String table, YearMonth month) {
+        String partition = partitionName(month);
+        if (retireMode == RetireMode.ARCHIVE) {
+            String archive = table + "_archive_" + month.format(MONTH_SUFFIX);
+            boolean partitionEmpty = jdbcTemplate.queryForList(
+                    "SELECT id FROM " + table + " PARTITION (" + partition + ") LIMIT 1", Long.class).isEmpty();
+            if (!tableExists(archive)) {
+                jdbcTemplate.execute("CREATE TABLE " + archive + " LIKE " + table);
+                jdbcTemplate.execute("ALTER TABLE " + archive + " REMOVE PARTITIONING");
+            } else if (!partitionEmpty) {
+                // Left by an earlier run; exchanging again would swap the archived rows back in
+                boolean archiveEmpty = jdbcTemplate.queryForList(
+                        "SELECT id FROM " + archive + " LIMIT 1", Long.class).isEmpty();
+                if (!archiveEmpty) {
+                    logger.error("Cannot archive call logs of {}: {} already holds rows", month, archive);
+                    return;
+                }
+            }
+            if (!partitionEmpty) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " EXCHANGE PARTITION " + partition
+                        + " WITH TABLE " + archive);
+            }
+            logger.info("Archived call logs of {} to {}", month, archive);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + partition);
+        logger.info("Dropped call log partition {}", partition);
+    }
+
+    /**
+     * Plain indexes on customer_id or employee_id alone, left behind by the foreign
+     * keys and covered by the (customer_id|employee_id, date_time) indexes
+     */
+    private List<String> singleColumnIndexes(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM information_schema.STATISTICS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 1 "
+                        + "GROUP BY INDEX_NAME HAVING COUNT(*) = 1 "
+                        + "AND MAX(COLUMN_NAME) IN ('customer_id', 'employee_id')",
+                String.class, table);
+    }
+
+    private boolean hasIndex(String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.STATISTICS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?",
+                Integer.class, table, index);
+        return count != null && count > 0;
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return product != null && (product.contains("MySQL") || product.contains("MariaDB"));
+    }
+
+    private static String monthPartition(YearMonth month) {
+        return "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "p" + month.format(MONTH_SUFFIX);
+    }
+}
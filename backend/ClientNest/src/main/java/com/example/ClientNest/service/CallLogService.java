@@ -1,8 +1,11 @@
 package com.example.ClientNest.service;
 
 import com.example.ClientNest.dto.CallLogDTO;
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.model.CallLog.CallType;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -13,6 +16,9 @@ public interface CallLogService {
     
     List<CallLogDTO> getAllCallLogs();
     
+    CursorPageDTO<CallLogDTO> getCallLogPage(PageQuery page, CallType type, Long customerId, Long employeeId,
+        LocalDate from, LocalDate to);
+    
     List<CallLogDTO> getCallLogsByCustomerId(Long customerId);
     
     List<CallLogDTO> getCallLogsByEmployeeId(Long employeeId);
@@ -25,14 +31,18 @@ public interface CallLogService {
     
     List<CallLogDTO> getCallLogsByCustomerIdAndType(Long customerId, CallType type);
     
-    List<CallLogDTO> getCallLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    CursorPageDTO<CallLogDTO> getCallLogsByDateRange(PageQuery page, LocalDateTime startDate, LocalDateTime endDate);
     
-    List<CallLogDTO> getCallLogsByCustomerIdAndDateRange(
-        Long customerId, LocalDateTime startDate, LocalDateTime endDate);
+    CursorPageDTO<CallLogDTO> getCallLogsByCustomerIdAndDateRange(
+        PageQuery page, Long customerId, LocalDateTime startDate, LocalDateTime endDate);
+
+    CursorPageDTO<CallLogDTO> getCallLogsByEmployeeIdAndDateRange(
+        PageQuery page, Long employeeId, LocalDateTime startDate, LocalDateTime endDate);
     
     List<CallLogDTO> getCallLogsByCustomerEmail(String email);
     
     List<CallLogDTO> getCallLogsByCustomerEmailAndType(String email, CallType type);
     
-    List<CallLogDTO> getCallLogsByCustomerEmailAndDateRange(String email, LocalDateTime startDate, LocalDateTime endDate);
+    CursorPageDTO<CallLogDTO> getCallLogsByCustomerEmailAndDateRange(
+        PageQuery page, String email, LocalDateTime startDate, LocalDateTime endDate);
 }
\ No newline at end of file
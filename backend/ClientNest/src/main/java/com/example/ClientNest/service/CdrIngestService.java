@@ -0,0 +1,540 @@
+package com.example.ClientNest.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeDispatcher;
+import com.example.ClientNest.model.CallLog;
+import com.example.ClientNest.model.CdrFile;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.repository.CdrFileRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Ingests the call-detail-record files the phone system drops into a local inbox.
+ *
+ * The inbox is polled by a node-scoped job; a file is taken once it has not changed
+ * for settle-ms. Each file is memory-mapped and read in place by {@link CdrReader},
+ * and both ends of a call are matched through the {@link PhoneIndex}: inbound and
+ * missed calls come from a customer to an employee, outbound calls the other way.
+ * Calls are batch-inserted with one transaction per batch.
+ *
+ * Delivery is idempotent at two levels. cdr_file records every file by the SHA-256
+ * of its contents, so a file delivered again, under any name, is archived without
+ * being read. Every call also carries an external id, the record's call id or else
+ * its start time and both numbers, and ids already stored are skipped, so a file
+ * retried after a crash halfway through, or a later file repeating some calls,
+ * inserts only what is missing. The unique key on call_logs includes date_time for
+ * partitioning, so an id is claimed in the unpartitioned call_log_external_ids in
+ * the same transaction as its call; when two nodes race for the same calls the
+ * loser's batch rolls back on the duplicate key and is retried, now skipping them.
+ * Records that
+ * are malformed or match no customer or employee are copied to
+ * failed-dir/&lt;file&gt;.rejected, which can be dropped into the inbox again once the
+ * phone numbers are fixed.
+ */
+@Service
+public class CdrIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CdrIngestService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final String EXTERNAL_ID_TABLE = "call_log_external_ids";
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final TransactionTemplate transactionTemplate;
+    private final CdrFileRepository cdrFileRepository;
+    private final PhoneIndex phoneIndex;
+    private final EntityChangeDispatcher entityChangeDispatcher;
+    private final String nodeId;
+    private final Path inboxDir;
+    private final Path doneDir;
+    private final Path failedDir;
+    private final String fileGlob;
+    private final long settleMillis;
+    private final long staleAfterMillis;
+    private final int batchSize;
+
+    private final Counter importedCounter;
+    private final Counter duplicateCounter;
+    private final Counter malformedCounter;
+    private final Counter unmatchedCounter;
+    private final Counter redeliveredCounter;
+    private final Counter failedFileCounter;
+    private final Timer fileTimer;
+
+    public CdrIngestService(
+            JdbcTemplate jdbcTemplate,
+            SchemaCatalog schemaCatalog,
+            PlatformTransactionManager transactionManager,
+            CdrFileRepository cdrFileRepository,
+            PhoneIndex phoneIndex,
+            EntityChangeDispatcher entityChangeDispatcher,
+            MeterRegistry meterRegistry,
+            JobScheduler jobScheduler,
+            @Value("${clientnest.cdr.inbox-dir:}") String inboxDir,
+            @Value("${clientnest.cdr.done-dir:}") String doneDir,
+            @Value("${clientnest.cdr.failed-dir:}") String failedDir,
+            @Value("${clientnest.cdr.file-glob:*.{cdr,csv}}") String fileGlob,
+            @Value("${clientnest.cdr.settle-ms:2000}") long settleMillis,
+            @Value("${clientnest.cdr.stale-after-ms:600000}") long staleAfterMillis,
+            @Value("${clientnest.cdr.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cdrFileRepository = cdrFileRepository;
+        this.phoneIndex = phoneIndex;
+        this.entityChangeDispatcher = entityChangeDispatcher;
+        this.nodeId = jobScheduler.getNodeId();
+        this.inboxDir = inboxDir.isBlank() ? null : Path.of(inboxDir.strip());
+        this.doneDir = this.inboxDir == null ? null
+                : doneDir.isBlank() ? this.inboxDir.resolve("done") : Path.of(doneDir.strip());
+        this.failedDir = this.inboxDir == null ? null
+                : failedDir.isBlank() ? this.inboxDir.resolve("failed") : Path.of(failedDir.strip());
+        this.fileGlob = fileGlob;
+        this.settleMillis = Math.max(0, settleMillis);
+        this.staleAfterMillis = Math.max(1000, staleAfterMillis);
+        this.batchSize = Math.max(1, batchSize);
+
+        this.importedCounter = meterRegistry.counter("clientnest.cdr.records", "result", "imported");
+        this.duplicateCounter = meterRegistry.counter("clientnest.cdr.records", "result", "duplicate");
+        this.malformedCounter = meterRegistry.counter("clientnest.cdr.records", "result", "malformed");
+        this.unmatchedCounter = meterRegistry.counter("clientnest.cdr.records", "result", "unmatched");
+        this.redeliveredCounter = meterRegistry.counter("clientnest.cdr.files", "result", "redelivered");
+        this.failedFileCounter = meterRegistry.counter("clientnest.cdr.files", "result", "failed");
+        this.fileTimer = meterRegistry.timer("clientnest.cdr.file");
+        if (this.inboxDir != null) {
+            logger.info("CDR ingestion watches {}", this.inboxDir);
+        }
+    }
+
+    /**
+     * Ingest every file in the inbox that has stopped changing, oldest first
+     */
+    @ScheduledJob(name = "cdr-ingest", scope = ScheduledJob.Scope.NODE,
+            fixedDelay = "${clientnest.cdr.poll-interval-ms:10000}")
+    public void poll() throws IOException {
+        if (inboxDir == null || !Files.isDirectory(inboxDir)) {
+            return;
+        }
+        for (Path file : readyFiles()) {
+            fileTimer.record(() -> ingest(file));
+        }
+    }
+
+    private List<Path> readyFiles() throws IOException {
+        FileTime settledBefore = FileTime.fromMillis(System.currentTimeMillis() - settleMillis);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(inboxDir, fileGlob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).compareTo(settledBefore) < 0) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(file -> {
+            try {
+                return Files.getLastModifiedTime(file);
+            } catch (IOException e) {
+                return FileTime.fromMillis(0);
+            }
+        }));
+        return files;
+    }
+
+    private void ingest(Path file) {
+        String fileName = file.getFileName().toString();
+        CdrFile record = null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("CDR file is larger than 2 GB");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            String hash = sha256(buffer);
+
+            record = claim(hash, fileName, size);
+            if (record == null) {
+                return;
+            }
+            if (record.getStatus() == CdrFile.Status.DONE) {
+                redeliveredCounter.increment();
+                logger.info("CDR file {} was already ingested as {}; archiving it", fileName, record.getFileName());
+                move(file, doneDir);
+                return;
+            }
+
+            long started = System.nanoTime();
+            Totals totals = load(record.getId(), buffer, fileName);
+            cdrFileRepository.finish(record.getId(), nodeId, CdrFile.Status.DONE, LocalDateTime.now(), null);
+            move(file, doneDir);
+            logger.info("Ingested CDR file {}: {} records, {} calls imported, {} already stored, {} rejected in {} ms",
+                    fileName, totals.records, totals.imported, totals.duplicates, totals.rejected,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (ClaimLostException e) {
+            logger.warn("CDR file {} was taken over by another node", fileName);
+        } catch (DataAccessException e) {
+            // Left in the inbox and retried on the next poll
+            logger.warn("Could not ingest CDR file {}: {}", fileName, describe(e));
+            fail(record, describe(e));
+        } catch (IOException | RuntimeException e) {
+            logger.error("CDR file {} failed; moving it to {}", fileName, failedDir, e);
+            fail(record, describe(e));
+            try {
+                move(file, failedDir);
+            } catch (IOException moveFailure) {
+                logger.warn("Could not move CDR file {}", fileName, moveFailure);
+            }
+        }
+    }
+
+    /**
+     * Record a new file, or take over one that failed or was abandoned
+     * @return The file's row, DONE if it was ingested before, or null if another node
+     *         is ingesting it
+     */
+    private CdrFile claim(String hash, String fileName, long size) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<CdrFile> existing = cdrFileRepository.findByFileHash(hash);
+        if (existing.isEmpty()) {
+            CdrFile record = new CdrFile();
+            record.setFileHash(hash);
+            record.setFileName(fileName);
+            record.setFileSize(size);
+            record.setStatus(CdrFile.Status.PROCESSING);
+            record.setOwner(nodeId);
+            record.setStartedAt(now);
+            record.setHeartbeatAt(now);
+            try {
+                return cdrFileRepository.saveAndFlush(record);
+            } catch (DataIntegrityViolationException e) {
+                existing = cdrFileRepository.findByFileHash(hash);
+                if (existing.isEmpty()) {
+                    throw e;
+                }
+            }
+        }
+
+        CdrFile record = existing.get();
+        if (record.getStatus() == CdrFile.Status.DONE) {
+            return record;
+        }
+        boolean abandoned = record.getStatus() == CdrFile.Status.FAILED
+                || nodeId.equals(record.getOwner())
+                || record.getHeartbeatAt().isBefore(now.minusNanos(TimeUnit.MILLISECONDS.toNanos(staleAfterMillis)));
+        if (!abandoned || cdrFileRepository.claim(record.getId(), nodeId, fileName, now, record.getHeartbeatAt()) == 0) {
+            logger.debug("CDR file {} is being ingested by {}", fileName, record.getOwner());
+            return null;
+        }
+        return cdrFileRepository.findById(record.getId()).orElse(null);
+    }
+
+    private Totals load(long fileId, ByteBuffer buffer, String fileName) throws IOException {
+        PhoneIndex.Snapshot phones = phoneIndex.current();
+        String callLogTable = schemaCatalog.current().callLogTable();
+        if (callLogTable == null) {
+            throw new IllegalStateException("Call log table not found");
+        }
+        String insertSql = "INSERT INTO " + callLogTable
+                + " (title, description, type, date_time, minutes, seconds, customer_id, employee_id, external_id)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String description = "Imported from CDR file " + fileName;
+
+        Totals totals = new Totals();
+        Batch batch = new Batch(batchSize);
+        CdrReader reader = new CdrReader(buffer, phoneIndex.modulus());
+        try (Rejects rejects = new Rejects(fileName, buffer)) {
+            while (reader.next()) {
+                batch.records++;
+                if (!reader.valid()) {
+                    batch.rejected++;
+                    malformedCounter.increment();
+                    rejects.add(reader);
+                    continue;
+                }
+                boolean outgoing = reader.type() == CallLog.CallType.OUTGOING;
+                long customerId = phones.customerId(outgoing ? reader.toNumber() : reader.fromNumber());
+                long employeeId = phones.employeeId(outgoing ? reader.fromNumber() : reader.toNumber());
+                if (customerId == PhoneIndex.NONE || employeeId == PhoneIndex.NONE) {
+                    batch.rejected++;
+                    unmatchedCounter.increment();
+                    rejects.add(reader);
+                    continue;
+                }
+
+                CallLog callLog = new CallLog();
+                callLog.setTitle(title(reader.type()));
+                callLog.setDescription(description);
+                callLog.setType(reader.type());
+                callLog.setDateTime(reader.startTime());
+                callLog.setMinutes(reader.durationSeconds() / 60);
+                callLog.setSeconds(reader.durationSeconds() % 60);
+                Customer customer = new Customer();
+                customer.setId(customerId);
+                callLog.setCustomer(customer);
+                Employee employee = new Employee();
+                employee.setId(employeeId);
+                callLog.setEmployee(employee);
+                String callId = reader.callId();
+                callLog.setExternalId(callId != null ? callId
+                        : "cdr:" + reader.startTime() + ":" + reader.fromNumber() + ":" + reader.toNumber());
+                batch.calls.add(callLog);
+
+                if (batch.calls.size() == batchSize) {
+                    flush(fileId, callLogTable, insertSql, batch, totals);
+                }
+            }
+            flush(fileId, callLogTable, insertSql, batch, totals);
+            if (rejects.count > 0) {
+                logger.warn("{} records of CDR file {} were rejected; see {}", rejects.count, fileName, rejects.path);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Store a batch's new calls, again if another node stored some of them
+     * meanwhile, then publish them
+     */
+    private void flush(long fileId, String callLogTable, String insertSql, Batch batch, Totals totals) {
+        List<CallLog> inserted = null;
+        for (int attempt = 1; inserted == null; attempt++) {
+            try {
+                inserted = insert(fileId, callLogTable, insertSql, batch);
+            } catch (DuplicateKeyException e) {
+                // Another node stored some of these calls after they were checked
+                if (attempt == MAX_BATCH_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("CDR batch raced another node for the same calls; retrying");
+            }
+        }
+
+        int duplicates = batch.calls.size() - inserted.size();
+        totals.records += batch.records;
+        totals.imported += inserted.size();
+        totals.duplicates += duplicates;
+        totals.rejected += batch.rejected;
+        importedCounter.increment(inserted.size());
+        duplicateCounter.increment(duplicates);
+        batch.clear();
+        for (CallLog callLog : inserted) {
+            entityChangeDispatcher.publish(EntityChange.inserted(callLog));
+        }
+    }
+
+    /**
+     * Insert a batch's new calls, claim their external ids and add its counts to the
+     * file's row in one transaction
+     * @return The inserted calls
+     */
+    private List<CallLog> insert(long fileId, String callLogTable, String insertSql, Batch batch) {
+        return transactionTemplate.execute(status -> {
+            List<CallLog> fresh = fresh(callLogTable, batch.calls);
+            if (!fresh.isEmpty()) {
+                ImportRows.insert(jdbcTemplate, insertSql, fresh, (ps, callLog) -> {
+                    ps.setString(1, callLog.getTitle());
+                    ps.setString(2, callLog.getDescription());
+                    ps.setString(3, callLog.getType().name());
+                    ps.setTimestamp(4, Timestamp.valueOf(callLog.getDateTime()));
+                    ps.setInt(5, callLog.getMinutes());
+                    ps.setInt(6, callLog.getSeconds());
+                    ps.setLong(7, callLog.getCustomer().getId());
+                    ps.setLong(8, callLog.getEmployee().getId());
+                    ps.setString(9, callLog.getExternalId());
+                }, CallLog::setId);
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.batchUpdate("INSERT INTO " + EXTERNAL_ID_TABLE
+                        + " (external_id, call_log_id, created_at) VALUES (?, ?, ?)", fresh, fresh.size(),
+                        (ps, callLog) -> {
+                            ps.setString(1, callLog.getExternalId());
+                            ps.setLong(2, callLog.getId());
+                            ps.setTimestamp(3, now);
+                        });
+            }
+            if (cdrFileRepository.advance(fileId, nodeId, batch.records, fresh.size(),
+                    batch.calls.size() - fresh.size(), batch.rejected, LocalDateTime.now()) == 0) {
+                throw new ClaimLostException();
+            }
+            return fresh;
+        });
+    }
+
+    /**
+     * Drop calls whose external id is already claimed or repeats earlier in the batch.
+     * call_logs is read too for calls stored before ids were claimed separately.
+     */
+    private List<CallLog> fresh(String callLogTable, List<CallLog> calls) {
+        if (calls.isEmpty()) {
+            return List.of();
+        }
+        Set<String> seen = new HashSet<>(calls.size() * 2);
+        List<Object> ids = new ArrayList<>(calls.size());
+        for (CallLog callLog : calls) {
+            ids.add(callLog.getExternalId());
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(ids);
+        args.addAll(ids);
+        seen.addAll(jdbcTemplate.queryForList("SELECT external_id FROM " + EXTERNAL_ID_TABLE
+                + " WHERE external_id IN (" + placeholders + ") UNION SELECT external_id FROM " + callLogTable
+                + " WHERE external_id IN (" + placeholders + ")", String.class, args.toArray()));
+        List<CallLog> fresh = new ArrayList<>(calls.size());
+        for (CallLog callLog : calls) {
+            if (seen.add(callLog.getExternalId())) {
+                fresh.add(callLog);
+            }
+        }
+        return fresh;
+    }
+
+    private void fail(CdrFile record, String error) {
+        failedFileCounter.increment();
+        if (record == null) {
+            return;
+        }
+        try {
+            cdrFileRepository.finish(record.getId(), nodeId, CdrFile.Status.FAILED, LocalDateTime.now(), error);
+        } catch (RuntimeException e) {
+            logger.warn("Could not record the failure of CDR file {}", record.getFileName(), e);
+        }
+    }
+
+    private static void move(Path file, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Files.move(file, dir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String sha256(ByteBuffer buffer) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.duplicate());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String title(CallLog.CallType type) {
+        return switch (type) {
+            case INCOMING -> "Inbound call";
+            case OUTGOING -> "Outbound call";
+            case MISSED -> "Missed call";
+        };
+    }
+
+    private static String describe(Exception e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) {
+            message = e.getClass().getSimpleName();
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private static final class ClaimLostException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class Totals {
+        private long records;
+        private long imported;
+        private long duplicates;
+        private long rejected;
+    }
+
+    /**
+     * Calls and counts since the last flush
+     */
+    private static final class Batch {
+        private final List<CallLog> calls;
+        private long records;
+        private long rejected;
+
+        private Batch(int size) {
+            this.calls = new ArrayList<>(size);
+        }
+
+        private void clear() {
+            calls.clear();
+            records = 0;
+            rejected = 0;
+        }
+    }
+
+    /**
+     * Copies rejected lines, byte for byte, to a file next to the failed CDR files
+     */
+    private final class Rejects implements Closeable {
+        private final String fileName;
+        private final ByteBuffer source;
+        private FileChannel out;
+        private Path path;
+        private long count;
+
+        private Rejects(String fileName, ByteBuffer source) {
+            this.fileName = fileName;
+            this.source = source;
+        }
+
+        private void add(CdrReader reader) throws IOException {
+            if (out == null) {
+                Files.createDirectories(failedDir);
+                path = failedDir.resolve(fileName + ".rejected");
+                out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            out.write(source.slice(reader.lineStart(), reader.lineEnd() - reader.lineStart()));
+            out.write(ByteBuffer.wrap(NEWLINE));
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+}
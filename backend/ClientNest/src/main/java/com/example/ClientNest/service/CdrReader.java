@@ -0,0 +1,279 @@
+package com.example.ClientNest.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import com.example.ClientNest.model.CallLog;
+
+/**
+ * Reads call-detail records straight from a (memory-mapped) buffer.
+ *
+ * One record per line, comma separated:
+ * <pre>call_id,start_time,duration_seconds,direction,from_number,to_number</pre>
+ * start_time is yyyy-MM-dd HH:mm[:ss] (a T may replace the space); direction is
+ * IN/INBOUND/INCOMING, OUT/OUTBOUND/OUTGOING or MISSED/NOANSWER; call_id may be
+ * empty. Blank lines, lines starting with # and a header line are skipped.
+ *
+ * The reader keeps one mutable record and overwrites it on every {@link #next()};
+ * fields are parsed in place from the bytes, and phone numbers are reduced to the
+ * same long keys as {@link PhoneIndex}, so reading allocates nothing but the start
+ * time and, when asked for, the call id.
+ */
+final class CdrReader {
+
+    private static final int FIELDS = 6;
+
+    private final ByteBuffer buffer;
+    private final long modulus;
+    private final int limit;
+    private final int[] starts = new int[FIELDS];
+    private final int[] ends = new int[FIELDS];
+    private int position;
+
+    // The current record
+    private long lineNumber;
+    private int lineStart;
+    private int lineEnd;
+    private boolean valid;
+    private LocalDateTime startTime;
+    private int durationSeconds;
+    private CallLog.CallType type;
+    private long fromNumber;
+    private long toNumber;
+
+    CdrReader(ByteBuffer buffer, long modulus) {
+        this.buffer = buffer;
+        this.modulus = modulus;
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Move to the next record
+     * @return false at the end of the buffer
+     */
+    boolean next() {
+        while (position < limit) {
+            lineStart = position;
+            int end = lineStart;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            position = end + 1;
+            lineEnd = end > lineStart && buffer.get(end - 1) == '\r' ? end - 1 : end;
+            lineNumber++;
+
+            int first = skipSpaces(lineStart, lineEnd);
+            if (first == lineEnd || buffer.get(first) == '#') {
+                continue;
+            }
+            valid = parse();
+            if (!valid && lineNumber == 1 && !startsWithDigit(starts[1], ends[1])) {
+                // Header row
+                continue;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return Whether the current record parsed; the other accessors are undefined if not
+     */
+    boolean valid() {
+        return valid;
+    }
+
+    /**
+     * @return The call id, or null when the record has none
+     */
+    String callId() {
+        int start = skipSpaces(starts[0], ends[0]);
+        int end = trimEnd(start, ends[0]);
+        if (start == end) {
+            return null;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    LocalDateTime startTime() {
+        return startTime;
+    }
+
+    int durationSeconds() {
+        return durationSeconds;
+    }
+
+    CallLog.CallType type() {
+        return type;
+    }
+
+    /**
+     * @return The calling number as a {@link PhoneIndex} key
+     */
+    long fromNumber() {
+        return fromNumber;
+    }
+
+    /**
+     * @return The called number as a {@link PhoneIndex} key
+     */
+    long toNumber() {
+        return toNumber;
+    }
+
+    /**
+     * Start offset of the current line in the buffer
+     */
+    int lineStart() {
+        return lineStart;
+    }
+
+    /**
+     * End offset of the current line, without its line break
+     */
+    int lineEnd() {
+        return lineEnd;
+    }
+
+    private boolean parse() {
+        int field = 0;
+        starts[0] = lineStart;
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (buffer.get(i) == ',') {
+                ends[field] = i;
+                if (++field == FIELDS) {
+                    return false;
+                }
+                starts[field] = i + 1;
+            }
+        }
+        ends[field] = lineEnd;
+        if (field != FIELDS - 1) {
+            for (int i = field + 1; i < FIELDS; i++) {
+                starts[i] = lineEnd;
+                ends[i] = lineEnd;
+            }
+            return false;
+        }
+        if (trimEnd(skipSpaces(starts[0], ends[0]), ends[0]) - skipSpaces(starts[0], ends[0]) > 100) {
+            return false;
+        }
+        startTime = parseTime(skipSpaces(starts[1], ends[1]), trimEnd(starts[1], ends[1]));
+        durationSeconds = parseInt(skipSpaces(starts[2], ends[2]), trimEnd(starts[2], ends[2]));
+        type = parseType(skipSpaces(starts[3], ends[3]), trimEnd(starts[3], ends[3]));
+        fromNumber = parseNumber(starts[4], ends[4]);
+        toNumber = parseNumber(starts[5], ends[5]);
+        return startTime != null && durationSeconds >= 0 && type != null;
+    }
+
+    /**
+     * @return The time, or null if malformed
+     */
+    private LocalDateTime parseTime(int start, int end) {
+        int length = end - start;
+        if (length != 16 && length != 19) {
+            return null;
+        }
+        byte separator = buffer.get(start + 10);
+        if (buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+                || (separator != ' ' && separator != 'T') || buffer.get(start + 13) != ':'
+                || (length == 19 && buffer.get(start + 16) != ':')) {
+            return null;
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        int hour = digits(start + 11, 2);
+        int minute = digits(start + 14, 2);
+        int second = length == 19 ? digits(start + 17, 2) : 0;
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The value, or -1 if malformed
+     */
+    private int parseInt(int start, int end) {
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        return digits(start, end - start);
+    }
+
+    private CallLog.CallType parseType(int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        switch (buffer.get(start) | 0x20) {
+            case 'i':
+                return CallLog.CallType.INCOMING;
+            case 'o':
+                return CallLog.CallType.OUTGOING;
+            case 'm':
+            case 'n':
+                return CallLog.CallType.MISSED;
+            default:
+                return null;
+        }
+    }
+
+    private long parseNumber(int start, int end) {
+        long key = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (isDigit(b)) {
+                key = (key * 10 + (b - '0')) % modulus;
+            }
+        }
+        return key;
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = buffer.get(i);
+            if (!isDigit(b)) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private int skipSpaces(int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private boolean startsWithDigit(int start, int end) {
+        start = skipSpaces(start, end);
+        return start < end && isDigit(buffer.get(start));
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.ClientNest.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * A template parsed once into a flat render plan.
+ *
+ * The syntax is a small subset of Mustache: {{name}} inserts a value, {{#flag}}...{{/flag}}
+ * keeps its content only when the value is present and not false or empty,
+ * {{^flag}}...{{/flag}} only when it is not, and {{! ...}} is a comment. Values are
+ * HTML-escaped in HTML templates. Rendering walks the plan with a single pre-sized
+ * buffer and never looks at the source again.
+ */
+public final class CompiledTemplate {
+
+    private static final int ESTIMATED_VALUE_LENGTH = 24;
+
+    private final String name;
+    private final List<Segment> plan;
+    private final boolean html;
+    private final int estimatedLength;
+
+    private CompiledTemplate(String name, List<Segment> plan, boolean html) {
+        this.name = name;
+        this.plan = plan;
+        this.html = html;
+        this.estimatedLength = estimate(plan);
+    }
+
+    /**
+     * Parse a template
+     * @param name The template name, used in error messages
+     * @param source The template text
+     * @param html Whether inserted values must be HTML-escaped
+     * @return The compiled template
+     * @throws IllegalArgumentException If a tag is unterminated, empty or unbalanced
+     */
+    public static CompiledTemplate compile(String name, String source, boolean html) {
+        Parser parser = new Parser(name, source);
+        List<Segment> plan = parser.parse(null);
+        return new CompiledTemplate(name, plan, html);
+    }
+
+    /**
+     * Render the template
+     * @param model Values by name; missing values render as empty
+     * @return The rendered text
+     */
+    public String render(Map<String, ?> model) {
+        StringBuilder out = new StringBuilder(estimatedLength);
+        render(plan, model, out);
+        return out.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void render(List<Segment> segments, Map<String, ?> model, StringBuilder out) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Literal literal -> out.append(literal.text());
+                case Variable variable -> {
+                    Object value = model.get(variable.name());
+                    if (value != null) {
+                        String text = value.toString();
+                        out.append(html ? HtmlUtils.htmlEscape(text) : text);
+                    }
+                }
+                case Section section -> {
+                    if (truthy(model.get(section.name())) != section.inverted()) {
+                        render(section.body(), model, out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean truthy(Object value) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return false;
+        }
+        if (value instanceof CharSequence text) {
+            return !text.isEmpty();
+        }
+        if (value instanceof Collection<?> items) {
+            return !items.isEmpty();
+        }
+        return true;
+    }
+
+    private static int estimate(List<Segment> segments) {
+        int length = 0;
+        for (Segment segment : segments) {
+            length += switch (segment) {
+                case Literal literal -> literal.text().length();
+                case Variable variable -> ESTIMATED_VALUE_LENGTH;
+                case Section section -> estimate(section.body());
+            };
+        }
+        return length;
+    }
+
+    private sealed interface Segment permits Literal, Variable, Section {
+    }
+
+    private record Literal(String text) implements Segment {
+    }
+
+    private record Variable(String name) implements Segment {
+    }
+
+    private record Section(String name, boolean inverted, List<Segment> body) implements Segment {
+    }
+
+    private static final class Parser {
+        private final String name;
+        private final String source;
+        private int position;
+
+        private Parser(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        /**
+         * Parse until the end of the source or the closing tag of the given section
+         */
+        private List<Segment> parse(String section) {
+            List<Segment> segments = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            while (position < source.length()) {
+                int open = source.indexOf("{{", position);
+                if (open < 0) {
+                    literal.append(source, position, source.length());
+                    position = source.length();
+                    break;
+                }
+                literal.append(source, position, open);
+                int close = source.indexOf("}}", open + 2);
+                if (close < 0) {
+                    throw error("Unterminated tag", open);
+                }
+                String tag = source.substring(open + 2, close).trim();
+                position = close + 2;
+                if (tag.isEmpty()) {
+                    throw error("Empty tag", open);
+                }
+
+                char kind = tag.charAt(0);
+                if (kind == '!') {
+                    continue;
+                }
+                if (kind == '/') {
+                    String closing = tag.substring(1).trim();
+                    if (!closing.equals(section)) {
+                        throw error("Unexpected closing tag {{/" + closing + "}}", open);
+                    }
+                    flush(literal, segments);
+                    return List.copyOf(segments);
+                }
+
+                // Adjacent literals are merged so the plan has as few steps as possible
+                flush(literal, segments);
+                if (kind == '#' || kind == '^') {
+                    String sectionName = tag.substring(1).trim();
+                    segments.add(new Section(sectionName, kind == '^', parse(sectionName)));
+                } else {
+                    segments.add(new Variable(tag));
+                }
+            }
+            if (section != null) {
+                throw error("Section {{#" + section + "}} is never closed", source.length());
+            }
+            flush(literal, segments);
+            return List.copyOf(segments);
+        }
+
+        private static void flush(StringBuilder literal, List<Segment> segments) {
+            if (!literal.isEmpty()) {
+                segments.add(new Literal(literal.toString()));
+                literal.setLength(0);
+            }
+        }
+
+        private IllegalArgumentException error(String message, int offset) {
+            return new IllegalArgumentException(message + " in template " + name + " at offset " + offset);
+        }
+    }
+}
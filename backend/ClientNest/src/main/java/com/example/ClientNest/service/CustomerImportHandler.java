@@ -0,0 +1,140 @@
+package com.example.ClientNest.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeDispatcher;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.ImportJob;
+
+import jakarta.validation.Validator;
+
+/**
+ * Imports customers. Fields are named as in CustomerDTO (name, phoneNumber, email,
+ * address, city, state, zipCode, country, website, type). Names are unique, so a
+ * record naming a customer that already exists is rejected.
+ */
+@Component
+public class CustomerImportHandler implements ImportHandler<Customer> {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final EntityChangeDispatcher entityChangeDispatcher;
+    private final Validator validator;
+
+    public CustomerImportHandler(JdbcTemplate jdbcTemplate, SchemaCatalog schemaCatalog,
+            EntityChangeDispatcher entityChangeDispatcher, Validator validator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.entityChangeDispatcher = entityChangeDispatcher;
+        this.validator = validator;
+    }
+
+    @Override
+    public ImportJob.Dataset dataset() {
+        return ImportJob.Dataset.CUSTOMERS;
+    }
+
+    @Override
+    public Session<Customer> begin() {
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+        if (schema.customerTable() == null) {
+            throw new IllegalStateException("Customer table not found");
+        }
+        CustomerInsert insert = new CustomerInsert(schema);
+        Map<String, Long> names = ImportRows.index(jdbcTemplate, "SELECT id, name FROM " + schema.customerTable());
+
+        return new Session<>() {
+            @Override
+            public Customer parse(RecordReader.Row row) {
+                Customer customer = customer(row, ImportRows.required(row, "name"));
+                if (names.containsKey(ImportRows.normalize(customer.getName()))) {
+                    throw new IllegalArgumentException("Customer already exists: " + customer.getName());
+                }
+                if (row.get("type") != null) {
+                    customer.setType(ImportRows.parseEnum(Customer.CustomerType.class, row.get("type"), "type"));
+                }
+                return customer;
+            }
+
+            @Override
+            public Runnable write(List<Customer> customers) {
+                LocalDateTime now = LocalDateTime.now();
+                customers.forEach(customer -> customer.setCreatedAt(now));
+                ImportRows.insert(jdbcTemplate, insert.sql, customers, insert::bind, Customer::setId);
+                return () -> {
+                    for (Customer customer : customers) {
+                        names.put(ImportRows.normalize(customer.getName()), customer.getId());
+                        entityChangeDispatcher.publish(EntityChange.inserted(customer));
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Build and validate a customer from a record's contact fields
+     * @param name The customer name, which the caller has already resolved
+     */
+    Customer customer(RecordReader.Row row, String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(row.get("email"));
+        customer.setPhoneNumber(row.get("phonenumber"));
+        customer.setAddress(row.get("address"));
+        customer.setCity(row.get("city"));
+        customer.setState(row.get("state"));
+        customer.setZipCode(row.get("zipcode") != null ? ImportRows.parseInt(row.get("zipcode"), "zipCode") : null);
+        customer.setCountry(row.get("country"));
+        customer.setWebsite(row.get("website"));
+        ImportRows.validate(validator, customer);
+        return customer;
+    }
+
+    /**
+     * The customer INSERT for the current schema, shared with the lead import
+     */
+    static final class CustomerInsert {
+        final String sql;
+        private final boolean created;
+
+        CustomerInsert(SchemaCatalog.Schema schema) {
+            created = schema.customerCreatedColumn() != null;
+            sql = "INSERT INTO " + schema.customerTable()
+                    + " (name, email, phone_number, address, city, state, zip_code, country, website, has_password, type, status"
+                    + (created ? ", " + schema.customerCreatedColumn() : "") + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?"
+                    + (created ? ", ?" : "") + ")";
+        }
+
+        void bind(PreparedStatement ps, Customer customer) throws SQLException {
+            ps.setString(1, customer.getName());
+            ps.setString(2, customer.getEmail());
+            ps.setString(3, customer.getPhoneNumber());
+            ps.setString(4, customer.getAddress());
+            ps.setString(5, customer.getCity());
+            ps.setString(6, customer.getState());
+            if (customer.getZipCode() != null) {
+                ps.setInt(7, customer.getZipCode());
+            } else {
+                ps.setNull(7, Types.INTEGER);
+            }
+            ps.setString(8, customer.getCountry());
+            ps.setString(9, customer.getWebsite());
+            ps.setBoolean(10, Boolean.TRUE.equals(customer.getHasPassword()));
+            ps.setString(11, customer.getType().name());
+            ps.setString(12, customer.getStatus().name());
+            if (created) {
+                ps.setTimestamp(13, Timestamp.valueOf(customer.getCreatedAt()));
+            }
+        }
+    }
+}
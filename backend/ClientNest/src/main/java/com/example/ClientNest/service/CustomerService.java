@@ -1,30 +1,45 @@
 package com.example.ClientNest.service;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.CustomerDTO;
 import com.example.ClientNest.dto.CustomerRegistrationDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.PasswordUpdateDTO;
 import com.example.ClientNest.misc.ActivityStatus;
 import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.repository.CallLogRepository;
 import com.example.ClientNest.repository.CustomerRepository;
+import com.example.ClientNest.repository.ListSpecifications;
 
 @Service
 public class CustomerService {
 
     @Autowired
     private CustomerRepository customerRepository;
+
+    @Autowired
+    private CallLogRepository callLogRepository;
     
     @Autowired
     private EmailService emailService;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    private static final Set<String> SORTABLE = Set.of("id", "name");
     
-    // Create password encoder
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHasher passwordHasher;
     
     public List<CustomerDTO> getAllCustomers() {
         return customerRepository.findAllActiveCustomers()
@@ -33,6 +48,24 @@ public class CustomerService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get one page of customers
+     * @param page Cursor, size and sort
+     * @param status Status to match, active customers when null
+     * @param type Customer type to match, any when null
+     * @param search Text to find in the name or email
+     * @return The page and the cursor for the next one
+     */
+    public CursorPageDTO<CustomerDTO> getCustomerPage(PageQuery page, ActivityStatus status,
+            Customer.CustomerType type, String search) {
+        Specification<Customer> filter = Specification.allOf(
+                ListSpecifications.equal("status", status != null ? status : ActivityStatus.ACTIVE),
+                ListSpecifications.equal("type", type),
+                ListSpecifications.contains(search, "name", "email"));
+        return keysetPager.page(customerRepository, Customer.class, filter, page, SORTABLE, "id",
+                CustomerDTO::fromEntity);
+    }
+    
     public CustomerDTO getCustomerById(Long id) {
         return customerRepository.findById(id)
                 .map(CustomerDTO::fromEntity)
@@ -63,6 +96,7 @@ public class CustomerService {
         return CustomerDTO.fromEntity(customer);
     }
     
+    @Transactional
     public CustomerDTO setCustomerPassword(Long id, PasswordUpdateDTO passwordDTO) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
@@ -71,18 +105,14 @@ public class CustomerService {
         boolean isUpdate = customer.getHasPassword() != null && customer.getHasPassword();
         
         // Hash the password before storing it
-        String hashedPassword = passwordEncoder.encode(passwordDTO.getPassword());
+        String hashedPassword = passwordHasher.encode(passwordDTO.getPassword());
         customer.setPasswordHash(hashedPassword);
         customer.setHasPassword(true);
         
         customer = customerRepository.save(customer);
         
         if (passwordDTO.isSendEmail() && customer.getEmail() != null) {
-            try {
-                emailService.sendPasswordNotification(customer.getEmail(), customer.getName(), isUpdate);
-            } catch (Exception e) {
-                System.err.println("Failed to send password notification email: " + e.getMessage());
-            }
+            emailService.sendPasswordNotification(customer.getEmail(), customer.getName(), isUpdate);
         }
         
         return CustomerDTO.fromEntity(customer);
@@ -94,6 +124,7 @@ public class CustomerService {
                 .orElseThrow(() -> new RuntimeException("Customer not found with email: " + email));
     }
     
+    @Transactional
     public CustomerDTO registerCustomer(Long id, CustomerRegistrationDTO registrationDTO) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
@@ -114,17 +145,15 @@ public class CustomerService {
             customer.setState(registrationDTO.getState());
         }
         
-        String hashedPassword = passwordEncoder.encode(registrationDTO.getPassword());
+        String hashedPassword = passwordHasher.encode(registrationDTO.getPassword());
         customer.setPasswordHash(hashedPassword);
         customer.setHasPassword(true);
         
         customer = customerRepository.save(customer);
         
-        // Send welcome email
-        try {
+        // Queue the welcome email with the registration
+        if (customer.getEmail() != null) {
             emailService.sendRegistrationConfirmation(customer.getEmail(), customer.getName());
-        } catch (Exception e) {
-            System.err.println("Failed to send registration confirmation email: " + e.getMessage());
         }
         
         return CustomerDTO.fromEntity(customer);
@@ -189,6 +218,10 @@ public class CustomerService {
     }
 
     public void permanentlyDeleteCustomer(Long id) {
+        // Partitioned call_logs has no foreign key to refuse the delete
+        if (callLogRepository.existsByCustomerId(id)) {
+            throw new DataIntegrityViolationException("Customer " + id + " still has call logs");
+        }
         customerRepository.deleteById(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.example.ClientNest.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs independent dashboard queries concurrently on virtual threads.
+ *
+ * Each query holds one of a fixed number of permits while it runs so the dashboard
+ * never takes more than its share of the connection pool, and every query is given
+ * the same timeout measured from the moment it was submitted. Queries that fail or
+ * time out are reported by name so the caller can return a degraded result.
+ */
+@Component
+public class DashboardQueryExecutor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardQueryExecutor.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore connectionPermits;
+    private final long queryTimeoutMillis;
+
+    public DashboardQueryExecutor(
+            @Value("${clientnest.dashboard.max-concurrent-queries:4}") int maxConcurrentQueries,
+            @Value("${clientnest.dashboard.query-timeout-ms:3000}") long queryTimeoutMillis) {
+        this.connectionPermits = new Semaphore(maxConcurrentQueries, true);
+        this.queryTimeoutMillis = queryTimeoutMillis;
+    }
+
+    /**
+     * Start a new group of queries whose results are collected together
+     * @return An empty batch
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handle to a submitted query
+     */
+    public static final class Query<T> {
+        private final String name;
+        private final Future<T> future;
+        private final long deadlineNanos;
+
+        private Query(String name, Future<T> future, long deadlineNanos) {
+            this.name = name;
+            this.future = future;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * A group of concurrently running queries. Not thread safe; use from the requesting thread only.
+     */
+    public final class Batch {
+        private final List<String> failedQueries = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        public <T> Query<T> submit(String name, Callable<T> query) {
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queryTimeoutMillis);
+            Future<T> future = executor.submit(() -> {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (!connectionPermits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException("No connection permit available for " + name);
+                }
+                try {
+                    return query.call();
+                } finally {
+                    connectionPermits.release();
+                }
+            });
+            return new Query<>(name, future, deadlineNanos);
+        }
+
+        /**
+         * Wait for a query until its deadline
+         * @param query The submitted query
+         * @param fallback Value to use if the query failed or timed out
+         * @return The query result, or the fallback
+         */
+        public <T> T get(Query<T> query, T fallback) {
+            long remaining = query.deadlineNanos - System.nanoTime();
+            try {
+                return query.future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                query.future.cancel(true);
+                logger.warn("Dashboard query '{}' timed out after {} ms", query.name, queryTimeoutMillis);
+            } catch (ExecutionException e) {
+                logger.error("Dashboard query '" + query.name + "' failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                query.future.cancel(true);
+                logger.warn("Interrupted while waiting for dashboard query '{}'", query.name);
+            }
+            failedQueries.add(query.name);
+            return fallback;
+        }
+
+        public boolean isDegraded() {
+            return !failedQueries.isEmpty();
+        }
+
+        public List<String> getFailedQueries() {
+            return Collections.unmodifiableList(failedQueries);
+        }
+    }
+}
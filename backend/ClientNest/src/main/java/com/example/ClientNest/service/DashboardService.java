@@ -1,14 +1,23 @@
 package com.example.ClientNest.service;
 
 import com.example.ClientNest.dto.DashboardDTO;
+import com.example.ClientNest.dto.EmployeeDashboardDTO;
 import com.example.ClientNest.dto.GrowthDTO;
+import com.example.ClientNest.dto.TrendPointDTO;
+import com.example.ClientNest.misc.TimeBucket;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 public interface DashboardService {
     DashboardDTO getDashboardData();
+    DashboardDTO getDashboardData(LocalDate from, LocalDate to, TimeBucket bucket);
     GrowthDTO getGrowthData();
+    List<TrendPointDTO> getMonthlyTrends(YearMonth from, YearMonth to);
     List<DashboardDTO.ChartDataDTO> getLeadsBySource();
     List<DashboardDTO.ChartDataDTO> getProductsByCategory();
     List<DashboardDTO.ChartDataDTO> getOpportunitiesByStage();
+    EmployeeDashboardDTO getEmployeeDashboard(Long employeeId);
+    List<EmployeeDashboardDTO> getLeaderboard(EmployeeMetricsStore.Ranking ranking, int limit);
 }
\ No newline at end of file
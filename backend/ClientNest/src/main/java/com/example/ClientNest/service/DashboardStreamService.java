@@ -0,0 +1,273 @@
+package com.example.ClientNest.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pushes the dashboard headline numbers to Server-Sent Events subscribers.
+ *
+ * A single ticker reads the KPI store once per interval and, if anything moved since
+ * the last broadcast, serializes the changed fields once and sends them to every
+ * subscriber, so a burst of writes becomes at most one event per interval however
+ * many tabs are open. New subscribers, and any that missed a delta because their
+ * previous send was still in progress, get a full snapshot instead.
+ */
+@Service
+public class DashboardStreamService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStreamService.class);
+
+    private final KpiStore kpiStore;
+    private final ObjectMapper objectMapper;
+    private final int maxConnections;
+    private final long emitterTimeoutMillis;
+    private final int heartbeatTicks;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dashboard-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Sends may block on slow clients, so they never run on the ticker thread
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Written only by the ticker thread
+    private volatile Map<String, Object> lastBroadcast;
+    private int idleTicks;
+
+    public DashboardStreamService(
+            KpiStore kpiStore,
+            ObjectMapper objectMapper,
+            @Value("${clientnest.dashboard.stream.max-connections:200}") int maxConnections,
+            @Value("${clientnest.dashboard.stream.interval-ms:2000}") long intervalMillis,
+            @Value("${clientnest.dashboard.stream.timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.kpiStore = kpiStore;
+        this.objectMapper = objectMapper;
+        this.maxConnections = maxConnections;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        // Keep idle connections open through proxies with a comment roughly every 30 seconds
+        this.heartbeatTicks = (int) Math.max(1, 30_000 / intervalMillis);
+        ticker.scheduleWithFixedDelay(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Register a new subscriber and send it the current numbers
+     * @return The emitter to return from the controller
+     * @throws IllegalStateException If the connection limit has been reached
+     */
+    public SseEmitter subscribe() {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new IllegalStateException("Dashboard stream connection limit of " + maxConnections + " reached");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        // Marked busy until the first snapshot is out so the ticker cannot overtake it
+        subscriber.sending().set(true);
+        subscribers.add(subscriber);
+
+        // Start from the last broadcast so the next tick can follow up with a delta
+        Map<String, Object> broadcast = lastBroadcast;
+        Map<String, Object> current = broadcast != null ? broadcast : currentValues();
+        senders.execute(() -> {
+            try {
+                send(subscriber, current, "snapshot", toJson(current));
+            } finally {
+                subscriber.sending().set(false);
+            }
+        });
+        logger.info("Dashboard stream subscriber connected, {} open", connections.get());
+        return emitter;
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter().complete();
+        }
+        senders.shutdownNow();
+    }
+
+    private void tick() {
+        try {
+            if (subscribers.isEmpty()) {
+                lastBroadcast = null;
+                return;
+            }
+
+            Map<String, Object> current = currentValues();
+            Map<String, Object> previous = lastBroadcast;
+            Map<String, Object> changed = diff(previous, current);
+            if (changed.isEmpty()) {
+                current = previous;
+                if (++idleTicks >= heartbeatTicks) {
+                    idleTicks = 0;
+                    heartbeat();
+                }
+            } else {
+                idleTicks = 0;
+            }
+
+            // Serialized once and shared by every subscriber
+            String deltaJson = previous != null && !changed.isEmpty() ? toJson(changed) : null;
+            String snapshotJson = null;
+            for (Subscriber subscriber : subscribers) {
+                boolean upToDate = subscriber.lastSent() == previous;
+                if (upToDate && deltaJson == null) {
+                    continue;
+                }
+                if (!subscriber.sending().compareAndSet(false, true)) {
+                    // Still busy with the last event; it gets a snapshot once it catches up
+                    continue;
+                }
+                if (!upToDate && snapshotJson == null) {
+                    snapshotJson = toJson(current);
+                }
+                Map<String, Object> values = current;
+                String eventName = upToDate ? "delta" : "snapshot";
+                String json = upToDate ? deltaJson : snapshotJson;
+                senders.execute(() -> {
+                    try {
+                        send(subscriber, values, eventName, json);
+                    } finally {
+                        subscriber.sending().set(false);
+                    }
+                });
+            }
+            lastBroadcast = current;
+        } catch (Exception e) {
+            logger.error("Error broadcasting dashboard update", e);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sending().compareAndSet(false, true)) {
+                senders.execute(() -> {
+                    try {
+                        subscriber.emitter().send(SseEmitter.event().comment("keepalive"));
+                    } catch (IOException | IllegalStateException e) {
+                        remove(subscriber);
+                    } finally {
+                        subscriber.sending().set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, Map<String, Object> values, String eventName, String json) {
+        try {
+            synchronized (subscriber) {
+                subscriber.emitter().send(SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON));
+                subscriber.setLastSent(values);
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping dashboard stream subscriber: {}", e.getMessage());
+            subscriber.emitter().completeWithError(e);
+            remove(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            connections.decrementAndGet();
+            logger.info("Dashboard stream subscriber disconnected, {} open", connections.get());
+        }
+    }
+
+    private Map<String, Object> currentValues() {
+        KpiStore.Snapshot kpis = kpiStore.snapshot();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("totalLeads", kpis.getTotalLeads());
+        values.put("totalOpportunities", kpis.getTotalOpportunities());
+        values.put("totalCustomers", kpis.getTotalCustomers());
+        values.put("totalSales", kpis.getTotalSales());
+        values.put("averageOrderValue", kpis.getAverageOrderValue());
+        return values;
+    }
+
+    private Map<String, Object> diff(Map<String, Object> previous, Map<String, Object> current) {
+        if (previous == null) {
+            return current;
+        }
+        Map<String, Object> changed = new LinkedHashMap<>();
+        current.forEach((key, value) -> {
+            Object old = previous.get(key);
+            boolean same = value instanceof BigDecimal amount && old instanceof BigDecimal oldAmount
+                    ? amount.compareTo(oldAmount) == 0
+                    : Objects.equals(value, old);
+            if (!same) {
+                changed.put(key, value);
+            }
+        });
+        return changed;
+    }
+
+    private String toJson(Map<String, Object> values) {
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing dashboard update", e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile Map<String, Object> lastSent;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private SseEmitter emitter() {
+            return emitter;
+        }
+
+        private AtomicBoolean sending() {
+            return sending;
+        }
+
+        private Map<String, Object> lastSent() {
+            return lastSent;
+        }
+
+        private void setLastSent(Map<String, Object> lastSent) {
+            this.lastSent = lastSent;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.ClientNest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Corrects in-memory numbers that are moved by entity changes with a recount from
+ * the database.
+ *
+ * A recount cannot tell which of the changes applied meanwhile it already includes,
+ * so one that raced a change is discarded. A non-zero difference is only applied
+ * once two clean recounts agree on it, and it is added to the running numbers
+ * rather than replacing them, so changes applied since are kept. The first
+ * reconciliation seeds the numbers even if every recount raced, and later ones
+ * correct what that got wrong.
+ *
+ * The owner's lock guards the numbers and the change count: {@link #changed()}
+ * must be called holding it, and {@link Store#snapshot()} and {@link Store#apply}
+ * are called holding it.
+ *
+ * @param <S> Copy of the in-memory numbers
+ * @param <D> Difference between the database and such a copy
+ */
+public class DriftReconciler<S, D> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriftReconciler.class);
+
+    private static final int MAX_RECOUNTS = 5;
+
+    /**
+     * The numbers being reconciled
+     */
+    public interface Store<S, D> {
+
+        /**
+         * @return A copy of the in-memory numbers
+         */
+        S snapshot();
+
+        /**
+         * Count everything from the database, without holding the lock
+         * @param snapshot The numbers before the recount
+         * @return The database numbers minus the snapshot
+         */
+        D recount(S snapshot);
+
+        boolean isZero(D drift);
+
+        /**
+         * Add an agreed difference to the in-memory numbers
+         * @param drift The difference
+         * @param seeding Whether this is the first reconciliation
+         * @param recountChanges The change count the recount started from, to tell
+         *                       whether anything was applied after it
+         */
+        void apply(D drift, boolean seeding, long recountChanges);
+    }
+
+    private final String description;
+    private final Object lock;
+    private final Store<S, D> store;
+
+    // Guarded by lock
+    private long changes;
+    private boolean seeded;
+
+    public DriftReconciler(String description, Object lock, Store<S, D> store) {
+        this.description = description;
+        this.lock = lock;
+        this.store = store;
+    }
+
+    /**
+     * Count a change applied to the in-memory numbers; call holding the lock
+     */
+    public void changed() {
+        changes++;
+    }
+
+    /**
+     * @return Number of changes so far; call holding the lock
+     */
+    public long changes() {
+        return changes;
+    }
+
+    /**
+     * @return Whether a reconciliation has seeded the numbers
+     */
+    public boolean isSeeded() {
+        synchronized (lock) {
+            return seeded;
+        }
+    }
+
+    /**
+     * Recount until two clean recounts agree and apply their difference
+     */
+    public void reconcile() {
+        Recount<D> agreed = null;
+        Recount<D> previous = null;
+        try {
+            for (int attempt = 0; attempt < MAX_RECOUNTS && agreed == null; attempt++) {
+                Recount<D> recount = recount();
+                if (recount == null) {
+                    continue;
+                }
+                if (store.isZero(recount.drift())
+                        || (previous != null && recount.drift().equals(previous.drift()))) {
+                    agreed = recount;
+                }
+                previous = recount;
+            }
+        } catch (Exception e) {
+            logger.error("Error reconciling " + description, e);
+            return;
+        }
+
+        synchronized (lock) {
+            if (agreed == null && !seeded && previous != null) {
+                // Better a seed that may be off by a racing change than none; the next run corrects it
+                agreed = previous;
+            }
+            if (agreed == null) {
+                logger.debug("Recounts of {} kept racing changes, correcting on the next run", description);
+                return;
+            }
+            store.apply(agreed.drift(), !seeded, agreed.changes());
+            seeded = true;
+        }
+    }
+
+    /**
+     * Recount once
+     * @return The difference, or null if a change was applied meanwhile
+     */
+    private Recount<D> recount() {
+        S snapshot;
+        long changesBefore;
+        synchronized (lock) {
+            snapshot = store.snapshot();
+            changesBefore = changes;
+        }
+
+        D drift = store.recount(snapshot);
+
+        synchronized (lock) {
+            if (changes != changesBefore) {
+                return null;
+            }
+        }
+        return new Recount<>(drift, changesBefore);
+    }
+
+    private record Recount<D>(D drift, long changes) {
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.ClientNest.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ClientNest.model.OutboundEmail;
+import com.example.ClientNest.repository.OutboundEmailRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Delivers the email outbox in the background.
+ *
+ * A small pool of workers claims due rows in batches, marking them SENDING under a
+ * claim token so several workers and several nodes never send the same row twice,
+ * then hands each batch to the mail sender in one call so the whole batch goes over
+ * a single SMTP connection. A failed message is retried with exponential backoff and
+ * marked DEAD after the configured number of attempts. Workers sleep between polls
+ * and are woken early when a transaction that enqueued mail commits.
+ *
+ * Delivery is at least once: rows whose worker died mid-batch are handed back after
+ * the claim timeout and sent again.
+ */
+@Component
+public class EmailOutboxDispatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long claimTimeoutMillis;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+
+    private final Object signal = new Object();
+    private boolean wakeRequested;
+
+    private volatile boolean running;
+    private ExecutorService workerPool;
+
+    public EmailOutboxDispatcher(
+            OutboundEmailRepository outboundEmailRepository,
+            JavaMailSender mailSender,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${clientnest.email.outbox.enabled:true}") boolean enabled,
+            @Value("${clientnest.email.outbox.workers:2}") int workers,
+            @Value("${clientnest.email.outbox.batch-size:50}") int batchSize,
+            @Value("${clientnest.email.outbox.poll-interval-ms:5000}") long pollIntervalMillis,
+            @Value("${clientnest.email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${clientnest.email.outbox.initial-backoff-ms:30000}") long initialBackoffMillis,
+            @Value("${clientnest.email.outbox.max-backoff-ms:3600000}") long maxBackoffMillis,
+            @Value("${clientnest.email.outbox.claim-timeout-ms:300000}") long claimTimeoutMillis) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+        this.sentCounter = meterRegistry.counter("clientnest.email.outbox", "result", "sent");
+        this.retriedCounter = meterRegistry.counter("clientnest.email.outbox", "result", "retried");
+        this.deadCounter = meterRegistry.counter("clientnest.email.outbox", "result", "dead");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Email outbox dispatcher is disabled");
+            return;
+        }
+        running = true;
+        workerPool = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("email-outbox-", 0).factory());
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+        logger.info("Started {} email outbox workers", workers);
+    }
+
+    /**
+     * Wake the workers once the current transaction commits, or now if there is none
+     */
+    public void wakeAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    /**
+     * Claim, send and record one batch of due messages
+     * @return The number of messages attempted; zero when nothing was due
+     */
+    public int dispatchBatch() {
+        String token = UUID.randomUUID().toString();
+        List<OutboundEmail> batch = claim(token);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Exception> failures = send(batch);
+        record(token, failures);
+        return batch.size();
+    }
+
+    /**
+     * Hand back rows claimed by a worker that never recorded the attempt
+     */
+    @ScheduledJob(name = "email-outbox-release-stale-claims", fixedDelay = "${clientnest.email.outbox.claim-timeout-ms:300000}")
+    public void releaseStaleClaims() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMillis));
+        Integer released = transactionTemplate.execute(status -> outboundEmailRepository.releaseStaleClaims(before));
+        if (released != null && released > 0) {
+            logger.warn("Released {} email outbox rows with expired claims", released);
+            wake();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (workerPool != null) {
+            wake();
+            workerPool.shutdown();
+            // Let an in-flight batch record its result rather than leave it claimed
+            if (!workerPool.awaitTermination(10, TimeUnit.SECONDS)) {
+                workerPool.shutdownNow();
+            }
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                if (dispatchBatch() == 0) {
+                    awaitWork();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Email outbox dispatch failed", e);
+                try {
+                    awaitWork();
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void wake() {
+        synchronized (signal) {
+            wakeRequested = true;
+            signal.notifyAll();
+        }
+    }
+
+    private void awaitWork() throws InterruptedException {
+        synchronized (signal) {
+            if (!wakeRequested && running) {
+                signal.wait(pollIntervalMillis);
+            }
+            wakeRequested = false;
+        }
+    }
+
+    private List<OutboundEmail> claim(String token) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> due = outboundEmailRepository.findDueIds(now, Limit.of(batchSize));
+            if (due.isEmpty() || outboundEmailRepository.claim(due, token, now) == 0) {
+                return List.of();
+            }
+            return outboundEmailRepository.findByClaimTokenOrderById(token);
+        });
+    }
+
+    /**
+     * Send a batch over one connection
+     * @return The exception for each message that was not accepted, by row id
+     */
+    private Map<Long, Exception> send(List<OutboundEmail> batch) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, OutboundEmail> messages = new LinkedHashMap<>();
+        for (OutboundEmail email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                failures.put(email.getId(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(email -> failures.put(email.getId(), e));
+            } else {
+                // The sender keys failures by the message objects it was given
+                e.getFailedMessages().forEach((message, cause) -> {
+                    OutboundEmail email = messages.get(message);
+                    if (email != null) {
+                        failures.put(email.getId(), cause);
+                    }
+                });
+            }
+        } catch (MailException e) {
+            messages.values().forEach(email -> failures.put(email.getId(), e));
+        }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        boolean html = email.getHtmlBody() != null;
+        MimeMessageHelper helper = new MimeMessageHelper(message, html, StandardCharsets.UTF_8.name());
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        if (html) {
+            // multipart/alternative: clients that cannot show HTML fall back to the text
+            helper.setText(email.getBody(), email.getHtmlBody());
+        } else {
+            helper.setText(email.getBody());
+        }
+        return message;
+    }
+
+    private void record(String token, Map<Long, Exception> failures) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Rows released and re-claimed elsewhere in the meantime no longer carry this token
+            for (OutboundEmail email : outboundEmailRepository.findByClaimTokenOrderById(token)) {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setClaimToken(null);
+                email.setClaimedAt(null);
+
+                Exception failure = failures.get(email.getId());
+                if (failure == null) {
+                    email.setStatus(OutboundEmail.Status.SENT);
+                    email.setSentAt(now);
+                    email.setLastError(null);
+                    sentCounter.increment();
+                } else if (email.getAttempts() >= maxAttempts) {
+                    email.setStatus(OutboundEmail.Status.DEAD);
+                    email.setLastError(describe(failure));
+                    deadCounter.increment();
+                    logger.error("Giving up on email {} to {} after {} attempts: {}",
+                            email.getId(), email.getRecipient(), email.getAttempts(), failure.getMessage());
+                } else {
+                    email.setStatus(OutboundEmail.Status.PENDING);
+                    email.setNextAttemptAt(now.plus(Duration.ofMillis(backoff(email.getAttempts()))));
+                    email.setLastError(describe(failure));
+                    retriedCounter.increment();
+                    logger.warn("Email {} to {} failed on attempt {}, retrying at {}: {}",
+                            email.getId(), email.getRecipient(), email.getAttempts(),
+                            email.getNextAttemptAt(), failure.getMessage());
+                }
+            }
+        });
+    }
+
+    private long backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        long delay = initialBackoffMillis << doublings;
+        return delay <= 0 || delay > maxBackoffMillis ? maxBackoffMillis : delay;
+    }
+
+    private static String describe(Exception failure) {
+        String error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -1,71 +1,61 @@
 package com.example.ClientNest.service;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ClientNest.dto.InvoiceDTO;
 import com.example.ClientNest.dto.QuotationDTO;
+import com.example.ClientNest.model.OutboundEmail;
+import com.example.ClientNest.repository.OutboundEmailRepository;
+import com.example.ClientNest.service.EmailTemplateEngine.RenderedEmail;
+import com.example.ClientNest.service.EmailTemplateEngine.Template;
 
+/**
+ * Composes the application's emails and places them in the outbox. Nothing here
+ * talks to the mail server: messages are written in the caller's transaction, so
+ * they are only sent if the change they describe commits, and are delivered by
+ * {@link EmailOutboxDispatcher}. Subjects and bodies come from the templates in
+ * {@link EmailTemplateEngine}.
+ */
 @Service
+@Transactional
 public class EmailService {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
     @Autowired
-    private JavaMailSender emailSender;
-    
+    private EmailOutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private EmailTemplateEngine templateEngine;
+
     public void sendPasswordNotification(String to, String name, boolean isUpdate) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(isUpdate ? "Your ClientNest Password Has Been Updated" : "Your ClientNest Account Password Has Been Set");
-        
-        String emailContent = "Hello " + name + ",\n\n" +
-                              "This is to inform you that " + (isUpdate ? "your password has been updated" : "a password has been set for your account") + 
-                              " in the ClientNest CRM system.\n\n" +
-                              "You can now log in using your email address and the password provided to you by the administrator.\n\n" +
-                              "If you didn't request this change or have any questions, please contact your account administrator.\n\n" +
-                              "Best regards,\n" +
-                              "The ClientNest Team";
-        
-        message.setText(emailContent);
-        emailSender.send(message);
+        enqueue(to, Template.PASSWORD_NOTIFICATION, model("name", name, "updated", isUpdate));
     }
-    
+
     public boolean sendEmail(String to, String subject, String text) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            emailSender.send(message);
+            outboundEmailRepository.save(new OutboundEmail(to, subject, text, null));
+            outboxDispatcher.wakeAfterCommit();
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Error queueing email to {}", to, e);
             return false;
         }
     }
 
     public void sendRegistrationConfirmation(String to, String name) {
-
-        System.out.println("\n\nSending registration confirmation email to: " + to + "\n\n");
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("Welcome to ClientNest - Registration Complete");
-        
-        String emailContent = "Dear " + name + ",\n\n" +
-                              "Welcome to ClientNest! Your account registration has been completed successfully.\n\n" +
-                              "You can now log in to your customer portal using your email address and the password you've set during registration.\n\n" +
-                              "With your ClientNest account, you can:\n" +
-                              "- View your invoices and quotations\n" +
-                              "- Submit and track support tickets\n" +
-                              "- Update your account information\n\n" +
-                              "If you have any questions or need assistance, please don't hesitate to contact our support team.\n\n" +
-                              "Thank you for choosing ClientNest!\n\n" +
-                              "Best regards,\n" +
-                              "The ClientNest Team";
-        
-        message.setText(emailContent);
-        emailSender.send(message);
+        logger.info("Queueing registration confirmation email to: {}", to);
+        enqueue(to, Template.REGISTRATION, model("name", name));
     }
 
     /**
@@ -75,26 +65,12 @@ public class EmailService {
      * @param resetToken The password reset token
      */
     public void sendPasswordResetLink(String to, String name, String resetToken) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("ClientNest - Password Reset Request");
-        
         // Create reset link with token
         String resetLink = "http://localhost:5173/reset-password?token=" + resetToken;
-        
-        String emailContent = "Dear " + name + ",\n\n" +
-                              "We received a request to reset your password for your ClientNest account.\n\n" +
-                              "To reset your password, please click on the link below or copy and paste it into your browser:\n\n" +
-                              resetLink + "\n\n" +
-                              "This link will expire in 30 minutes for security reasons.\n\n" +
-                              "If you did not request a password reset, please ignore this email.\n\n" +
-                              "Best regards,\n" +
-                              "The ClientNest Team";
-        
-        message.setText(emailContent);
-        emailSender.send(message);
+
+        enqueue(to, Template.PASSWORD_RESET, model("name", name, "resetLink", resetLink));
     }
-    
+
     /**
      * Send notification when a quotation is sent to a customer
      * @param to The customer's email address
@@ -102,27 +78,15 @@ public class EmailService {
      * @param quotation The quotation details
      */
     public void sendQuotationNotification(String to, String name, QuotationDTO quotation) {
-        System.out.println("\n\nSending quotation notification email to: " + to + "\n\n");
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("ClientNest - New Quotation Available");
-        
-        String emailContent = "Dear " + name + ",\n\n" +
-                              "We are pleased to inform you that a new quotation has been prepared for you.\n\n" +
-                              "Quotation Details:\n" +
-                              "- Title: " + quotation.getTitle() + "\n" +
-                              "- Description: " + quotation.getDescription() + "\n" +
-                              "- Amount: ₹" + quotation.getAmount() + "\n" +
-                              "- Valid Until: " + quotation.getValidUntil().toLocalDate() + "\n\n" +
-                              "You can view and respond to this quotation by logging into your ClientNest account.\n\n" +
-                              "If you have any questions or need any clarification, please don't hesitate to contact us.\n\n" +
-                              "Best regards,\n" +
-                              "The ClientNest Team";
-        
-        message.setText(emailContent);
-        emailSender.send(message);
+        logger.info("Queueing quotation notification email to: {}", to);
+        enqueue(to, Template.QUOTATION, model(
+                "name", name,
+                "title", quotation.getTitle(),
+                "description", quotation.getDescription(),
+                "amount", quotation.getAmount(),
+                "validUntil", quotation.getValidUntil() != null ? quotation.getValidUntil().toLocalDate() : null));
     }
-    
+
     /**
      * Send notification when an invoice is generated for a customer
      * @param to The customer's email address
@@ -130,24 +94,32 @@ public class EmailService {
      * @param invoice The invoice details
      */
     public void sendInvoiceNotification(String to, String name, InvoiceDTO invoice) {
-        System.out.println("\n\nSending invoice notification email to: " + to + "\n\n");
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("ClientNest - New Invoice Generated");
-        
-        String emailContent = "Dear " + name + ",\n\n" +
-                              "An invoice has been generated for your accepted quotation.\n\n" +
-                              "Invoice Details:\n" +
-                              "- Invoice Number: " + invoice.getInvoiceNumber() + "\n" +
-                              "- Amount: ₹" + invoice.getTotal() + "\n" +
-                              "- Due Date: " + invoice.getDueDate() + "\n\n" +
-                              "You can view the complete invoice details by logging into your ClientNest account.\n\n" +
-                              "If you have any questions regarding this invoice, please contact our support team.\n\n" +
-                              "Thank you for your business.\n\n" +
-                              "Best regards,\n" +
-                              "The ClientNest Team";
-        
-        message.setText(emailContent);
-        emailSender.send(message);
+        logger.info("Queueing invoice notification email to: {}", to);
+        enqueue(to, Template.INVOICE, model(
+                "name", name,
+                "invoiceNumber", invoice.getInvoiceNumber(),
+                "amount", invoice.getTotal(),
+                "dueDate", invoice.getDueDate()));
+    }
+
+    /**
+     * Render a template and queue it for delivery once the current transaction commits
+     * @param to The recipient
+     * @param template The template to render
+     * @param model The template values
+     */
+    private void enqueue(String to, Template template, Map<String, Object> model) {
+        RenderedEmail email = templateEngine.render(template, model);
+        outboundEmailRepository.save(new OutboundEmail(to, email.subject(), email.text(), email.html()));
+        outboxDispatcher.wakeAfterCommit();
+    }
+
+    private static Map<String, Object> model(Object... namesAndValues) {
+        // Not Map.of, which rejects the null values some fields can have
+        Map<String, Object> model = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            model.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return model;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package com.example.ClientNest.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the email templates once, compiles them and renders them from memory.
+ *
+ * Each template is a set of files under the configured location: NAME.subject.txt,
+ * NAME.txt for the plain-text body and, optionally, NAME.html for an HTML
+ * alternative. The location may be on the classpath or a directory on disk. When hot
+ * reload is on, the files' modification times are checked periodically and the whole
+ * set is recompiled and swapped in at once if any changed; a set that fails to compile
+ * is rejected and the previous one stays in use.
+ */
+@Component
+public class EmailTemplateEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateEngine.class);
+
+    public enum Template {
+        QUOTATION("quotation"),
+        INVOICE("invoice"),
+        REGISTRATION("registration"),
+        PASSWORD_RESET("password-reset"),
+        PASSWORD_NOTIFICATION("password-notification");
+
+        private final String fileName;
+
+        Template(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+    }
+
+    /**
+     * A rendered email; html is null when the template has no HTML variant
+     */
+    public record RenderedEmail(String subject, String text, String html) {
+    }
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final boolean hotReload;
+
+    private volatile TemplateSet templates;
+
+    public EmailTemplateEngine(
+            ResourceLoader resourceLoader,
+            @Value("${clientnest.email.templates.location:classpath:email-templates/}") String location,
+            @Value("${clientnest.email.templates.hot-reload:true}") boolean hotReload) {
+        this.resourceLoader = resourceLoader;
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.hotReload = hotReload;
+        // Broken or missing templates should stop startup, not the first send
+        this.templates = load();
+        logger.info("Compiled {} email templates from {}", Template.values().length, this.location);
+    }
+
+    /**
+     * Render a template
+     * @param template The template to render
+     * @param model Values by name
+     * @return The subject and bodies
+     */
+    public RenderedEmail render(Template template, Map<String, ?> model) {
+        Compiled compiled = templates.compiled().get(template);
+        return new RenderedEmail(
+                compiled.subject().render(model).strip(),
+                compiled.text().render(model),
+                compiled.html() != null ? compiled.html().render(model) : null);
+    }
+
+    /**
+     * Recompile the templates if any file changed since they were loaded
+     */
+    @ScheduledJob(name = "email-template-reload", scope = ScheduledJob.Scope.NODE,
+            fixedDelay = "${clientnest.email.templates.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (!hotReload) {
+            return;
+        }
+        try {
+            if (!fingerprint().equals(templates.fingerprint())) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Email templates in {} were changed but could not be reloaded; keeping the previous version", location, e);
+        }
+    }
+
+    /**
+     * Recompile all templates and swap them in together
+     * @throws IllegalArgumentException If a template is missing or invalid
+     */
+    public synchronized void reload() {
+        templates = load();
+        logger.info("Reloaded email templates from {}", location);
+    }
+
+    private TemplateSet load() {
+        Map<String, Long> fingerprint = fingerprint();
+        Map<Template, Compiled> compiled = new EnumMap<>(Template.class);
+        for (Template template : Template.values()) {
+            String base = template.getFileName();
+            Resource html = resource(base + ".html");
+            compiled.put(template, new Compiled(
+                    compile(base + ".subject.txt", false),
+                    compile(base + ".txt", false),
+                    html.exists() ? compile(base + ".html", true) : null));
+        }
+        return new TemplateSet(compiled, fingerprint);
+    }
+
+    private CompiledTemplate compile(String fileName, boolean html) {
+        Resource resource = resource(fileName);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Email template " + location + fileName + " not found");
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return CompiledTemplate.compile(fileName, new String(in.readAllBytes(), StandardCharsets.UTF_8), html);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read email template " + location + fileName, e);
+        }
+    }
+
+    /**
+     * Modification times of every template file, with -1 for files that do not exist
+     */
+    private Map<String, Long> fingerprint() {
+        Map<String, Long> fingerprint = new HashMap<>();
+        for (Template template : Template.values()) {
+            for (String suffix : new String[] {".subject.txt", ".txt", ".html"}) {
+                String fileName = template.getFileName() + suffix;
+                Resource resource = resource(fileName);
+                long modified = -1;
+                if (resource.exists()) {
+                    try {
+                        modified = resource.lastModified();
+                    } catch (IOException e) {
+                        // Not every location can report it; such files are never reloaded
+                        modified = 0;
+                    }
+                }
+                fingerprint.put(fileName, modified);
+            }
+        }
+        return fingerprint;
+    }
+
+    private Resource resource(String fileName) {
+        return resourceLoader.getResource(location + fileName);
+    }
+
+    private record Compiled(CompiledTemplate subject, CompiledTemplate text, CompiledTemplate html) {
+    }
+
+    private record TemplateSet(Map<Template, Compiled> compiled, Map<String, Long> fingerprint) {
+    }
+}
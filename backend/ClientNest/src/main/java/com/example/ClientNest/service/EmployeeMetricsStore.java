@@ -0,0 +1,428 @@
+package com.example.ClientNest.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.dto.EmployeeDashboardDTO;
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeObserver;
+import com.example.ClientNest.misc.ActivityStatus;
+import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.model.Invoice;
+import com.example.ClientNest.model.Lead;
+import com.example.ClientNest.model.Opportunity;
+
+/**
+ * In-memory pipeline numbers per employee (leads, active opportunities by stage,
+ * paid sales), keyed by employee id.
+ *
+ * Seeded from the database with one grouped query per table and then moved by the
+ * committed lead, opportunity and invoice changes, including reassignment from one
+ * employee to another. A periodic reconciliation recounts everything and corrects
+ * the numbers by the difference through a {@link DriftReconciler}.
+ */
+@Component
+public class EmployeeMetricsStore implements EntityChangeObserver {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeMetricsStore.class);
+
+    public enum Ranking {
+        REVENUE,
+        WON,
+        OPPORTUNITIES,
+        ACTIVE_LEADS,
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+
+    // Guarded by this
+    private final Map<Long, Totals> totals = new HashMap<>();
+    // Null until the first reconciliation
+    private Map<Long, String> names;
+    // Locks this around the numbers it reads and corrects
+    private final DriftReconciler<Map<Long, Totals>, Recount> reconciler =
+            new DriftReconciler<>("employee metrics", this, new Reconciled());
+
+    public EmployeeMetricsStore(JdbcTemplate jdbcTemplate, SchemaCatalog schemaCatalog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Get the pipeline numbers of one employee
+     * @param employeeId Employee ID
+     * @return The numbers, or empty if the employee is unknown
+     */
+    public Optional<EmployeeDashboardDTO> get(Long employeeId) {
+        if (!ensureSeeded()) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            if (!names.containsKey(employeeId) && !totals.containsKey(employeeId)) {
+                return Optional.empty();
+            }
+            return Optional.of(toDTO(employeeId, totals.getOrDefault(employeeId, new Totals())));
+        }
+    }
+
+    /**
+     * Get employees ordered by one of their numbers
+     * @param ranking What to rank by
+     * @param limit Maximum number of employees
+     * @return The top employees, best first
+     */
+    public List<EmployeeDashboardDTO> leaderboard(Ranking ranking, int limit) {
+        if (!ensureSeeded()) {
+            return List.of();
+        }
+        List<EmployeeDashboardDTO> all = new ArrayList<>();
+        synchronized (this) {
+            for (Long employeeId : names.keySet()) {
+                all.add(toDTO(employeeId, totals.getOrDefault(employeeId, new Totals())));
+            }
+        }
+        Comparator<EmployeeDashboardDTO> order = switch (ranking) {
+            case REVENUE -> Comparator.comparing(EmployeeDashboardDTO::getPaidRevenue);
+            case WON -> Comparator.comparingLong(dto -> dto.getOpportunitiesByStage().getOrDefault(Opportunity.Stage.WON.name(), 0L));
+            case OPPORTUNITIES -> Comparator.comparingLong(EmployeeDashboardDTO::getActiveOpportunities);
+            case ACTIVE_LEADS -> Comparator.comparingLong(EmployeeDashboardDTO::getActiveLeads);
+        };
+        return all.stream()
+                .sorted(order.reversed().thenComparing(EmployeeDashboardDTO::getEmployeeId))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Correct the in-memory numbers by what a fresh count from the database says they missed
+     */
+    @ScheduledJob(name = "employee-metrics-reconcile", scope = ScheduledJob.Scope.NODE,
+            fixedDelay = "${clientnest.employee-metrics.reconcile-interval-ms:300000}",
+            initialDelay = "${clientnest.employee-metrics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reconciler.reconcile();
+    }
+
+    private final class Reconciled implements DriftReconciler.Store<Map<Long, Totals>, Recount> {
+
+        @Override
+        public Map<Long, Totals> snapshot() {
+            Map<Long, Totals> copy = new HashMap<>();
+            totals.forEach((employeeId, employeeTotals) -> copy.put(employeeId, employeeTotals.copy()));
+            return copy;
+        }
+
+        @Override
+        public Recount recount(Map<Long, Totals> before) {
+            Map<Long, Totals> loadedTotals = new HashMap<>();
+            Map<Long, String> loadedNames = new HashMap<>();
+            load(loadedTotals, loadedNames);
+
+            Map<Long, Totals> drift = new HashMap<>();
+            loadedTotals.forEach((employeeId, loaded) -> {
+                Totals current = before.remove(employeeId);
+                if (current != null) {
+                    loaded.subtract(current);
+                }
+                if (!loaded.isZero()) {
+                    drift.put(employeeId, loaded);
+                }
+            });
+            before.forEach((employeeId, current) -> {
+                Totals missing = new Totals();
+                missing.subtract(current);
+                if (!missing.isZero()) {
+                    drift.put(employeeId, missing);
+                }
+            });
+            return new Recount(drift, loadedNames);
+        }
+
+        @Override
+        public boolean isZero(Recount recount) {
+            return recount.drift().isEmpty();
+        }
+
+        @Override
+        public void apply(Recount recount, boolean seeding, long recountChanges) {
+            if (!seeding && !recount.drift().isEmpty()) {
+                logger.info("Employee metrics drifted from the database for {} employees, correcting", recount.drift().size());
+            }
+            recount.drift().forEach((employeeId, drift) -> totals.computeIfAbsent(employeeId, id -> new Totals()).add(drift));
+            // Names changed since the recount are newer than the loaded ones
+            if (names == null || reconciler.changes() == recountChanges) {
+                names = recount.names();
+            }
+            logger.debug("Employee metrics reconciled for {} employees", recount.names().size());
+        }
+    }
+
+    /**
+     * Database numbers minus the in-memory ones, leaving out employees that match, and the employee names
+     */
+    private record Recount(Map<Long, Totals> drift, Map<Long, String> names) {
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        Map<Long, Totals> delta = new HashMap<>();
+        switch (change.getEntity()) {
+            case Lead lead -> {
+                leadContribution(delta, lead.getEmployee(), lead.getStatus(), sign(change));
+                if (change.getType() == EntityChange.Type.UPDATE) {
+                    if (!change.hasPreviousState()) {
+                        return;
+                    }
+                    leadContribution(delta, (Employee) change.getPrevious("employee"),
+                            (ActivityStatus) change.getPrevious("status"), -1);
+                }
+            }
+            case Opportunity opportunity -> {
+                opportunityContribution(delta, opportunity.getEmployee(), opportunity.getStatus(),
+                        opportunity.getStage(), sign(change));
+                if (change.getType() == EntityChange.Type.UPDATE) {
+                    if (!change.hasPreviousState()) {
+                        return;
+                    }
+                    opportunityContribution(delta, (Employee) change.getPrevious("employee"),
+                            (ActivityStatus) change.getPrevious("status"), (Opportunity.Stage) change.getPrevious("stage"), -1);
+                }
+            }
+            case Invoice invoice -> {
+                invoiceContribution(delta, invoice.getEmployee(), invoice.getStatus(), invoice.getTotal(), sign(change));
+                if (change.getType() == EntityChange.Type.UPDATE) {
+                    if (!change.hasPreviousState()) {
+                        return;
+                    }
+                    invoiceContribution(delta, (Employee) change.getPrevious("employee"),
+                            (String) change.getPrevious("status"), (Double) change.getPrevious("total"), -1);
+                }
+            }
+            case Employee employee -> {
+                employeeChange(change, employee);
+                return;
+            }
+            default -> {
+                return;
+            }
+        }
+
+        synchronized (this) {
+            delta.forEach((employeeId, employeeDelta) -> totals.computeIfAbsent(employeeId, id -> new Totals()).add(employeeDelta));
+            reconciler.changed();
+        }
+    }
+
+    // Contributions of a single row, added for the new state and subtracted for the old one
+
+    private int sign(EntityChange change) {
+        return change.getType() == EntityChange.Type.DELETE ? -1 : 1;
+    }
+
+    private void leadContribution(Map<Long, Totals> delta, Employee employee, ActivityStatus status, int sign) {
+        if (employee == null || employee.getId() == null) {
+            return;
+        }
+        Totals employeeDelta = delta.computeIfAbsent(employee.getId(), id -> new Totals());
+        employeeDelta.leads += sign;
+        if (status == ActivityStatus.ACTIVE) {
+            employeeDelta.activeLeads += sign;
+        }
+    }
+
+    private void opportunityContribution(Map<Long, Totals> delta, Employee employee, ActivityStatus status,
+            Opportunity.Stage stage, int sign) {
+        if (employee == null || employee.getId() == null || status != ActivityStatus.ACTIVE || stage == null) {
+            return;
+        }
+        delta.computeIfAbsent(employee.getId(), id -> new Totals())
+                .opportunitiesByStage.merge(stage.name(), (long) sign, Long::sum);
+    }
+
+    private void invoiceContribution(Map<Long, Totals> delta, Employee employee, String status, Double total, int sign) {
+        if (employee == null || employee.getId() == null || !"PAID".equals(status) || total == null) {
+            return;
+        }
+        Totals employeeDelta = delta.computeIfAbsent(employee.getId(), id -> new Totals());
+        employeeDelta.paidInvoices += sign;
+        employeeDelta.paidRevenue = employeeDelta.paidRevenue.add(BigDecimal.valueOf(total).multiply(BigDecimal.valueOf(sign)));
+    }
+
+    private synchronized void employeeChange(EntityChange change, Employee employee) {
+        if (names == null) {
+            return;
+        }
+        if (change.getType() == EntityChange.Type.DELETE) {
+            names.remove(employee.getId());
+            totals.remove(employee.getId());
+        } else {
+            names.put(employee.getId(), employee.getName());
+        }
+        reconciler.changed();
+    }
+
+    // Seeding
+
+    private boolean ensureSeeded() {
+        synchronized (this) {
+            if (names != null) {
+                return true;
+            }
+        }
+        reconcile();
+        synchronized (this) {
+            // Still unseeded if the database could not be read; the next call retries
+            return names != null;
+        }
+    }
+
+    private void load(Map<Long, Totals> loadedTotals, Map<Long, String> loadedNames) {
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+
+        String employeeTable = schema.employeeTable();
+        if (employeeTable != null) {
+            jdbcTemplate.query(String.format("SELECT id, name FROM %s", employeeTable),
+                    rs -> {
+                        loadedNames.put(rs.getLong("id"), rs.getString("name"));
+                    });
+        }
+
+        String leadTable = schema.leadTable();
+        if (schema.hasColumn(leadTable, "employee_id")) {
+            jdbcTemplate.query(String.format(
+                    "SELECT employee_id, COUNT(*) AS leads, SUM(CASE WHEN status = 'ACTIVE' THEN 1 ELSE 0 END) AS active "
+                            + "FROM %s WHERE employee_id IS NOT NULL GROUP BY employee_id", leadTable),
+                    rs -> {
+                        Totals employeeTotals = loadedTotals.computeIfAbsent(rs.getLong("employee_id"), id -> new Totals());
+                        employeeTotals.leads = rs.getLong("leads");
+                        employeeTotals.activeLeads = rs.getLong("active");
+                    });
+        }
+
+        String opportunityTable = schema.opportunityTable();
+        if (schema.hasColumn(opportunityTable, "employee_id")) {
+            jdbcTemplate.query(String.format(
+                    "SELECT employee_id, stage, COUNT(*) AS opportunities FROM %s "
+                            + "WHERE employee_id IS NOT NULL AND status = 'ACTIVE' AND stage IS NOT NULL "
+                            + "GROUP BY employee_id, stage", opportunityTable),
+                    rs -> {
+                        loadedTotals.computeIfAbsent(rs.getLong("employee_id"), id -> new Totals())
+                                .opportunitiesByStage.put(rs.getString("stage"), rs.getLong("opportunities"));
+                    });
+        }
+
+        String invoiceTable = schema.invoiceTable();
+        if (schema.hasColumn(invoiceTable, "employee_id")) {
+            jdbcTemplate.query(String.format(
+                    "SELECT employee_id, COUNT(total) AS invoices, COALESCE(SUM(total), 0) AS revenue FROM %s "
+                            + "WHERE employee_id IS NOT NULL AND status = 'PAID' GROUP BY employee_id", invoiceTable),
+                    rs -> {
+                        Totals employeeTotals = loadedTotals.computeIfAbsent(rs.getLong("employee_id"), id -> new Totals());
+                        employeeTotals.paidInvoices = rs.getLong("invoices");
+                        employeeTotals.paidRevenue = rs.getBigDecimal("revenue");
+                    });
+        }
+    }
+
+    private EmployeeDashboardDTO toDTO(Long employeeId, Totals employeeTotals) {
+        Map<String, Long> byStage = new LinkedHashMap<>();
+        for (Opportunity.Stage stage : Opportunity.Stage.values()) {
+            byStage.put(stage.name(), employeeTotals.opportunitiesByStage.getOrDefault(stage.name(), 0L));
+        }
+        return EmployeeDashboardDTO.builder()
+                .employeeId(employeeId)
+                .employeeName(names.get(employeeId))
+                .totalLeads(employeeTotals.leads)
+                .activeLeads(employeeTotals.activeLeads)
+                .activeOpportunities(byStage.values().stream().mapToLong(Long::longValue).sum())
+                .opportunitiesByStage(byStage)
+                .paidInvoices(employeeTotals.paidInvoices)
+                .paidRevenue(employeeTotals.paidRevenue)
+                .build();
+    }
+
+    /**
+     * Mutable running numbers of one employee, only touched while holding the store's lock
+     */
+    private static final class Totals {
+        private long leads;
+        private long activeLeads;
+        private final Map<String, Long> opportunitiesByStage = new HashMap<>();
+        private long paidInvoices;
+        private BigDecimal paidRevenue = BigDecimal.ZERO;
+
+        private void add(Totals other) {
+            leads += other.leads;
+            activeLeads += other.activeLeads;
+            other.opportunitiesByStage.forEach((stage, count) -> opportunitiesByStage.merge(stage, count, Long::sum));
+            paidInvoices += other.paidInvoices;
+            paidRevenue = paidRevenue.add(other.paidRevenue);
+        }
+
+        private void subtract(Totals other) {
+            leads -= other.leads;
+            activeLeads -= other.activeLeads;
+            other.opportunitiesByStage.forEach((stage, count) -> {
+                if (opportunitiesByStage.merge(stage, -count, Long::sum) == 0) {
+                    opportunitiesByStage.remove(stage);
+                }
+            });
+            paidInvoices -= other.paidInvoices;
+            paidRevenue = paidRevenue.subtract(other.paidRevenue);
+        }
+
+        private Totals copy() {
+            Totals copy = new Totals();
+            copy.add(this);
+            return copy;
+        }
+
+        private boolean isZero() {
+            return equals(new Totals());
+        }
+
+        // Stage counts of zero are the same as missing ones
+        private Map<String, Long> stages() {
+            Map<String, Long> stages = new HashMap<>(opportunitiesByStage);
+            stages.values().removeIf(count -> count == 0);
+            return stages;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Totals other)) {
+                return false;
+            }
+            return leads == other.leads
+                    && activeLeads == other.activeLeads
+                    && stages().equals(other.stages())
+                    && paidInvoices == other.paidInvoices
+                    && paidRevenue.compareTo(other.paidRevenue) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(leads, activeLeads, stages(), paidInvoices, paidRevenue.stripTrailingZeros());
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package com.example.ClientNest.service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import com.example.ClientNest.dto.EmployeeDTO;
 import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.repository.CallLogRepository;
 import com.example.ClientNest.repository.EmployeeRepository;
 
 @Service
@@ -17,8 +19,12 @@ public class EmployeeService {
 
     @Autowired
     private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CallLogRepository callLogRepository;
     
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHasher passwordHasher;
     
     public List<String> getAllEmployeeNames() {
         return employeeRepository.findAllNames();
@@ -33,7 +39,7 @@ public class EmployeeService {
     public EmployeeDTO createEmployee(Employee employee) {
         // Hash the password before saving
         if (employee.getHashedPassword() != null) {
-            employee.setHashedPassword(passwordEncoder.encode(employee.getHashedPassword()));
+            employee.setHashedPassword(passwordHasher.encode(employee.getHashedPassword()));
         }
         
         Employee savedEmployee = employeeRepository.save(employee);
@@ -42,16 +48,33 @@ public class EmployeeService {
     
     public boolean deleteEmployee(Long id) {
         if (employeeRepository.existsById(id)) {
+            // Partitioned call_logs has no foreign key to refuse the delete
+            if (callLogRepository.existsByEmployeeId(id)) {
+                throw new DataIntegrityViolationException("Employee " + id + " still has call logs");
+            }
             employeeRepository.deleteById(id);
             return true;
         }
         return false;
     }
     
-    public boolean validateCredentials(String email, String password) {
-        return employeeRepository.findByEmail(email)
-            .map(employee -> passwordEncoder.matches(password, employee.getHashedPassword()))
-            .orElse(false);
+    /**
+     * Check an employee's credentials; the password is verified on the hashing pool
+     * @param email The employee's email
+     * @param password The password to check
+     * @return The employee when the password matches, empty otherwise
+     */
+    public CompletableFuture<Optional<EmployeeDTO>> authenticate(String email, String password) {
+        Optional<Employee> found = employeeRepository.findByEmail(email);
+        if (found.isEmpty() || found.get().getHashedPassword() == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        Employee employee = found.get();
+        String storedHash = employee.getHashedPassword();
+        EmployeeDTO employeeDTO = convertToDTO(employee);
+        return passwordHasher.verify(password, storedHash,
+                upgraded -> employeeRepository.replacePasswordHash(employee.getId(), storedHash, upgraded))
+            .thenApply(matches -> matches ? Optional.of(employeeDTO) : Optional.empty());
     }
     
     public EmployeeDTO findByEmail(String email) {
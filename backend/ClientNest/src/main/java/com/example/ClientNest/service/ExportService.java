@@ -0,0 +1,424 @@
+package com.example.ClientNest.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams whole tables to the client as NDJSON or CSV.
+ *
+ * Rows are read with a forward-only, read-only statement in MySQL's streaming mode
+ * and written to the response as they arrive, so nothing is collected in memory and
+ * no entities are loaded. The first row is flushed straight away; after that output
+ * goes out whenever the writer's buffer fills.
+ *
+ * A streaming result set holds its connection until the last row is read, so the
+ * number of exports running at once is capped to keep the pool free for normal traffic.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    // Tells MySQL Connector/J to stream rows one at a time instead of buffering the result
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    public enum Dataset {
+        INVOICES("invoices"),
+        CUSTOMERS("customers"),
+        LEADS("leads"),
+        CALL_LOGS("call-logs");
+
+        private final String path;
+
+        Dataset(String path) {
+            this.path = path;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public static Dataset fromPath(String path) {
+            for (Dataset dataset : values()) {
+                if (dataset.path.equalsIgnoreCase(path)) {
+                    return dataset;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export: " + path);
+        }
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown export format: " + format);
+            }
+        }
+    }
+
+    private final JdbcTemplate streamingTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+
+    public ExportService(
+            DataSource dataSource,
+            SchemaCatalog schemaCatalog,
+            ObjectMapper objectMapper,
+            @Value("${clientnest.export.max-concurrent:2}") int maxConcurrent) {
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(STREAMING_FETCH_SIZE);
+        this.schemaCatalog = schemaCatalog;
+        this.objectMapper = objectMapper;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent);
+    }
+
+    /**
+     * Prepare an export, taking one of the export permits
+     * @param dataset What to export
+     * @param format NDJSON or CSV
+     * @param from First day to include, on the dataset's date column, open when null
+     * @param to Last day to include, on the dataset's date column, open when null
+     * @return A body that writes the rows when the response is sent and then gives the
+     *         permit back; a caller whose request may end before the body runs must
+     *         also call {@link Export#release()} when the request completes
+     * @throws IllegalArgumentException If the dataset has no date column to filter on
+     * @throws IllegalStateException If too many exports are already running
+     */
+    public Export open(Dataset dataset, Format format, LocalDate from, LocalDate to) {
+        Query query = buildQuery(dataset, from, to);
+        if (!permits.tryAcquire()) {
+            throw new IllegalStateException("Export limit of " + maxConcurrent + " running exports reached");
+        }
+        return new Export(dataset, format, query);
+    }
+
+    /**
+     * A prepared export, holding its permit until it has been written or released
+     */
+    public final class Export implements StreamingResponseBody {
+        private final Dataset dataset;
+        private final Format format;
+        private final Query query;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Export(Dataset dataset, Format format, Query query) {
+            this.dataset = dataset;
+            this.format = format;
+            this.query = query;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            long started = System.currentTimeMillis();
+            try {
+                long rows = write(query, format, out);
+                logger.info("Exported {} {} rows as {} in {} ms", rows, dataset.getPath(), format,
+                        System.currentTimeMillis() - started);
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Give the permit back; only the first call counts, so it is safe from both the
+         * body and the request's completion, timeout or error handling
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    private long write(Query query, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+        try {
+            Long rows = streamingTemplate.query(query.sql(), (ResultSet rs) -> {
+                try {
+                    int columnCount = rs.getMetaData().getColumnCount();
+                    rowWriter.start(columnNames(rs.getMetaData()));
+                    long count = 0;
+                    while (rs.next()) {
+                        rowWriter.row(values(rs, columnCount));
+                        if (++count == 1) {
+                            // Get the first bytes out without waiting for the buffer to fill
+                            rowWriter.flush();
+                        }
+                    }
+                    rowWriter.finish();
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, query.args().toArray());
+            return rows != null ? rows : 0;
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the statement is closed on the way out
+            throw e.getCause();
+        }
+    }
+
+    private Query buildQuery(Dataset dataset, LocalDate from, LocalDate to) {
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+        String customers = schema.customerTable();
+        String employees = schema.employeeTable();
+
+        return switch (dataset) {
+            case INVOICES -> dated("""
+                    SELECT i.id, i.invoice_number, i.status, i.invoice_date, i.due_date, i.subtotal,
+                           i.discount, i.tax_rate, i.tax_amount, i.total, i.customer_id,
+                           c.name AS customer_name, c.email AS customer_email, e.name AS employee_name,
+                           i.created_at
+                    FROM %s i
+                    LEFT JOIN %s c ON c.id = i.customer_id
+                    LEFT JOIN %s e ON e.id = i.employee_id
+                    """.formatted(schema.invoiceTable(), customers, employees),
+                    "i." + schema.invoiceDateColumn(), schema.invoiceDateColumn() != null, "i.id", from, to);
+            case CUSTOMERS -> {
+                String created = schema.customerCreatedColumn();
+                yield dated("""
+                        SELECT c.id, c.name, c.email, c.phone_number, c.address, c.city, c.state, c.zip_code,
+                               c.country, c.website, c.type, c.status%s
+                        FROM %s c
+                        """.formatted(created != null ? ", c." + created + " AS created_at" : "", customers),
+                        "c." + created, created != null, "c.id", from, to);
+            }
+            case LEADS -> {
+                String created = schema.leadCreatedColumn();
+                yield dated("""
+                        SELECT l.id, l.requirement, l.source, l.stage, l.status, l.type, l.probability,
+                               l.expected_revenue, l.customer_id, c.name AS customer_name, c.email AS customer_email,
+                               e.name AS employee_name%s
+                        FROM %s l
+                        LEFT JOIN %s c ON c.id = l.customer_id
+                        LEFT JOIN %s e ON e.id = l.employee_id
+                        """.formatted(created != null ? ", l." + created + " AS created_at" : "",
+                                schema.leadTable(), customers, employees),
+                        "l." + created, created != null, "l.id", from, to);
+            }
+            case CALL_LOGS -> dated("""
+                    SELECT cl.id, cl.title, cl.description, cl.type, cl.date_time, cl.minutes, cl.seconds,
+                           cl.customer_id, c.name AS customer_name, c.email AS customer_email,
+                           e.name AS employee_name, e.email AS employee_email
+                    FROM %s cl
+                    LEFT JOIN %s c ON c.id = cl.customer_id
+                    LEFT JOIN %s e ON e.id = cl.employee_id
+                    """.formatted(schema.callLogTable(), customers, employees),
+                    "cl.date_time", true, "cl.id", from, to);
+        };
+    }
+
+    private Query dated(String select, String dateColumn, boolean hasDateColumn, String idColumn,
+            LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> args = new ArrayList<>();
+        if (from != null || to != null) {
+            if (!hasDateColumn) {
+                throw new IllegalArgumentException("This export cannot be filtered by date");
+            }
+            // Half-open range so the date column's index can be used
+            List<String> conditions = new ArrayList<>();
+            if (from != null) {
+                conditions.add(dateColumn + " >= ?");
+                args.add(from.atStartOfDay());
+            }
+            if (to != null) {
+                conditions.add(dateColumn + " < ?");
+                args.add(to.plusDays(1).atStartOfDay());
+            }
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append('\n');
+        }
+        sql.append("ORDER BY ").append(idColumn);
+        return new Query(sql.toString(), args);
+    }
+
+    private List<String> columnNames(ResultSetMetaData metaData) throws SQLException {
+        List<String> names = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            names.add(metaData.getColumnLabel(i));
+        }
+        return names;
+    }
+
+    private Object[] values(ResultSet rs, int count) throws SQLException {
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            Object value = rs.getObject(i + 1);
+            if (value instanceof java.sql.Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            } else if (value instanceof java.sql.Date date) {
+                value = date.toLocalDate();
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    private record Query(String sql, List<Object> args) {
+    }
+
+    private interface RowWriter {
+        void start(List<String> columns) throws IOException;
+
+        void row(Object[] values) throws IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+        private List<String> columns;
+
+        private NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // The servlet container owns the response stream
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One object per line, separated by the newline written after each row
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start(List<String> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+            writer.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start(List<String> columns) throws IOException {
+            line(columns.toArray());
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            line(values);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void line(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value instanceof BigDecimal amount ? amount.toPlainString() : value.toString();
+            if (!(value instanceof Number) && startsFormula(text)) {
+                // Spreadsheets evaluate such a cell; the leading quote makes it plain text
+                text = "'" + text;
+            }
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+
+        private static boolean startsFormula(String text) {
+            if (text.isEmpty()) {
+                return false;
+            }
+            char first = text.charAt(0);
+            return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ClientNest.service;
+
+import java.util.List;
+
+import com.example.ClientNest.model.ImportJob;
+
+/**
+ * Turns import records into rows of one table. The {@link ImportService} reads the
+ * file, cuts it into chunks and owns the transactions; a handler only validates
+ * records and batch-inserts the valid ones.
+ *
+ * @param <T> A record that passed validation
+ */
+public interface ImportHandler<T> {
+
+    ImportJob.Dataset dataset();
+
+    /**
+     * Load what the records of one import are resolved against, such as name indexes
+     */
+    Session<T> begin();
+
+    /**
+     * The state of one import; used by one thread at a time
+     */
+    interface Session<T> {
+
+        /**
+         * Validate one record
+         * @throws IllegalArgumentException With the reason the record is rejected
+         */
+        T parse(RecordReader.Row row);
+
+        /**
+         * Insert records in the caller's transaction
+         * @return Run once the transaction commits: publishes the new rows and updates
+         *         the session's indexes
+         */
+        Runnable write(List<T> rows);
+
+        /**
+         * Get the number of customers created on the way, for imports whose rows name
+         * customers that did not exist yet
+         */
+        default long customersCreated() {
+            return 0;
+        }
+    }
+}
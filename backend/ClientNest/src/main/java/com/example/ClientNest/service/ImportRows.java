@@ -0,0 +1,121 @@
+package com.example.ClientNest.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Field parsing and batch inserts shared by the import handlers.
+ */
+final class ImportRows {
+
+    private ImportRows() {
+    }
+
+    static String required(RecordReader.Row row, String key) {
+        String value = row.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value;
+    }
+
+    static int parseInt(String value, String field) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+
+    static double parseDouble(String value, String field) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field) {
+        try {
+            return Enum.valueOf(type, value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + field + ": " + value);
+        }
+    }
+
+    /**
+     * Key for name and email lookups: trimmed and lower case
+     */
+    static String normalize(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Check the same constraints Hibernate would check on save
+     * @throws IllegalArgumentException Listing every violation
+     */
+    static <T> void validate(Validator validator, T entity) {
+        Set<ConstraintViolation<T>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Load the ids of a table's rows by the normalized value of one column
+     * @param sql Selects the id and the value, in that order
+     */
+    static Map<String, Long> index(JdbcTemplate jdbcTemplate, String sql) {
+        Map<String, Long> index = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String value = rs.getString(2);
+            if (value != null) {
+                index.putIfAbsent(normalize(value), rs.getLong(1));
+            }
+        });
+        return index;
+    }
+
+    /**
+     * Batch insert rows and hand each its generated id
+     */
+    static <T> void insert(JdbcTemplate jdbcTemplate, String sql, List<T> items,
+            ParameterizedPreparedStatementSetter<T> binder, BiConsumer<T, Long> idSetter) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (T item : items) {
+                    binder.setValues(ps, item);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (T item : items) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("The driver returned fewer generated ids than rows");
+                        }
+                        idSetter.accept(item, keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
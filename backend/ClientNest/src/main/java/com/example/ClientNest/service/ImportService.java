@@ -0,0 +1,554 @@
+package com.example.ClientNest.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ClientNest.dto.ImportJobDTO;
+import com.example.ClientNest.dto.ImportReportDTO;
+import com.example.ClientNest.model.ImportJob;
+import com.example.ClientNest.model.ImportJobError;
+import com.example.ClientNest.repository.ImportJobErrorRepository;
+import com.example.ClientNest.repository.ImportJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Imports CSV or NDJSON files through the {@link ImportHandler} of each dataset.
+ *
+ * A file is parsed one record at a time and written in chunks, each in its own
+ * transaction with JDBC batch inserts; with rewriteBatchedStatements the driver sends
+ * a chunk as a handful of multi-row INSERTs instead of one round trip per row. A
+ * record that fails validation is reported and skipped; a chunk the database rejects
+ * is retried row by row, so only the offending records are lost.
+ *
+ * Files can be imported while the request waits, or submitted as jobs: the upload is
+ * spooled to local disk, recorded in import_job and processed by a fixed pool of
+ * workers behind a bounded queue, refusing new jobs with an IllegalStateException when
+ * the queue is full. A job's progress, its failed records and the position of its last
+ * committed record are written in the same transaction as each chunk, so after a
+ * crash or restart the job resumes exactly after that record. Jobs left by a node
+ * that stopped renewing them are picked up by the recovery sweep of any node that can
+ * read the spool file; with a fixed node id, a restarted node resumes its own jobs at
+ * once.
+ */
+@Service
+public class ImportService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final List<ImportJob.Status> ACTIVE = List.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobErrorRepository importJobErrorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final Map<ImportJob.Dataset, ImportHandler<?>> handlers = new EnumMap<>(ImportJob.Dataset.class);
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDir;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final long progressLogRows;
+    private final long staleAfterMillis;
+
+    // Jobs this node has queued or is running; their heartbeats are renewed by the recovery sweep
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+
+    public ImportService(
+            List<ImportHandler<?>> handlers,
+            ImportJobRepository importJobRepository,
+            ImportJobErrorRepository importJobErrorRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            JobScheduler jobScheduler,
+            @Value("${clientnest.import.chunk-size:1000}") int chunkSize,
+            @Value("${clientnest.import.max-reported-errors:1000}") int maxReportedErrors,
+            @Value("${clientnest.import.progress-log-rows:10000}") long progressLogRows,
+            @Value("${clientnest.import.workers:2}") int workers,
+            @Value("${clientnest.import.queue-capacity:20}") int queueCapacity,
+            @Value("${clientnest.import.spool-dir:}") String spoolDir,
+            @Value("${clientnest.import.stale-after-ms:120000}") long staleAfterMillis) {
+        for (ImportHandler<?> handler : handlers) {
+            this.handlers.put(handler.dataset(), handler);
+        }
+        this.importJobRepository = importJobRepository;
+        this.importJobErrorRepository = importJobErrorRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = jobScheduler.getNodeId();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxReportedErrors = Math.max(0, maxReportedErrors);
+        this.progressLogRows = Math.max(1, progressLogRows);
+        this.staleAfterMillis = Math.max(1000, staleAfterMillis);
+        this.spoolDir = spoolDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "clientnest-imports")
+                : Path.of(spoolDir.strip());
+
+        int poolSize = Math.max(1, workers);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("import-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("clientnest.import.jobs.queued", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("clientnest.import.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        logger.info("Import jobs use {} workers, queue of {}, spool directory {}", poolSize, queueCapacity, this.spoolDir);
+    }
+
+    /**
+     * Import a stream while the caller waits
+     * @param dataset What the records are
+     * @param in The file contents
+     * @param format CSV with a header row, or NDJSON
+     * @return Counts, timing and the records that were not imported
+     */
+    public ImportReportDTO importNow(ImportJob.Dataset dataset, InputStream in, RecordReader.Format format)
+            throws IOException {
+        Run<?> run = newRun(handler(dataset), null, 0);
+        read(run, in, format, 0);
+        ImportReportDTO report = run.report;
+        report.getErrors().sort(Comparator.comparingLong(ImportReportDTO.RowError::getRow));
+        long elapsed = System.nanoTime() - run.started;
+        report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(elapsed));
+        report.setRowsPerSecond(rate(report.getRowsRead(), elapsed));
+        report.setCustomersCreated(run.session.customersCreated());
+        logger.info("Imported {} of {} {} ({} failed, {} new customers) in {} ms",
+                report.getImported(), report.getRowsRead(), dataset.getPath(), report.getFailed(),
+                report.getCustomersCreated(), report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * Spool a file to disk and import it in the background
+     * @param dataset What the records are
+     * @param format CSV with a header row, or NDJSON
+     * @param fileName The uploaded file's name, for display
+     * @param in The file contents; closed when spooled
+     * @return The queued job
+     * @throws IllegalStateException If the job queue is full
+     */
+    public ImportJobDTO submit(ImportJob.Dataset dataset, RecordReader.Format format, String fileName,
+            InputStream in) throws IOException {
+        handler(dataset);
+        if (stopping || executor.getQueue().remainingCapacity() == 0) {
+            in.close();
+            throw new IllegalStateException("Too many imports in progress");
+        }
+
+        Files.createDirectories(spoolDir);
+        Path file = Files.createTempFile(spoolDir, dataset.getPath() + "-", "." + format.name().toLowerCase(Locale.ROOT));
+        long size;
+        try (in) {
+            size = Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ImportJob job = new ImportJob();
+        job.setDataset(dataset);
+        job.setFormat(format);
+        job.setStatus(ImportJob.Status.QUEUED);
+        job.setFileName(fileName != null && fileName.length() > 255 ? fileName.substring(0, 255) : fileName);
+        job.setFileSize(size);
+        job.setSpoolPath(file.toAbsolutePath().toString());
+        job.setOwner(nodeId);
+        job.setHeartbeatAt(now);
+        job.setCreatedAt(now);
+        job = importJobRepository.save(job);
+        logger.info("Queued import job {} of {} ({} bytes)", job.getId(), dataset.getPath(), size);
+
+        if (held.add(job.getId())) {
+            enqueue(job.getId());
+        }
+        return new ImportJobDTO(job);
+    }
+
+    /**
+     * Get an import job's progress
+     * @param id Job id
+     * @return The job
+     */
+    public ImportJobDTO getJob(Long id) {
+        return importJobRepository.findById(id)
+                .map(ImportJobDTO::new)
+                .orElseThrow(() -> new EntityNotFoundException("Import job not found: " + id));
+    }
+
+    /**
+     * Get the most recent import jobs
+     * @param limit Maximum number of jobs
+     * @return The jobs, newest first
+     */
+    public List<ImportJobDTO> getJobs(int limit) {
+        return importJobRepository.findAllByOrderByCreatedAtDesc(Limit.of(limit)).stream()
+                .map(ImportJobDTO::new)
+                .toList();
+    }
+
+    /**
+     * Get the records an import job could not import
+     * @param id Job id
+     * @param limit Maximum number of records
+     * @return The failures, by record number
+     */
+    public List<ImportReportDTO.RowError> getErrors(Long id, int limit) {
+        if (!importJobRepository.existsById(id)) {
+            throw new EntityNotFoundException("Import job not found: " + id);
+        }
+        return importJobErrorRepository.findByJobIdOrderByRecordNumber(id, Limit.of(limit)).stream()
+                .map(error -> new ImportReportDTO.RowError(error.getRecordNumber(), error.getMessage()))
+                .toList();
+    }
+
+    /**
+     * Renew the jobs this node holds and take over jobs nobody is renewing, resuming
+     * each from its last committed record
+     */
+    @ScheduledJob(name = "import-job-recovery", scope = ScheduledJob.Scope.NODE,
+            fixedDelay = "${clientnest.import.recovery-interval-ms:30000}")
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!held.isEmpty()) {
+            importJobRepository.renew(List.copyOf(held), nodeId, now);
+        }
+        if (stopping) {
+            return;
+        }
+        LocalDateTime staleBefore = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(staleAfterMillis));
+        for (ImportJob job : importJobRepository.findOrphaned(ACTIVE, staleBefore, nodeId)) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                break;
+            }
+            if (held.contains(job.getId()) || !Files.isReadable(Path.of(job.getSpoolPath()))) {
+                continue;
+            }
+            if (importJobRepository.claim(job.getId(), nodeId, now, job.getHeartbeatAt(), ACTIVE) == 1
+                    && held.add(job.getId())) {
+                logger.info("Resuming import job {} after record {}, left by {}",
+                        job.getId(), job.getRowsCommitted(), job.getOwner());
+                enqueue(job.getId());
+            }
+        }
+    }
+
+    /**
+     * Stop taking jobs; running jobs stop after their current chunk and resume later
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void enqueue(long jobId) {
+        try {
+            executor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            // Left for the recovery sweep once its heartbeat goes stale
+            held.remove(jobId);
+            logger.warn("Import queue is full; job {} waits for the recovery sweep", jobId);
+        }
+    }
+
+    private void runJob(long jobId) {
+        try {
+            if (stopping || importJobRepository.start(jobId, nodeId, LocalDateTime.now(), ACTIVE) == 0) {
+                return;
+            }
+            ImportJob job = importJobRepository.findById(jobId).orElseThrow();
+            Path file = Path.of(job.getSpoolPath());
+            if (!Files.isReadable(file)) {
+                importJobRepository.finish(jobId, nodeId, ImportJob.Status.FAILED, LocalDateTime.now(),
+                        "Spool file not found: " + file);
+                return;
+            }
+
+            Run<?> run = newRun(handler(job.getDataset()), jobId, importJobErrorRepository.countByJobId(jobId));
+            if (!read(run, Files.newInputStream(file), job.getFormat(), job.getRowsCommitted())) {
+                logger.info("Import job {} paused for shutdown", jobId);
+                return;
+            }
+            importJobRepository.finish(jobId, nodeId, ImportJob.Status.SUCCEEDED, LocalDateTime.now(), null);
+            Files.deleteIfExists(file);
+            logger.info("Import job {} finished: {} more records, {} imported, {} failed, {} rows/s",
+                    jobId, run.report.getRowsRead(), run.report.getImported(), run.report.getFailed(),
+                    rate(run.report.getRowsRead(), System.nanoTime() - run.started));
+        } catch (ClaimLostException e) {
+            logger.warn("Import job {} was taken over by another node", jobId);
+        } catch (TransientDataAccessException | DataAccessResourceFailureException
+                | CannotCreateTransactionException e) {
+            // Resumed by the next recovery sweep
+            logger.warn("Import job {} interrupted: {}", jobId, describe(e));
+        } catch (Exception e) {
+            logger.error("Import job {} failed", jobId, e);
+            try {
+                importJobRepository.finish(jobId, nodeId, ImportJob.Status.FAILED, LocalDateTime.now(), describe(e));
+                importJobRepository.findById(jobId).ifPresent(job -> deleteSpool(job.getSpoolPath()));
+            } catch (RuntimeException recordFailure) {
+                logger.warn("Could not record the failure of import job {}", jobId, recordFailure);
+            }
+        } finally {
+            held.remove(jobId);
+        }
+    }
+
+    /**
+     * Read records into chunks, skipping those an earlier run already committed
+     * @return false if the import stopped early because the application is shutting down
+     */
+    private boolean read(Run<?> run, InputStream in, RecordReader.Format format, long skip) throws IOException {
+        try (RecordReader reader = RecordReader.open(in, format, objectMapper)) {
+            List<RecordReader.Row> chunk = new ArrayList<>(chunkSize);
+            RecordReader.Row row;
+            while ((row = reader.next()) != null) {
+                if (row.number() <= skip) {
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    run.importChunk(chunk);
+                    chunk.clear();
+                    if (stopping && run.jobId != null) {
+                        return false;
+                    }
+                    run.logProgress();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                run.importChunk(chunk);
+            }
+        }
+        return true;
+    }
+
+    private <T> Run<T> newRun(ImportHandler<T> handler, Long jobId, long errorsStored) {
+        return new Run<>(handler.dataset(), handler.begin(), jobId, errorsStored);
+    }
+
+    private ImportHandler<?> handler(ImportJob.Dataset dataset) {
+        ImportHandler<?> handler = handlers.get(dataset);
+        if (handler == null) {
+            throw new IllegalArgumentException("Import not supported: " + dataset.getPath());
+        }
+        return handler;
+    }
+
+    private void deleteSpool(String path) {
+        try {
+            Files.deleteIfExists(Path.of(path));
+        } catch (IOException e) {
+            logger.warn("Could not delete spool file {}", path, e);
+        }
+    }
+
+    private static long rate(long rows, long nanos) {
+        return nanos > 0 ? rows * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+
+    private static String describe(Exception e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) {
+            message = e.getClass().getSimpleName();
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    /**
+     * A record that passed validation
+     */
+    private record Parsed<T>(long row, T value) {
+    }
+
+    private static final class ClaimLostException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private ClaimLostException(long jobId) {
+            super("Import job " + jobId + " is no longer owned by this node");
+        }
+    }
+
+    /**
+     * One pass over a file: the handler's session, the counts of this pass and the
+     * failures not yet committed
+     */
+    private final class Run<T> {
+        private final ImportJob.Dataset dataset;
+        private final ImportHandler.Session<T> session;
+        // Null when the caller waits for the import
+        private final Long jobId;
+        private final ImportReportDTO report = new ImportReportDTO();
+        private final List<ImportReportDTO.RowError> pendingErrors = new ArrayList<>();
+        private final long started = System.nanoTime();
+        private long errorsStored;
+        private long firstRow = -1;
+        private long nextProgressLog = progressLogRows;
+
+        private final Counter importedCounter;
+        private final Counter failedCounter;
+        private final Timer chunkTimer;
+
+        private Run(ImportJob.Dataset dataset, ImportHandler.Session<T> session, Long jobId, long errorsStored) {
+            this.dataset = dataset;
+            this.session = session;
+            this.jobId = jobId;
+            this.errorsStored = errorsStored;
+            this.importedCounter = meterRegistry.counter("clientnest.import.rows", "entity", dataset.getPath(), "result", "imported");
+            this.failedCounter = meterRegistry.counter("clientnest.import.rows", "entity", dataset.getPath(), "result", "failed");
+            this.chunkTimer = meterRegistry.timer("clientnest.import.chunk", "entity", dataset.getPath());
+        }
+
+        private void importChunk(List<RecordReader.Row> rows) {
+            if (firstRow < 0) {
+                firstRow = rows.get(0).number();
+            }
+            List<Parsed<T>> valid = new ArrayList<>(rows.size());
+            for (RecordReader.Row row : rows) {
+                if (row.error() != null) {
+                    pendingErrors.add(new ImportReportDTO.RowError(row.number(), row.error()));
+                    continue;
+                }
+                try {
+                    valid.add(new Parsed<>(row.number(), session.parse(row)));
+                } catch (IllegalArgumentException e) {
+                    pendingErrors.add(new ImportReportDTO.RowError(row.number(), e.getMessage()));
+                }
+            }
+            long lastRow = rows.get(rows.size() - 1).number();
+
+            chunkTimer.record(() -> {
+                try {
+                    commit(valid, lastRow);
+                } catch (ClaimLostException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    if (valid.isEmpty()) {
+                        throw e;
+                    }
+                    if (valid.size() == 1) {
+                        pendingErrors.add(new ImportReportDTO.RowError(valid.get(0).row(), describe(e)));
+                    } else {
+                        logger.warn("Import chunk of {} failed, retrying its {} rows one at a time: {}",
+                                dataset.getPath(), valid.size(), describe(e));
+                        for (Parsed<T> parsed : valid) {
+                            try {
+                                commit(List.of(parsed), parsed.row());
+                            } catch (ClaimLostException lost) {
+                                throw lost;
+                            } catch (RuntimeException rowFailure) {
+                                pendingErrors.add(new ImportReportDTO.RowError(parsed.row(), describe(rowFailure)));
+                            }
+                        }
+                    }
+                    commit(List.of(), lastRow);
+                }
+            });
+        }
+
+        /**
+         * Insert records and, for a job, move it past uptoRow and store the failures up
+         * to that record, all in one transaction
+         */
+        private void commit(List<Parsed<T>> items, long uptoRow) {
+            List<ImportReportDTO.RowError> failures = pendingErrors.stream()
+                    .filter(error -> error.getRow() <= uptoRow)
+                    .toList();
+            int stored = jobId == null ? 0 : (int) Math.min(failures.size(), Math.max(0, maxReportedErrors - errorsStored));
+
+            Runnable afterCommit = transactionTemplate.execute(status -> {
+                Runnable after = items.isEmpty() ? null : session.write(items.stream().map(Parsed::value).toList());
+                if (jobId != null) {
+                    if (importJobRepository.advance(jobId, nodeId, uptoRow, items.size(), failures.size(),
+                            LocalDateTime.now()) == 0) {
+                        throw new ClaimLostException(jobId);
+                    }
+                    if (stored > 0) {
+                        importJobErrorRepository.saveAll(failures.subList(0, stored).stream()
+                                .map(error -> new ImportJobError(jobId, error.getRow(), error.getMessage()))
+                                .toList());
+                    }
+                }
+                return after;
+            });
+
+            pendingErrors.removeIf(error -> error.getRow() <= uptoRow);
+            errorsStored += stored;
+            report.setRowsRead(uptoRow - firstRow + 1);
+            report.setImported(report.getImported() + items.size());
+            report.setFailed(report.getFailed() + failures.size());
+            importedCounter.increment(items.size());
+            failedCounter.increment(failures.size());
+            if (jobId == null) {
+                for (ImportReportDTO.RowError failure : failures) {
+                    if (report.getErrors().size() < maxReportedErrors) {
+                        report.getErrors().add(failure);
+                    } else {
+                        report.setErrorsTruncated(true);
+                    }
+                }
+            }
+            if (afterCommit != null) {
+                try {
+                    afterCommit.run();
+                } catch (RuntimeException e) {
+                    // The rows are committed; retrying them would insert them twice
+                    logger.warn("Could not publish an imported chunk of {}", dataset.getPath(), e);
+                }
+            }
+        }
+
+        private void logProgress() {
+            if (report.getRowsRead() >= nextProgressLog) {
+                nextProgressLog += progressLogRows;
+                logger.info("Import of {}{}: {} rows read, {} imported, {} failed, {} rows/s",
+                        dataset.getPath(), jobId != null ? " (job " + jobId + ")" : "",
+                        report.getRowsRead(), report.getImported(), report.getFailed(),
+                        rate(report.getRowsRead(), System.nanoTime() - started));
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.ClientNest.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers count/amount increments per key and hands them to a sink in batches on a
+ * single background thread.
+ *
+ * Increments for the same key are merged while they wait, so a burst of changes to
+ * one bucket becomes one write. Because writes happen off the caller's thread they
+ * never run on a connection that belongs to the caller's (already committed)
+ * transaction. Other work submitted with {@link #execute(Runnable)} runs on the same
+ * thread after everything queued before it has been written. An optional afterWrite
+ * callback runs on the writer thread after each batch or task, e.g. to drop reads
+ * cached from the rows before they were written.
+ */
+public class IncrementWriter<K> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementWriter.class);
+
+    private final String name;
+    private final Consumer<List<Increment<K>>> sink;
+    private final ExecutorService executor;
+    private final Runnable afterWrite;
+
+    // Guarded by this
+    private final Map<K, Increment<K>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    public IncrementWriter(String name, Consumer<List<Increment<K>>> sink) {
+        this(name, sink, () -> {
+        });
+    }
+
+    public IncrementWriter(String name, Consumer<List<Increment<K>>> sink, Runnable afterWrite) {
+        this.name = name;
+        this.sink = sink;
+        this.afterWrite = afterWrite;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue increments for writing
+     * @param increments Increments from a single change
+     */
+    public void add(List<Increment<K>> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        boolean schedule;
+        synchronized (this) {
+            for (Increment<K> increment : increments) {
+                pending.merge(increment.key(), increment, Increment::plus);
+            }
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+        if (schedule) {
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Run a task on the writer thread once the increments queued so far are written
+     * @param task The task, e.g. a rebuild that overwrites the aggregated rows
+     */
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            flush();
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Error running task on {}", name, e);
+            }
+            afterWrite();
+        });
+    }
+
+    /**
+     * Build the aggregated rows on the writer thread if there are none yet, as on a
+     * fresh database; increments queued before it are overwritten by the build
+     * @param description What the rows are, for the log
+     * @param empty Whether the aggregate table has no rows
+     * @param build Builds every row from the base tables
+     */
+    public void seedIfEmpty(String description, BooleanSupplier empty, Runnable build) {
+        execute(() -> {
+            if (empty.getAsBoolean()) {
+                logger.info("{} are empty, building them from the base tables", description);
+                build.run();
+            }
+        });
+    }
+
+    /**
+     * Run a task on the writer thread and wait for it to finish
+     * @param task The task
+     */
+    public void executeAndWait(Runnable task) {
+        try {
+            executor.submit(() -> {
+                flush();
+                try {
+                    task.run();
+                } finally {
+                    afterWrite();
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + name, e);
+        } catch (Exception e) {
+            throw new RuntimeException("Error running task on " + name, e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void flush() {
+        List<Increment<K>> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+            flushScheduled = false;
+        }
+        batch.removeIf(Increment::isEmpty);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            sink.accept(batch);
+        } catch (Exception e) {
+            // Owners reconcile from the base tables on a schedule
+            logger.error("Error writing {} increments on {}", batch.size(), name, e);
+        }
+        afterWrite();
+    }
+
+    private void afterWrite() {
+        try {
+            afterWrite.run();
+        } catch (Exception e) {
+            logger.error("Error after writing on {}", name, e);
+        }
+    }
+
+    /**
+     * A change to the count and amount stored under one key
+     */
+    public record Increment<K>(K key, long count, BigDecimal amount) {
+
+        private Increment<K> plus(Increment<K> other) {
+            return new Increment<>(key, count + other.count, amount.add(other.amount));
+        }
+
+        private boolean isEmpty() {
+            return count == 0 && amount.signum() == 0;
+        }
+    }
+}
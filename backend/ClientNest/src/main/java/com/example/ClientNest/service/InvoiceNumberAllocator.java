@@ -0,0 +1,118 @@
+package com.example.ClientNest.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out invoice numbers of the form INV-yyyyMMdd-NNNN from a per-day sequence.
+ *
+ * Each node reserves a block of numbers at a time by advancing the day's row in
+ * invoice_sequence with a single atomic statement in its own transaction, then
+ * hands the block out from memory with an atomic increment. Nodes never share a
+ * block, so numbers are unique across instances without probing the invoice table.
+ * Numbers left in a block when a node stops are skipped, so a day's numbers can
+ * have gaps. Past 9999 invoices in a day the suffix simply grows a digit.
+ */
+@Component
+public class InvoiceNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final TransactionTemplate reserveTransaction;
+    private final int blockSize;
+
+    private volatile Block block;
+
+    public InvoiceNumberAllocator(
+            JdbcTemplate jdbcTemplate,
+            SchemaCatalog schemaCatalog,
+            PlatformTransactionManager transactionManager,
+            @Value("${clientnest.invoice-number.block-size:20}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        // Reservations commit on their own, whatever the caller's transaction does
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * Get the next invoice number for today
+     * @return A number no other call on any node has returned
+     */
+    public String next() {
+        LocalDate today = LocalDate.now();
+        while (true) {
+            Block current = block;
+            if (current != null && current.day().equals(today)) {
+                long value = current.next().getAndIncrement();
+                if (value < current.limit()) {
+                    return format(today, value);
+                }
+            }
+            refill(current, today);
+        }
+    }
+
+    private synchronized void refill(Block seen, LocalDate day) {
+        if (block != seen) {
+            // Another thread already replaced it
+            return;
+        }
+        long limit = reserve(day);
+        block = new Block(day, new AtomicLong(limit - blockSize), limit);
+        logger.debug("Reserved invoice numbers {} to {} for {}", limit - blockSize, limit - 1, day);
+    }
+
+    /**
+     * Advance the day's counter by one block
+     * @return The end (exclusive) of the reserved block
+     */
+    private long reserve(LocalDate day) {
+        Long limit = reserveTransaction.execute(status -> {
+            // LAST_INSERT_ID(expr) hands the new value back on this connection
+            int updated = jdbcTemplate.update(
+                    "UPDATE invoice_sequence SET next_value = LAST_INSERT_ID(next_value + ?) WHERE sequence_day = ?",
+                    blockSize, day);
+            if (updated == 0) {
+                // First block of the day: start after any number already issued for it, so
+                // numbers created before the sequence existed cannot collide
+                String prefix = "INV-" + day.format(DAY_FORMAT) + "-";
+                jdbcTemplate.update("""
+                        INSERT INTO invoice_sequence (sequence_day, next_value)
+                        SELECT ?, LAST_INSERT_ID(COALESCE(MAX(CAST(SUBSTRING(invoice_number, ?) AS UNSIGNED)), 0) + 1 + ?)
+                        FROM %s
+                        WHERE invoice_number LIKE ?
+                        ON DUPLICATE KEY UPDATE next_value = LAST_INSERT_ID(invoice_sequence.next_value + ?)
+                        """.formatted(schemaCatalog.current().invoiceTable()),
+                        day, prefix.length() + 1, blockSize, prefix + "%", blockSize);
+            }
+            return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        });
+        if (limit == null) {
+            throw new IllegalStateException("Could not reserve invoice numbers for " + day);
+        }
+        return limit;
+    }
+
+    private String format(LocalDate day, long value) {
+        return String.format("INV-%s-%04d", day.format(DAY_FORMAT), value);
+    }
+
+    private record Block(LocalDate day, AtomicLong next, long limit) {
+    }
+}
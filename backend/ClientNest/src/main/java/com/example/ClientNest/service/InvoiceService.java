@@ -1,11 +1,27 @@
 package com.example.ClientNest.service;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.InvoiceDTO;
+import com.example.ClientNest.dto.PageQuery;
 
 public interface InvoiceService {
     List<InvoiceDTO> getAllInvoices();
+
+    /**
+     * Get one page of invoices
+     * @param page Cursor, size and sort
+     * @param status Status to match, e.g. PAID, any when null
+     * @param customerId Customer to match, any when null
+     * @param employeeId Employee to match, any when null
+     * @param from First invoice date to include, open when null
+     * @param to Last invoice date to include, open when null
+     * @return The page and the cursor for the next one
+     */
+    CursorPageDTO<InvoiceDTO> getInvoicePage(PageQuery page, String status, Long customerId, Long employeeId,
+            LocalDate from, LocalDate to);
     List<InvoiceDTO> getInvoicesByCustomerId(Long customerId);
     InvoiceDTO getInvoiceById(Long id);
     
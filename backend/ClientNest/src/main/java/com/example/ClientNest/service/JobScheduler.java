@@ -0,0 +1,464 @@
+package com.example.ClientNest.service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.example.ClientNest.dto.JobDTO;
+import com.example.ClientNest.dto.JobRunDTO;
+import com.example.ClientNest.model.JobLease;
+import com.example.ClientNest.model.JobRun;
+import com.example.ClientNest.repository.JobLeaseRepository;
+import com.example.ClientNest.repository.JobRunRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Runs the methods annotated with {@link ScheduledJob} on cron or fixed-rate and
+ * fixed-delay schedules.
+ *
+ * Before a CLUSTER job runs, the node takes the job's row in job_lease with one
+ * conditional UPDATE (or an INSERT the first time), which succeeds only when the
+ * lease has lapsed, so however many instances fire the same trigger exactly one of
+ * them runs it. The lease lasts lockAtMost, so a node that dies mid-run blocks the
+ * job for at most that long; after the run it is shortened to lockAtLeast past the
+ * start, which keeps nodes whose triggers fire a little later from repeating the same
+ * occurrence. Lease times come from each node's clock, so clocks should be kept in
+ * sync to well within lockAtLeast. Each cluster run is recorded in job_run. NODE jobs
+ * run on every instance without a lease and are only remembered in memory.
+ *
+ * Every run is timed under clientnest.jobs.duration, tagged by job and result, and
+ * runs skipped because another node holds the lease or the previous run is still
+ * going are counted under clientnest.jobs.skipped.
+ */
+@Component
+public class JobScheduler implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private final ApplicationContext applicationContext;
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeaseRepository jobLeaseRepository;
+    private final JobRunRepository jobRunRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String nodeId;
+    private final long defaultLockAtMostMillis;
+    private final long defaultLockAtLeastMillis;
+    private final int historyRetentionDays;
+
+    private final Map<String, Job> jobs = new TreeMap<>();
+    private final List<ScheduledFuture<?>> scheduled = new ArrayList<>();
+    private boolean started;
+
+    public JobScheduler(
+            ApplicationContext applicationContext,
+            ThreadPoolTaskScheduler jobTaskScheduler,
+            JdbcTemplate jdbcTemplate,
+            JobLeaseRepository jobLeaseRepository,
+            JobRunRepository jobRunRepository,
+            MeterRegistry meterRegistry,
+            @Value("${clientnest.jobs.enabled:true}") boolean enabled,
+            @Value("${clientnest.jobs.node-id:}") String nodeId,
+            @Value("${clientnest.jobs.default-lock-at-most-ms:600000}") long defaultLockAtMostMillis,
+            @Value("${clientnest.jobs.default-lock-at-least-ms:30000}") long defaultLockAtLeastMillis,
+            @Value("${clientnest.jobs.history-retention-days:30}") int historyRetentionDays) {
+        this.applicationContext = applicationContext;
+        this.taskScheduler = jobTaskScheduler;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.jobRunRepository = jobRunRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId.strip();
+        this.defaultLockAtMostMillis = defaultLockAtMostMillis;
+        this.defaultLockAtLeastMillis = defaultLockAtLeastMillis;
+        this.historyRetentionDays = Math.max(1, historyRetentionDays);
+    }
+
+    /**
+     * Get this instance's id, as recorded in leases and run history
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Find the annotated methods of all beans and schedule them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> type = applicationContext.getType(beanName, false);
+            if (type == null || !AnnotationUtils.isCandidateClass(type, ScheduledJob.class)) {
+                continue;
+            }
+            Map<Method, ScheduledJob> annotated = MethodIntrospector.selectMethods(ClassUtils.getUserClass(type),
+                    (MethodIntrospector.MetadataLookup<ScheduledJob>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, ScheduledJob.class));
+            if (annotated.isEmpty()) {
+                continue;
+            }
+            Object bean = applicationContext.getBean(beanName);
+            annotated.forEach((method, annotation) -> register(bean, method, annotation));
+        }
+
+        if (!enabled) {
+            logger.info("Job scheduler is disabled; {} jobs can only be run by hand", jobs.size());
+            return;
+        }
+        for (Job job : jobs.values()) {
+            scheduled.add(taskScheduler.schedule(() -> run(job), job.trigger));
+        }
+        logger.info("Scheduled {} jobs on node {}", jobs.size(), nodeId);
+    }
+
+    /**
+     * Get all jobs with their lease and last run
+     * @return The jobs, by name
+     */
+    public List<JobDTO> getJobs() {
+        Map<String, JobLease> leases = jobLeaseRepository.findAll().stream()
+                .collect(Collectors.toMap(JobLease::getJobName, Function.identity()));
+        List<JobDTO> result = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            JobLease lease = leases.get(job.name);
+            JobRunDTO lastRun = job.scope == ScheduledJob.Scope.CLUSTER
+                    ? jobRunRepository.findByJobNameOrderByStartedAtDesc(job.name, Limit.of(1)).stream()
+                            .findFirst().map(JobRunDTO::new).orElse(null)
+                    : job.lastRun;
+            result.add(JobDTO.builder()
+                    .name(job.name)
+                    .scope(job.scope)
+                    .schedule(job.schedule)
+                    .running(job.running.get())
+                    .leaseOwner(lease != null ? lease.getOwner() : null)
+                    .leaseUntil(lease != null ? lease.getLeaseUntil() : null)
+                    .lastRun(lastRun)
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Get the recorded runs of a cluster job
+     * @param name The job name
+     * @param limit Maximum number of runs
+     * @return The runs, newest first; node jobs only have their last run on this node
+     * @throws EntityNotFoundException If there is no such job
+     */
+    public List<JobRunDTO> getRuns(String name, int limit) {
+        Job job = find(name);
+        if (job.scope == ScheduledJob.Scope.NODE) {
+            return job.lastRun != null ? List.of(job.lastRun) : List.of();
+        }
+        return jobRunRepository.findByJobNameOrderByStartedAtDesc(name, Limit.of(limit)).stream()
+                .map(JobRunDTO::new)
+                .toList();
+    }
+
+    /**
+     * Run a job now, in the background. A cluster job still needs its lease, so the
+     * run is skipped if another node is running it.
+     * @param name The job name
+     * @throws EntityNotFoundException If there is no such job
+     */
+    public void trigger(String name) {
+        Job job = find(name);
+        taskScheduler.execute(() -> run(job));
+    }
+
+    /**
+     * Delete run history past the retention period
+     */
+    @ScheduledJob(name = "job-run-purge", cron = "${clientnest.jobs.history-purge-cron:0 15 3 * * *}")
+    public void purgeRunHistory() {
+        int deleted = jobRunRepository.deleteStartedBefore(LocalDateTime.now().minusDays(historyRetentionDays));
+        if (deleted > 0) {
+            logger.info("Purged {} job run records", deleted);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        scheduled.forEach(future -> future.cancel(false));
+        scheduled.clear();
+    }
+
+    private Job find(String name) {
+        Job job = jobs.get(name);
+        if (job == null) {
+            throw new EntityNotFoundException("No job named " + name);
+        }
+        return job;
+    }
+
+    private void register(Object bean, Method method, ScheduledJob annotation) {
+        String name = annotation.name().strip();
+        String where = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalStateException("Job on " + where + " needs a name of at most " + MAX_NAME_LENGTH + " characters");
+        }
+        if (method.getParameterCount() != 0) {
+            throw new IllegalStateException("Job " + name + " on " + where + " must not take arguments");
+        }
+        if (jobs.containsKey(name)) {
+            throw new IllegalStateException("Job name " + name + " is used twice");
+        }
+
+        String cron = resolve(annotation.cron());
+        Long fixedRate = millis(annotation.fixedRate());
+        Long fixedDelay = millis(annotation.fixedDelay());
+        int kinds = (cron.isEmpty() ? 0 : 1) + (fixedRate == null ? 0 : 1) + (fixedDelay == null ? 0 : 1);
+        if (kinds != 1) {
+            throw new IllegalStateException("Job " + name + " needs exactly one of cron, fixedRate and fixedDelay");
+        }
+        Long initialDelay = millis(annotation.initialDelay());
+
+        Trigger trigger;
+        String schedule;
+        long period;
+        if (!cron.isEmpty()) {
+            trigger = new CronTrigger(cron);
+            schedule = "cron " + cron;
+            period = 0L;
+        } else {
+            period = fixedRate != null ? fixedRate : fixedDelay;
+            PeriodicTrigger periodic = new PeriodicTrigger(Duration.ofMillis(period));
+            periodic.setFixedRate(fixedRate != null);
+            if (initialDelay != null) {
+                periodic.setInitialDelay(Duration.ofMillis(initialDelay));
+            }
+            trigger = periodic;
+            schedule = (fixedRate != null ? "fixedRate " : "fixedDelay ") + period + "ms";
+        }
+
+        Long lockAtMost = millis(annotation.lockAtMost());
+        long atMost = lockAtMost != null ? lockAtMost : defaultLockAtMostMillis;
+        Long lockAtLeast = millis(annotation.lockAtLeast());
+        // Just under the period, so the next occurrence on any node finds the lease free
+        long atLeast = lockAtLeast != null ? lockAtLeast : period > 0 ? period * 9 / 10 : defaultLockAtLeastMillis;
+
+        Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+        ReflectionUtils.makeAccessible(invocable);
+        jobs.put(name, new Job(name, annotation.scope(), schedule, trigger, bean, invocable,
+                atMost, Math.min(atLeast, atMost), meterRegistry));
+        logger.debug("Registered {} job {} on {} ({})", annotation.scope(), name, where, schedule);
+    }
+
+    private void run(Job job) {
+        if (!job.running.compareAndSet(false, true)) {
+            job.skippedBusy.increment();
+            logger.debug("Skipping job {}: still running on this node", job.name);
+            return;
+        }
+        try {
+            if (job.scope == ScheduledJob.Scope.CLUSTER) {
+                runLeased(job);
+            } else {
+                execute(job);
+            }
+        } catch (RuntimeException e) {
+            // Keep the trigger alive whatever the lease table or history did
+            logger.error("Job {} could not be run", job.name, e);
+        } finally {
+            job.running.set(false);
+        }
+    }
+
+    private void runLeased(Job job) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!acquire(job.name, now, now.plus(Duration.ofMillis(job.lockAtMostMillis)))) {
+            job.skippedLeased.increment();
+            logger.debug("Skipping job {}: leased by another node", job.name);
+            return;
+        }
+        JobRun run = null;
+        try {
+            run = execute(job);
+        } finally {
+            LocalDateTime keepUntil = now.plus(Duration.ofMillis(job.lockAtLeastMillis));
+            LocalDateTime finished = run != null ? run.getFinishedAt() : LocalDateTime.now();
+            release(job.name, finished.isAfter(keepUntil) ? finished : keepUntil);
+        }
+        jobRunRepository.save(run);
+        if (run.getDurationMs() > job.lockAtMostMillis) {
+            logger.warn("Job {} ran for {} ms, longer than its {} ms lease; another node may have started it meanwhile",
+                    job.name, run.getDurationMs(), job.lockAtMostMillis);
+        }
+    }
+
+    /**
+     * Invoke the job method and time it
+     * @return The finished run, not yet saved
+     */
+    private JobRun execute(Job job) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long began = System.nanoTime();
+        Throwable failure = null;
+        try {
+            job.method.invoke(job.bean);
+        } catch (InvocationTargetException e) {
+            failure = e.getTargetException();
+        } catch (IllegalAccessException e) {
+            failure = e;
+        }
+        long nanos = System.nanoTime() - began;
+
+        JobRun run = new JobRun();
+        run.setJobName(job.name);
+        run.setNode(nodeId);
+        run.setStartedAt(startedAt);
+        run.setFinishedAt(LocalDateTime.now());
+        run.setDurationMs(Duration.ofNanos(nanos).toMillis());
+        if (failure == null) {
+            run.setStatus(JobRun.Status.SUCCEEDED);
+            job.succeeded.record(Duration.ofNanos(nanos));
+        } else {
+            run.setStatus(JobRun.Status.FAILED);
+            run.setError(describe(failure));
+            job.failed.record(Duration.ofNanos(nanos));
+            logger.error("Job {} failed after {} ms", job.name, run.getDurationMs(), failure);
+        }
+        job.lastRun = new JobRunDTO(run);
+        return run;
+    }
+
+    /**
+     * Take the lease if it has lapsed or this node holds it already
+     * @return Whether this node now holds the lease
+     */
+    private boolean acquire(String name, LocalDateTime now, LocalDateTime until) {
+        int updated = jdbcTemplate.update(
+                "UPDATE job_lease SET owner = ?, lease_until = ?, acquired_at = ? " +
+                "WHERE job_name = ? AND (lease_until <= ? OR owner = ?)",
+                nodeId, until, now, name, now, nodeId);
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO job_lease (job_name, owner, lease_until, acquired_at) VALUES (?, ?, ?, ?)",
+                    name, nodeId, until, now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The row exists and another node holds it
+            return false;
+        }
+    }
+
+    private void release(String name, LocalDateTime until) {
+        jdbcTemplate.update("UPDATE job_lease SET lease_until = ? WHERE job_name = ? AND owner = ?", until, name, nodeId);
+    }
+
+    private String resolve(String value) {
+        return value.isEmpty() ? value : applicationContext.getEnvironment().resolveRequiredPlaceholders(value).strip();
+    }
+
+    private Long millis(String value) {
+        String resolved = resolve(value);
+        if (resolved.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(resolved);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Not a number of milliseconds: " + value, e);
+        }
+    }
+
+    private static String describe(Throwable failure) {
+        String error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        String id = host + ":" + ProcessHandle.current().pid();
+        return id.length() > 200 ? id.substring(id.length() - 200) : id;
+    }
+
+    private static final class Job {
+        private final String name;
+        private final ScheduledJob.Scope scope;
+        private final String schedule;
+        private final Trigger trigger;
+        private final Object bean;
+        private final Method method;
+        private final long lockAtMostMillis;
+        private final long lockAtLeastMillis;
+
+        private final Timer succeeded;
+        private final Timer failed;
+        private final Counter skippedLeased;
+        private final Counter skippedBusy;
+
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile JobRunDTO lastRun;
+
+        private Job(String name, ScheduledJob.Scope scope, String schedule, Trigger trigger, Object bean, Method method,
+                long lockAtMostMillis, long lockAtLeastMillis, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.scope = scope;
+            this.schedule = schedule;
+            this.trigger = trigger;
+            this.bean = bean;
+            this.method = method;
+            this.lockAtMostMillis = lockAtMostMillis;
+            this.lockAtLeastMillis = lockAtLeastMillis;
+            this.succeeded = meterRegistry.timer("clientnest.jobs.duration", "job", name, "result", "success");
+            this.failed = meterRegistry.timer("clientnest.jobs.duration", "job", name, "result", "failure");
+            this.skippedLeased = meterRegistry.counter("clientnest.jobs.skipped", "job", name, "reason", "leased");
+            this.skippedBusy = meterRegistry.counter("clientnest.jobs.skipped", "job", name, "reason", "busy");
+        }
+    }
+}
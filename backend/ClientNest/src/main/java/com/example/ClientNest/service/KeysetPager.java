@@ -0,0 +1,173 @@
+package com.example.ClientNest.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Keyset (seek) pagination for the list endpoints.
+ *
+ * Pages are ordered by the requested property with the id as a tie-breaker, and the
+ * cursor carries the sort values of the last row returned. The next page is read with
+ * a "greater than the last row" predicate instead of an OFFSET, so page 1000 costs the
+ * same as page 1 and rows inserted or deleted between requests never shift a page.
+ */
+@Component
+public class KeysetPager {
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int defaultSize;
+    private final int maxSize;
+
+    public KeysetPager(
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            @Value("${clientnest.paging.default-size:50}") int defaultSize,
+            @Value("${clientnest.paging.max-size:200}") int maxSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.maxSize = Math.max(1, maxSize);
+        this.defaultSize = Math.min(Math.max(1, defaultSize), this.maxSize);
+    }
+
+    /**
+     * Read one page of entities
+     * @param repository The repository to read from
+     * @param entityType The entity class, used to restore cursor values to their types
+     * @param filter Filters, combined with the keyset predicate
+     * @param page Cursor, size and sort from the request
+     * @param sortable Properties the caller may sort by, all non-null columns
+     * @param defaultSort Sort used when the request has none
+     * @param mapper Converts each entity to its DTO
+     * @param fetch To-one associations the mapper reads, fetched with the page
+     * @return The page and the cursor for the next one
+     * @throws IllegalArgumentException If the sort or cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public <E, D> CursorPageDTO<D> page(JpaSpecificationExecutor<E> repository, Class<E> entityType,
+            Specification<E> filter, PageQuery page, Set<String> sortable, String defaultSort,
+            Function<E, D> mapper, String... fetch) {
+        String sortParam = page.getSort() == null || page.getSort().isBlank() ? defaultSort : page.getSort();
+        Sort sort = parseSort(sortParam, sortable);
+        String sortKey = describe(sort);
+        ScrollPosition position = decode(page.getCursor(), sortKey, sort, entityType);
+        int size = page.getSize() == null ? defaultSize : Math.min(Math.max(1, page.getSize()), maxSize);
+
+        Function<FetchableFluentQuery<E>, Window<E>> query = fluent -> {
+            FetchableFluentQuery<E> sorted = fluent.sortBy(sort).limit(size);
+            if (fetch.length > 0) {
+                sorted = sorted.project(fetch);
+            }
+            return sorted.scroll(position);
+        };
+        Window<E> window = repository.findBy(filter, query);
+
+        List<D> items = new ArrayList<>(window.size());
+        window.forEach(entity -> items.add(mapper.apply(entity)));
+        String next = window.hasNext() && !window.isEmpty()
+                ? encode(sortKey, (KeysetScrollPosition) window.positionAt(window.size() - 1))
+                : null;
+        return CursorPageDTO.<D>builder()
+                .items(items)
+                .next(next)
+                .hasNext(next != null)
+                .size(size)
+                .sort(sortKey)
+                .build();
+    }
+
+    private Sort parseSort(String sortParam, Set<String> sortable) {
+        String[] parts = sortParam.split(",");
+        String property = parts[0].trim();
+        if (!sortable.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort by '" + property + "', expected one of " + sortable);
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length > 1) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid sort direction: " + parts[1]));
+        }
+        Sort sort = Sort.by(direction, property);
+        // The id makes the order total, which keyset paging needs
+        return ID.equals(property) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    private String describe(Sort sort) {
+        Sort.Order first = sort.iterator().next();
+        return first.getProperty() + "," + first.getDirection().name().toLowerCase(Locale.ROOT);
+    }
+
+    private String encode(String sortKey, KeysetScrollPosition position) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Cursor(sortKey, position.getKeys()));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error encoding page cursor", e);
+        }
+    }
+
+    private ScrollPosition decode(String token, String sortKey, Sort sort, Class<?> entityType) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Cursor cursor;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token.trim());
+            cursor = objectMapper.readValue(new String(json, StandardCharsets.UTF_8), Cursor.class);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        if (!sortKey.equals(cursor.sort()) || cursor.keys() == null) {
+            throw new IllegalArgumentException("Page cursor was issued for sort '" + cursor.sort()
+                    + "', not '" + sortKey + "'");
+        }
+
+        // JSON loses the value types, so restore them from the entity's attributes
+        var entity = entityManager.getMetamodel().entity(entityType);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            Object value = cursor.keys().get(order.getProperty());
+            if (value == null) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            Class<?> type = entity.getAttribute(order.getProperty()).getJavaType();
+            try {
+                keys.put(order.getProperty(), objectMapper.convertValue(value, type));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private record Cursor(String sort, Map<String, Object> keys) {
+    }
+}
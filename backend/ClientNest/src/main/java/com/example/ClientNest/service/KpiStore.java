@@ -0,0 +1,325 @@
+package com.example.ClientNest.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeObserver;
+import com.example.ClientNest.misc.ActivityStatus;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Invoice;
+import com.example.ClientNest.model.Lead;
+import com.example.ClientNest.model.Opportunity;
+
+/**
+ * In-memory copy of the dashboard headline numbers (active leads, opportunities,
+ * customers, paid sales).
+ *
+ * The totals are read from the database once at startup and then moved by the
+ * committed entity changes, so reading them never touches the database. Anything
+ * the entity listeners cannot see (bulk JPQL updates, manual SQL, and writes made
+ * on other nodes, since each node only hears its own commits) is corrected by the
+ * periodic reconciliation through a {@link DriftReconciler}, so nodes agree to
+ * within reconcile-interval-ms.
+ */
+@Component
+public class KpiStore implements EntityChangeObserver {
+
+    private static final Logger logger = LoggerFactory.getLogger(KpiStore.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+
+    // Guarded by this
+    private final Totals totals = new Totals();
+    // Locks this around the totals it reads and corrects
+    private final DriftReconciler<Totals, Totals> reconciler = new DriftReconciler<>("KPI totals", this, new Reconciled());
+
+    public KpiStore(JdbcTemplate jdbcTemplate, SchemaCatalog schemaCatalog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Get the current headline numbers, seeding the store on first use if startup has not
+     * @return The current totals
+     */
+    public Snapshot snapshot() {
+        if (!reconciler.isSeeded()) {
+            reconcile();
+        }
+        synchronized (this) {
+            // Still unseeded if the database could not be read; the next call retries
+            return reconciler.isSeeded() ? totals.toSnapshot() : new Totals().toSnapshot();
+        }
+    }
+
+    /**
+     * Correct the in-memory totals by what a fresh count from the database says they missed
+     */
+    @ScheduledJob(name = "kpi-reconcile", scope = ScheduledJob.Scope.NODE,
+            fixedDelay = "${clientnest.kpi.reconcile-interval-ms:30000}",
+            initialDelay = "${clientnest.kpi.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        reconciler.reconcile();
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        Totals delta = switch (change.getEntity()) {
+            case Lead lead -> leadDelta(change, lead);
+            case Opportunity opportunity -> countDelta(change, d -> d.opportunities = 1);
+            case Customer customer -> countDelta(change, d -> d.customers = 1);
+            case Invoice invoice -> invoiceDelta(change, invoice);
+            default -> null;
+        };
+        if (delta == null) {
+            return;
+        }
+
+        synchronized (this) {
+            totals.add(delta);
+            reconciler.changed();
+        }
+    }
+
+    private final class Reconciled implements DriftReconciler.Store<Totals, Totals> {
+
+        @Override
+        public Totals snapshot() {
+            Totals copy = new Totals();
+            copy.add(totals);
+            return copy;
+        }
+
+        @Override
+        public Totals recount(Totals snapshot) {
+            Totals drift = loadTotals();
+            snapshot.negate();
+            drift.add(snapshot);
+            return drift;
+        }
+
+        @Override
+        public boolean isZero(Totals drift) {
+            return drift.equals(new Totals());
+        }
+
+        @Override
+        public void apply(Totals drift, boolean seeding, long recountChanges) {
+            if (!seeding && !isZero(drift)) {
+                logger.info("KPI totals drifted from the database, correcting {} by {}", totals, drift);
+            }
+            totals.add(drift);
+        }
+    }
+
+    // Deltas for a single change
+
+    private Totals leadDelta(EntityChange change, Lead lead) {
+        boolean active = lead.getStatus() == ActivityStatus.ACTIVE;
+        Totals delta = new Totals();
+        switch (change.getType()) {
+            case INSERT -> delta.activeLeads = active ? 1 : 0;
+            case DELETE -> delta.activeLeads = active ? -1 : 0;
+            case UPDATE -> {
+                if (!change.hasPreviousState()) {
+                    return null;
+                }
+                boolean wasActive = change.getPrevious("status") == ActivityStatus.ACTIVE;
+                delta.activeLeads = (active ? 1 : 0) - (wasActive ? 1 : 0);
+            }
+        }
+        return delta;
+    }
+
+    private Totals countDelta(EntityChange change, Consumer<Totals> unit) {
+        if (change.getType() == EntityChange.Type.UPDATE) {
+            return null;
+        }
+        Totals delta = new Totals();
+        unit.accept(delta);
+        if (change.getType() == EntityChange.Type.DELETE) {
+            delta.negate();
+        }
+        return delta;
+    }
+
+    private Totals invoiceDelta(EntityChange change, Invoice invoice) {
+        Totals delta = new Totals();
+        switch (change.getType()) {
+            case INSERT -> delta.addInvoice(invoice.getStatus(), invoice.getTotal(), 1);
+            case DELETE -> delta.addInvoice(invoice.getStatus(), invoice.getTotal(), -1);
+            case UPDATE -> {
+                if (!change.hasPreviousState()) {
+                    return null;
+                }
+                delta.addInvoice(invoice.getStatus(), invoice.getTotal(), 1);
+                delta.addInvoice((String) change.getPrevious("status"), (Double) change.getPrevious("total"), -1);
+            }
+        }
+        return delta;
+    }
+
+    // Full recount, same definitions as the incremental deltas
+
+    private Totals loadTotals() {
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+        Totals loaded = new Totals();
+
+        String leadTable = schema.leadTable();
+        if (leadTable != null) {
+            loaded.activeLeads = queryForCount(schema.hasColumn(leadTable, "status")
+                    ? String.format("SELECT COUNT(*) FROM %s WHERE status = 'ACTIVE'", leadTable)
+                    : String.format("SELECT COUNT(*) FROM %s", leadTable));
+        }
+
+        String opportunityTable = schema.opportunityTable();
+        if (opportunityTable != null) {
+            loaded.opportunities = queryForCount(String.format("SELECT COUNT(*) FROM %s", opportunityTable));
+        }
+
+        String customerTable = schema.customerTable();
+        if (customerTable != null) {
+            loaded.customers = queryForCount(String.format("SELECT COUNT(*) FROM %s", customerTable));
+        }
+
+        String invoiceTable = schema.invoiceTable();
+        if (invoiceTable != null) {
+            jdbcTemplate.query(String.format(
+                    "SELECT COUNT(total), COALESCE(SUM(total), 0) FROM %s WHERE status = 'PAID'", invoiceTable),
+                    rs -> {
+                        loaded.paidInvoices = rs.getLong(1);
+                        BigDecimal sum = rs.getBigDecimal(2);
+                        loaded.paidTotal = sum != null ? sum : BigDecimal.ZERO;
+                    });
+        }
+
+        return loaded;
+    }
+
+    private long queryForCount(String sql) {
+        logger.debug("Executing SQL: {}", sql);
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Mutable running totals, only touched while holding the store's lock
+     */
+    private static final class Totals {
+        private long activeLeads;
+        private long opportunities;
+        private long customers;
+        private long paidInvoices;
+        private BigDecimal paidTotal = BigDecimal.ZERO;
+
+        private void add(Totals other) {
+            activeLeads += other.activeLeads;
+            opportunities += other.opportunities;
+            customers += other.customers;
+            paidInvoices += other.paidInvoices;
+            paidTotal = paidTotal.add(other.paidTotal);
+        }
+
+        private void negate() {
+            activeLeads = -activeLeads;
+            opportunities = -opportunities;
+            customers = -customers;
+            paidInvoices = -paidInvoices;
+            paidTotal = paidTotal.negate();
+        }
+
+        private void addInvoice(String status, Double total, int sign) {
+            // Matches AVG/SUM(total) over PAID invoices, which skip null totals
+            if ("PAID".equals(status) && total != null) {
+                paidInvoices += sign;
+                paidTotal = paidTotal.add(BigDecimal.valueOf(total).multiply(BigDecimal.valueOf(sign)));
+            }
+        }
+
+        private Snapshot toSnapshot() {
+            BigDecimal average = paidInvoices > 0
+                    ? paidTotal.divide(BigDecimal.valueOf(paidInvoices), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            return new Snapshot(activeLeads, opportunities, customers, paidTotal, average);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Totals other)) {
+                return false;
+            }
+            return activeLeads == other.activeLeads
+                    && opportunities == other.opportunities
+                    && customers == other.customers
+                    && paidInvoices == other.paidInvoices
+                    && paidTotal.compareTo(other.paidTotal) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(activeLeads, opportunities, customers, paidInvoices, paidTotal.stripTrailingZeros());
+        }
+
+        @Override
+        public String toString() {
+            return "{leads=" + activeLeads + ", opportunities=" + opportunities + ", customers=" + customers
+                    + ", paidInvoices=" + paidInvoices + ", paidTotal=" + paidTotal + "}";
+        }
+    }
+
+    /**
+     * Immutable copy of the headline numbers
+     */
+    public static final class Snapshot {
+        private final long totalLeads;
+        private final long totalOpportunities;
+        private final long totalCustomers;
+        private final BigDecimal totalSales;
+        private final BigDecimal averageOrderValue;
+
+        private Snapshot(long totalLeads, long totalOpportunities, long totalCustomers,
+                BigDecimal totalSales, BigDecimal averageOrderValue) {
+            this.totalLeads = totalLeads;
+            this.totalOpportunities = totalOpportunities;
+            this.totalCustomers = totalCustomers;
+            this.totalSales = totalSales;
+            this.averageOrderValue = averageOrderValue;
+        }
+
+        public long getTotalLeads() {
+            return totalLeads;
+        }
+
+        public long getTotalOpportunities() {
+            return totalOpportunities;
+        }
+
+        public long getTotalCustomers() {
+            return totalCustomers;
+        }
+
+        public BigDecimal getTotalSales() {
+            return totalSales;
+        }
+
+        public BigDecimal getAverageOrderValue() {
+            return averageOrderValue;
+        }
+    }
+}
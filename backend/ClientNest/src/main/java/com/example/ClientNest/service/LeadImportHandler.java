@@ -0,0 +1,205 @@
+package com.example.ClientNest.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeDispatcher;
+import com.example.ClientNest.misc.ActivityStatus;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.model.ImportJob;
+import com.example.ClientNest.model.Lead;
+
+/**
+ * Imports leads. Fields are named as in LeadDTO (name, email, phoneNumber, ...,
+ * requirement, assignedTo, source, conversionProbability, expectedRevenue).
+ *
+ * Employees and customers are resolved from name indexes loaded once per import, and
+ * customers a lead names but the database does not know are created in the same
+ * chunk, the first record naming one deciding its details.
+ */
+@Component
+public class LeadImportHandler implements ImportHandler<LeadImportHandler.PendingLead> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeadImportHandler.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final EntityChangeDispatcher entityChangeDispatcher;
+    private final CustomerImportHandler customerImportHandler;
+
+    public LeadImportHandler(JdbcTemplate jdbcTemplate, SchemaCatalog schemaCatalog,
+            EntityChangeDispatcher entityChangeDispatcher, CustomerImportHandler customerImportHandler) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.entityChangeDispatcher = entityChangeDispatcher;
+        this.customerImportHandler = customerImportHandler;
+    }
+
+    @Override
+    public ImportJob.Dataset dataset() {
+        return ImportJob.Dataset.LEADS;
+    }
+
+    @Override
+    public Session<PendingLead> begin() {
+        return new LeadSession(schemaCatalog.current());
+    }
+
+    /**
+     * A record that passed validation
+     * @param newCustomer The customer to create if the name is still unknown at write time
+     */
+    record PendingLead(String requirement, double expectedRevenue, int probability, Lead.Source source,
+            Employee employee, String customerKey, Customer newCustomer) {
+    }
+
+    private final class LeadSession implements Session<PendingLead> {
+        private final Map<String, Employee> employees = new HashMap<>();
+        private final Map<String, Long> customers;
+        private final CustomerImportHandler.CustomerInsert customerInsert;
+        private final String leadSql;
+        private final boolean leadCreated;
+        private final boolean leadUpdated;
+        private long customersCreated;
+
+        private LeadSession(SchemaCatalog.Schema schema) {
+            String customerTable = schema.customerTable();
+            String leadTable = schema.leadTable();
+            String employeeTable = schema.employeeTable();
+            if (customerTable == null || leadTable == null || employeeTable == null) {
+                throw new IllegalStateException("Lead, customer or employee table not found");
+            }
+
+            jdbcTemplate.query("SELECT id, name FROM " + employeeTable, rs -> {
+                Employee employee = new Employee();
+                employee.setId(rs.getLong(1));
+                employee.setName(rs.getString(2));
+                if (employee.getName() != null) {
+                    employees.putIfAbsent(ImportRows.normalize(employee.getName()), employee);
+                }
+            });
+            customers = ImportRows.index(jdbcTemplate, "SELECT id, name FROM " + customerTable);
+            customerInsert = new CustomerImportHandler.CustomerInsert(schema);
+
+            leadCreated = schema.leadCreatedColumn() != null;
+            leadUpdated = schema.hasColumn(leadTable, "updated_at");
+            leadSql = "INSERT INTO " + leadTable
+                    + " (requirement, expected_revenue, probability, source, status, type, stage, customer_id, employee_id"
+                    + (leadCreated ? ", " + schema.leadCreatedColumn() : "") + (leadUpdated ? ", updated_at" : "")
+                    + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?" + (leadCreated ? ", ?" : "") + (leadUpdated ? ", ?" : "") + ")";
+            logger.debug("Lead import resolved {} employees and {} customers", employees.size(), customers.size());
+        }
+
+        @Override
+        public PendingLead parse(RecordReader.Row row) {
+            String name = ImportRows.required(row, "name");
+            String requirement = ImportRows.required(row, "requirement");
+            String assignedTo = ImportRows.required(row, "assignedto");
+
+            Employee employee = employees.get(ImportRows.normalize(assignedTo));
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee not found: " + assignedTo);
+            }
+
+            Lead.Source source = row.get("source") != null
+                    ? ImportRows.parseEnum(Lead.Source.class, row.get("source"), "source")
+                    : Lead.Source.UNKNOWN;
+
+            String probabilityText = row.get("conversionprobability") != null
+                    ? row.get("conversionprobability") : row.get("probability");
+            int probability = probabilityText != null ? ImportRows.parseInt(probabilityText, "conversionProbability") : 0;
+            if (probability < 0 || probability > 100) {
+                throw new IllegalArgumentException("conversionProbability must be between 0 and 100");
+            }
+            double expectedRevenue = row.get("expectedrevenue") != null
+                    ? ImportRows.parseDouble(row.get("expectedrevenue"), "expectedRevenue")
+                    : 0.0;
+
+            String customerKey = ImportRows.normalize(name);
+            Customer newCustomer = customers.containsKey(customerKey) ? null : customerImportHandler.customer(row, name);
+            return new PendingLead(requirement, expectedRevenue, probability, source, employee, customerKey, newCustomer);
+        }
+
+        @Override
+        public Runnable write(List<PendingLead> pending) {
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, Customer> created = new LinkedHashMap<>();
+            List<Lead> leads = new ArrayList<>(pending.size());
+            for (PendingLead p : pending) {
+                Long customerId = customers.get(p.customerKey());
+                Customer customer;
+                if (customerId != null) {
+                    customer = new Customer();
+                    customer.setId(customerId);
+                } else {
+                    customer = created.computeIfAbsent(p.customerKey(), key -> p.newCustomer());
+                }
+                Lead lead = new Lead();
+                lead.setRequirement(p.requirement());
+                lead.setExpectedRevenue(p.expectedRevenue());
+                lead.setProbability(p.probability());
+                lead.setSource(p.source());
+                lead.setCustomer(customer);
+                lead.setEmployee(p.employee());
+                lead.setCreatedAt(now);
+                lead.setUpdatedAt(now);
+                leads.add(lead);
+            }
+            if (!created.isEmpty()) {
+                created.values().forEach(customer -> customer.setCreatedAt(now));
+                ImportRows.insert(jdbcTemplate, customerInsert.sql, List.copyOf(created.values()),
+                        customerInsert::bind, Customer::setId);
+            }
+            ImportRows.insert(jdbcTemplate, leadSql, leads, this::bindLead, Lead::setId);
+
+            return () -> {
+                created.forEach((key, customer) -> customers.put(key, customer.getId()));
+                customersCreated += created.size();
+                for (Customer customer : created.values()) {
+                    entityChangeDispatcher.publish(EntityChange.inserted(customer));
+                }
+                for (Lead lead : leads) {
+                    entityChangeDispatcher.publish(EntityChange.inserted(lead));
+                }
+            };
+        }
+
+        @Override
+        public long customersCreated() {
+            return customersCreated;
+        }
+
+        private void bindLead(PreparedStatement ps, Lead lead) throws SQLException {
+            ps.setString(1, lead.getRequirement());
+            ps.setDouble(2, lead.getExpectedRevenue());
+            ps.setInt(3, lead.getProbability());
+            ps.setString(4, lead.getSource().name());
+            ps.setString(5, lead.getStatus() != null ? lead.getStatus().name() : ActivityStatus.ACTIVE.name());
+            ps.setString(6, lead.getType().name());
+            ps.setString(7, lead.getStage().name());
+            ps.setLong(8, lead.getCustomer().getId());
+            ps.setLong(9, lead.getEmployee().getId());
+            int index = 10;
+            if (leadCreated) {
+                ps.setTimestamp(index++, Timestamp.valueOf(lead.getCreatedAt()));
+            }
+            if (leadUpdated) {
+                ps.setTimestamp(index, Timestamp.valueOf(lead.getUpdatedAt()));
+            }
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package com.example.ClientNest.service;
 
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.LeadDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.misc.ActivityStatus;
 import com.example.ClientNest.model.Customer;
 import com.example.ClientNest.model.Lead;
 import com.example.ClientNest.repository.CustomerRepository;
 import com.example.ClientNest.repository.EmployeeRepository;
 import com.example.ClientNest.repository.LeadRepository;
+import com.example.ClientNest.repository.ListSpecifications;
 
 @Service
 public class LeadService {
@@ -25,6 +30,14 @@ public class LeadService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    private static final Set<String> SORTABLE = Set.of("id", "createdAt", "expectedRevenue", "probability");
+
     
     public LeadDTO enterLeadDetails(LeadDTO leadDetails) {
         Lead lead = new Lead();
@@ -67,7 +80,29 @@ public class LeadService {
     }
 
     public List<LeadDTO> getAllLeadDetails() {
-        return leadRepository.getAllLeadDetails();
+        return readCoalescer.get(ReadCoalescer.Region.LEADS, "active", leadRepository::getAllLeadDetails);
+    }
+
+    /**
+     * Get one page of leads with their customer and assignee
+     * @param page Cursor, size and sort
+     * @param status Status to match, active leads when null
+     * @param stage Stage to match, any when null
+     * @param source Source to match, any when null
+     * @param customerId Customer to match, any when null
+     * @param employeeId Assigned employee to match, any when null
+     * @return The page and the cursor for the next one
+     */
+    public CursorPageDTO<LeadDTO> getLeadPage(PageQuery page, ActivityStatus status, Lead.Stage stage,
+            Lead.Source source, Long customerId, Long employeeId) {
+        Specification<Lead> filter = Specification.allOf(
+                ListSpecifications.equal("status", status != null ? status : ActivityStatus.ACTIVE),
+                ListSpecifications.equal("stage", stage),
+                ListSpecifications.equal("source", source),
+                ListSpecifications.idEquals("customer", customerId),
+                ListSpecifications.idEquals("employee", employeeId));
+        return keysetPager.page(leadRepository, Lead.class, filter, page, SORTABLE, "id",
+                LeadDTO::new, "customer", "employee");
     }
 
     public LeadDTO getLeadDetailsById(Long id) {
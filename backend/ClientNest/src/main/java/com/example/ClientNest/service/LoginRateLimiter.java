@@ -0,0 +1,207 @@
+package com.example.ClientNest.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token-bucket limits for logins and password resets, kept per account email and per
+ * client IP, so neither one account nor one client can keep the BCrypt pool busy.
+ * Behind the load balancer the client IP is the one Tomcat takes from X-Forwarded-For
+ * of a trusted proxy (server.forward-headers-strategy), not the balancer's address.
+ *
+ * Buckets live in a fixed number of lock stripes, each an access-ordered map capped
+ * at its share of the configured maximum, so memory is bounded and the least recently
+ * used key is dropped first. A periodic sweep also drops buckets that have refilled
+ * completely, since a full bucket behaves exactly like a missing one. Checking a key
+ * that already has a bucket takes one uncontended lock and allocates nothing.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    /** Returned by {@link #tryAcquire} when the request may go ahead */
+    public static final long ALLOWED = 0L;
+
+    private final BucketTable byEmail;
+    private final BucketTable byIp;
+
+    public LoginRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${clientnest.login-limit.email.capacity:5}") int emailCapacity,
+            @Value("${clientnest.login-limit.email.refill-per-minute:5}") int emailRefillPerMinute,
+            @Value("${clientnest.login-limit.ip.capacity:30}") int ipCapacity,
+            @Value("${clientnest.login-limit.ip.refill-per-minute:30}") int ipRefillPerMinute,
+            @Value("${clientnest.login-limit.max-keys:100000}") int maxKeys,
+            @Value("${clientnest.login-limit.stripes:64}") int stripes) {
+        this.byEmail = new BucketTable("email", emailCapacity, emailRefillPerMinute, maxKeys, stripes, meterRegistry);
+        this.byIp = new BucketTable("ip", ipCapacity, ipRefillPerMinute, maxKeys, stripes, meterRegistry);
+    }
+
+    /**
+     * Take one attempt from the client's and the account's budgets
+     * @param email The account email, or null when the request names no account
+     * @param clientIp The client address
+     * @return {@link #ALLOWED}, or how many milliseconds to wait before trying again
+     */
+    public long tryAcquire(String email, String clientIp) {
+        long now = System.nanoTime();
+        long waitNanos = clientIp != null ? byIp.tryTake(clientIp, now) : 0L;
+        if (waitNanos == 0L && email != null && !email.isBlank()) {
+            // toLowerCase returns the same instance when nothing changes, so the usual case allocates nothing
+            waitNanos = byEmail.tryTake(email.strip().toLowerCase(Locale.ROOT), now);
+        }
+        return waitNanos == 0L ? ALLOWED : Math.max(1L, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    /**
+     * Drop buckets that have refilled completely
+     */
+    @ScheduledJob(name = "login-limiter-sweep", scope = ScheduledJob.Scope.NODE,
+            fixedDelay = "${clientnest.login-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int evicted = byEmail.evictFull(now) + byIp.evictFull(now);
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle login rate limit buckets", evicted);
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private void refill(long now, double capacity, double tokensPerNano) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+
+    /**
+     * One access-ordered map per stripe, guarded by its own monitor
+     */
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    private static final class BucketTable {
+        private final double capacity;
+        private final double tokensPerNano;
+        private final Stripe[] stripes;
+        private final int mask;
+
+        private final Counter allowed;
+        private final Counter rejected;
+        private final DistributionSummary remaining;
+
+        private BucketTable(String key, int capacity, int refillPerMinute, int maxKeys, int stripeCount,
+                MeterRegistry meterRegistry) {
+            this.capacity = Math.max(1, capacity);
+            this.tokensPerNano = Math.max(1, refillPerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+            // Power of two so the stripe is picked with a mask
+            int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+            this.stripes = new Stripe[size];
+            this.mask = size - 1;
+            int perStripe = Math.max(1, maxKeys / size);
+            for (int i = 0; i < size; i++) {
+                stripes[i] = new Stripe(perStripe);
+            }
+
+            this.allowed = meterRegistry.counter("clientnest.login.limiter", "key", key, "result", "allowed");
+            this.rejected = meterRegistry.counter("clientnest.login.limiter", "key", key, "result", "rejected");
+            this.remaining = DistributionSummary.builder("clientnest.login.limiter.remaining")
+                    .tag("key", key)
+                    .register(meterRegistry);
+            Gauge.builder("clientnest.login.limiter.buckets", this, BucketTable::trackedKeys)
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * @return Zero if a token was taken, otherwise the nanoseconds until one is available
+         */
+        private long tryTake(String key, long now) {
+            int hash = key.hashCode();
+            Stripe stripe = stripes[(hash ^ (hash >>> 16)) & mask];
+            double left;
+            synchronized (stripe) {
+                Bucket bucket = stripe.get(key);
+                if (bucket == null) {
+                    bucket = new Bucket(capacity, now);
+                    stripe.put(key, bucket);
+                } else {
+                    bucket.refill(now, capacity, tokensPerNano);
+                }
+                if (bucket.tokens < 1.0) {
+                    long wait = (long) Math.ceil((1.0 - bucket.tokens) / tokensPerNano);
+                    rejected.increment();
+                    return Math.max(1L, wait);
+                }
+                bucket.tokens -= 1.0;
+                left = bucket.tokens;
+            }
+            allowed.increment();
+            remaining.record(left);
+            return 0L;
+        }
+
+        private int evictFull(long now) {
+            int evicted = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    for (Iterator<Bucket> it = stripe.values().iterator(); it.hasNext();) {
+                        Bucket bucket = it.next();
+                        bucket.refill(now, capacity, tokensPerNano);
+                        if (bucket.tokens >= capacity) {
+                            it.remove();
+                            evicted++;
+                        }
+                    }
+                }
+            }
+            return evicted;
+        }
+
+        private double trackedKeys() {
+            long total = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    total += stripe.size();
+                }
+            }
+            return total;
+        }
+    }
+}
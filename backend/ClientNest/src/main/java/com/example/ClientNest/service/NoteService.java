@@ -1,13 +1,18 @@
 package com.example.ClientNest.service;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.NoteDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.model.Note;
+import com.example.ClientNest.repository.ListSpecifications;
 import com.example.ClientNest.repository.NoteRepository;
 import com.example.ClientNest.misc.Location;
 
@@ -15,10 +20,14 @@ import com.example.ClientNest.misc.Location;
 public class NoteService {
 
     private final NoteRepository noteRepository;
+    private final KeysetPager keysetPager;
+
+    private static final Set<String> SORTABLE = Set.of("id", "creationDate");
 
     @Autowired
-    public NoteService(NoteRepository noteRepository) {
+    public NoteService(NoteRepository noteRepository, KeysetPager keysetPager) {
         this.noteRepository = noteRepository;
+        this.keysetPager = keysetPager;
     }
 
 
@@ -55,6 +64,20 @@ public class NoteService {
     }
 
 
+    /**
+     * Get one page of notes
+     * @param page Cursor, size and sort
+     * @param location Where the notes are attached, any when null
+     * @param locationId The id of the record they are attached to, any when null
+     * @return The page and the cursor for the next one
+     */
+    public CursorPageDTO<NoteDTO> getNotePage(PageQuery page, Location location, Long locationId) {
+        Specification<Note> filter = Specification.allOf(
+                ListSpecifications.equal("location", location),
+                ListSpecifications.equal("locationId", locationId));
+        return keysetPager.page(noteRepository, Note.class, filter, page, SORTABLE, "id", this::convertToDTO);
+    }
+
     public List<NoteDTO> getNoteByLocationAndId(String location, Long id) {
         var note = noteRepository.findByLocationAndId(location, id);
         return note;
@@ -45,13 +45,17 @@ public class OpportunityService {
     @Autowired
     private InvoiceRepository invoiceRepository;
 
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
     /**
      * Get all active opportunities
      * @return List of OpportunityDTOs
      */
     public List<OpportunityDTO> getAllActiveOpportunities() {
         logger.info("Fetching all active opportunities");
-        return opportunityRepository.findAllActiveOpportunityDTOs();
+        return readCoalescer.get(ReadCoalescer.Region.OPPORTUNITIES, "active",
+                opportunityRepository::findAllActiveOpportunityDTOs);
     }
     
     /**
@@ -83,7 +87,7 @@ public class OpportunityService {
      */
     public List<OpportunityDTO> getOpportunitiesByStage(Opportunity.Stage stage) {
         logger.info("Fetching opportunities with stage: {}", stage);
-        return opportunityRepository.findActiveOpportunityDTOsByStage(stage.name());
+        return opportunityRepository.findActiveOpportunityDTOsByStage(stage);
     }
 
 
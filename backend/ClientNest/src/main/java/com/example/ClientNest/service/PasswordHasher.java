@@ -0,0 +1,167 @@
+package com.example.ClientNest.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs all BCrypt hashing and verification on a small dedicated pool.
+ *
+ * BCrypt is CPU-bound by design, so running it on servlet threads lets a burst of
+ * logins occupy the whole request pool. Here it gets a fixed number of threads and a
+ * bounded queue; when both are full a request is refused at once with a
+ * {@link BusyException} instead of waiting, which {@code PasswordHasherAdvice} turns
+ * into a 503. Hashes made with a lower cost than the configured one are re-hashed
+ * after the next successful verification and stored from a separate single thread,
+ * so a slow database never holds a hashing thread.
+ */
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor upgradeExecutor;
+
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+    private final Counter upgradedCounter;
+
+    public PasswordHasher(
+            MeterRegistry meterRegistry,
+            @Value("${clientnest.password.bcrypt-strength:10}") int strength,
+            @Value("${clientnest.password.hash-threads:0}") int threads,
+            @Value("${clientnest.password.hash-queue-capacity:64}") int queueCapacity) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        // Default to half the cores so hashing can never take all of them
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("password-hash-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.upgradeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("password-upgrade-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = meterRegistry.timer("clientnest.password.hash", "operation", "encode");
+        this.verifyTimer = meterRegistry.timer("clientnest.password.hash", "operation", "verify");
+        this.queueWaitTimer = meterRegistry.timer("clientnest.password.hash.queue.wait");
+        this.rejectedCounter = meterRegistry.counter("clientnest.password.hash.rejected");
+        this.upgradedCounter = meterRegistry.counter("clientnest.password.hash.upgraded");
+        Gauge.builder("clientnest.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("clientnest.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        logger.info("Password hashing uses {} threads, queue of {}, BCrypt strength {}", poolSize, queueCapacity, strength);
+    }
+
+    /**
+     * Hash a password, waiting for a hashing thread
+     * @param rawPassword The password to hash
+     * @return The BCrypt hash
+     * @throws BusyException If the hashing pool is saturated
+     */
+    public String encode(String rawPassword) {
+        CompletableFuture<String> hash = submit(encodeTimer, () -> encoder.encode(rawPassword));
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Check a password against a stored hash without blocking the caller
+     * @param rawPassword The password to check
+     * @param storedHash The stored BCrypt hash
+     * @param upgrade Given a new hash when the password matched but the stored hash used a
+     *                lower cost than configured; runs later on the upgrade thread
+     * @return Whether the password matched, or a future failed with {@link BusyException}
+     *         if the hashing pool is saturated
+     */
+    public CompletableFuture<Boolean> verify(String rawPassword, String storedHash, Consumer<String> upgrade) {
+        return submit(verifyTimer, () -> {
+            if (!encoder.matches(rawPassword, storedHash)) {
+                return false;
+            }
+            if (encoder.upgradeEncoding(storedHash)) {
+                storeUpgrade(encodeTimer.record(() -> encoder.encode(rawPassword)), upgrade);
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        upgradeExecutor.shutdownNow();
+    }
+
+    private void storeUpgrade(String upgradedHash, Consumer<String> upgrade) {
+        try {
+            upgradeExecutor.execute(() -> {
+                try {
+                    upgrade.accept(upgradedHash);
+                    upgradedCounter.increment();
+                } catch (RuntimeException e) {
+                    // The login still succeeds; the upgrade is retried next time
+                    logger.warn("Could not upgrade password hash", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Password hash upgrade queue full, upgrading on a later login");
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(work);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new BusyException());
+        }
+    }
+
+    /**
+     * Thrown when the hashing pool is saturated and the request should be retried later
+     */
+    public static class BusyException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        public BusyException() {
+            super("Too many password checks in progress");
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.ClientNest.service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +21,8 @@ import com.example.ClientNest.repository.PasswordResetTokenRepository;
 
 @Service
 public class PasswordResetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordResetService.class);
     
     @Autowired
     private PasswordResetTokenRepository tokenRepository;
@@ -30,7 +36,14 @@ public class PasswordResetService {
     @Autowired
     private EmailService emailService;
     
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Value("${clientnest.password-reset.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    @Value("${clientnest.password-reset.purge-pause-ms:200}")
+    private long purgePauseMillis;
     
     /**
      * Create a password reset token for a customer or employee
@@ -111,7 +124,7 @@ public class PasswordResetService {
         }
         
         // Hash the new password
-        String hashedPassword = passwordEncoder.encode(newPassword);
+        String hashedPassword = passwordHasher.encode(newPassword);
         
         // Update password based on user type
         boolean updated = false;
@@ -122,8 +135,9 @@ public class PasswordResetService {
         }
         
         if (updated) {
-            // Mark token as used
+            // Mark token as used and expire it, so the purge finds it through the expiry index alone
             resetToken.setUsed(true);
+            resetToken.setExpiryDate(LocalDateTime.now());
             tokenRepository.save(resetToken);
             return true;
         }
@@ -167,10 +181,39 @@ public class PasswordResetService {
     }
     
     /**
-     * Clean up expired and used tokens
+     * Clean up expired and used tokens, a small batch per transaction and oldest first,
+     * pausing between batches so the table is never locked for long. Runs on one node at
+     * a time.
      */
-    @Transactional
+    @ScheduledJob(name = "password-reset-token-purge", cron = "${clientnest.password-reset.purge-cron:0 */10 * * * *}")
     public void cleanupTokens() {
-        tokenRepository.deleteExpiredOrUsedTokens(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime afterExpiry = LocalDateTime.of(1970, 1, 1, 0, 0);
+        Long afterId = 0L;
+        int deleted = 0;
+        while (true) {
+            List<Object[]> batch = tokenRepository.findExpiredAfter(now, afterExpiry, afterId, Limit.of(purgeBatchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Long> ids = batch.stream().map(row -> (Long) row[0]).toList();
+            deleted += tokenRepository.deleteByIdIn(ids);
+
+            Object[] last = batch.get(batch.size() - 1);
+            afterId = (Long) last[0];
+            afterExpiry = (LocalDateTime) last[1];
+            if (batch.size() < purgeBatchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(purgePauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Purged {} expired password reset tokens", deleted);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package com.example.ClientNest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeObserver;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Employee;
+
+/**
+ * Customer and employee ids by phone number, for matching call-detail records.
+ *
+ * A number is reduced to its last match-digits digits and kept as a long, so
+ * "+1 (555) 010-4477", "555.010.4477" and "5550104477" are the same key and a lookup
+ * neither parses nor allocates. Keys live in open-addressing tables of primitives.
+ * A number shared by two customers (or two employees) matches neither. Any committed
+ * change to a customer or employee marks the index stale; it is rebuilt, in one query
+ * per table, the next time it is read.
+ */
+@Component
+public class PhoneIndex implements EntityChangeObserver {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhoneIndex.class);
+
+    /** Returned by the lookups when no single row has the number */
+    public static final long NONE = 0L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final long modulus;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    public PhoneIndex(JdbcTemplate jdbcTemplate, SchemaCatalog schemaCatalog,
+            @Value("${clientnest.cdr.match-digits:10}") int matchDigits) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        long modulus = 1;
+        for (int i = 0; i < Math.max(1, Math.min(matchDigits, 18)); i++) {
+            modulus *= 10;
+        }
+        this.modulus = modulus;
+    }
+
+    /**
+     * Get the current index, rebuilding it first if customers or employees changed
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null || stale) {
+            current = rebuild();
+        }
+        return current;
+    }
+
+    /**
+     * Get the divisor that keeps the significant trailing digits of a number
+     */
+    public long modulus() {
+        return modulus;
+    }
+
+    /**
+     * Reduce a phone number to its key
+     * @return The key, or {@link #NONE} if the text has no digits
+     */
+    public long normalize(CharSequence number) {
+        long key = 0;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                key = (key * 10 + (c - '0')) % modulus;
+            }
+        }
+        return key;
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        if (change.getEntity() instanceof Customer || change.getEntity() instanceof Employee) {
+            stale = true;
+        }
+    }
+
+    private synchronized Snapshot rebuild() {
+        if (snapshot != null && !stale) {
+            return snapshot;
+        }
+        // Cleared first so a change committed during the rebuild marks it stale again
+        stale = false;
+        LongIdTable customers;
+        LongIdTable employees;
+        try {
+            SchemaCatalog.Schema schema = schemaCatalog.current();
+            if (schema.customerTable() == null || schema.employeeTable() == null) {
+                throw new IllegalStateException("Customer or employee table not found");
+            }
+            customers = load("SELECT id, phone_number FROM " + schema.customerTable() + " WHERE phone_number IS NOT NULL");
+            employees = load("SELECT id, phone FROM " + schema.employeeTable() + " WHERE phone IS NOT NULL");
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        }
+        snapshot = new Snapshot(customers, employees);
+        logger.debug("Phone index rebuilt: {} customer and {} employee numbers", customers.size, employees.size);
+        return snapshot;
+    }
+
+    private LongIdTable load(String sql) {
+        LongIdTable table = new LongIdTable(1024);
+        jdbcTemplate.query(sql, rs -> {
+            long key = normalize(rs.getString(2));
+            if (key != NONE) {
+                table.put(key, rs.getLong(1));
+            }
+        });
+        return table;
+    }
+
+    /**
+     * An immutable view of the index
+     */
+    public static final class Snapshot {
+        private final LongIdTable customers;
+        private final LongIdTable employees;
+
+        private Snapshot(LongIdTable customers, LongIdTable employees) {
+            this.customers = customers;
+            this.employees = employees;
+        }
+
+        /**
+         * @return The id of the only customer with this number, or {@link #NONE}
+         */
+        public long customerId(long number) {
+            return customers.get(number);
+        }
+
+        /**
+         * @return The id of the only employee with this number, or {@link #NONE}
+         */
+        public long employeeId(long number) {
+            return employees.get(number);
+        }
+    }
+
+    /**
+     * Open-addressing map from non-zero long keys to ids, with linear probing
+     */
+    private static final class LongIdTable {
+        private static final long AMBIGUOUS = -1L;
+
+        private long[] keys;
+        private long[] values;
+        private int mask;
+        private int size;
+
+        private LongIdTable(int capacity) {
+            int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            this.keys = new long[size];
+            this.values = new long[size];
+            this.mask = size - 1;
+        }
+
+        private void put(long key, long id) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int slot = slot(key);
+            while (keys[slot] != 0L) {
+                if (keys[slot] == key) {
+                    if (values[slot] != id) {
+                        values[slot] = AMBIGUOUS;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = id;
+            size++;
+        }
+
+        private long get(long key) {
+            if (key == 0L) {
+                return NONE;
+            }
+            int slot = slot(key);
+            while (keys[slot] != 0L) {
+                if (keys[slot] == key) {
+                    return values[slot] == AMBIGUOUS ? NONE : values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NONE;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldKeys.length * 2];
+            mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0L) {
+                    int slot = slot(oldKeys[i]);
+                    while (keys[slot] != 0L) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
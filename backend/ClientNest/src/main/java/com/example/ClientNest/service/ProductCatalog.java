@@ -0,0 +1,179 @@
+package com.example.ClientNest.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.repository.ProductRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * In-memory index of product ids and names, used to turn quotation line items into
+ * product ids without a query per line.
+ *
+ * The catalog is loaded on first use, dropped by {@link #invalidate()} whenever a
+ * product is created, renamed or deleted on this node, and reloaded after ttl-ms so
+ * writes made on other nodes show up. A lookup that misses does not trust the cache
+ * either: an unknown id is checked against the database and an unknown name reloads
+ * the catalog once, so a product just created on another node is found. A load that
+ * overlaps an invalidation is not kept, so a stale catalog can never be installed
+ * after a write.
+ *
+ * Names are indexed exactly and by three-character fragments, so the partial-name
+ * fallback only compares the products sharing the query's rarest fragment.
+ */
+@Component
+public class ProductCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private static final int GRAM = 3;
+    // A name miss reloads only a catalog older than this, so unknown names cannot force a reload each
+    private static final long MIN_RELOAD_NANOS = 1_000_000_000L;
+
+    private final ProductRepository productRepository;
+    private final long ttlNanos;
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Catalog catalog;
+
+    public ProductCatalog(
+            ProductRepository productRepository,
+            @Value("${clientnest.product-catalog.ttl-ms:60000}") long ttlMillis) {
+        this.productRepository = productRepository;
+        this.ttlNanos = Math.max(0, ttlMillis) * 1_000_000L;
+    }
+
+    /**
+     * Find the product a quotation line refers to
+     * @param id The product id from the request, preferred when present
+     * @param name The product name, matched exactly (ignoring case) and then as a unique partial name
+     * @return The product id
+     * @throws EntityNotFoundException If no product, or more than one, matches
+     */
+    public Long resolveId(Long id, String name) {
+        if (id != null) {
+            if (!current().keysById().containsKey(id)) {
+                // Possibly created on another node since the catalog was loaded
+                if (!productRepository.existsById(id)) {
+                    throw new EntityNotFoundException("Product not found with id: " + id);
+                }
+                invalidate();
+            }
+            return id;
+        }
+        if (name == null || name.isBlank()) {
+            throw new EntityNotFoundException("Quotation item has no product id or name");
+        }
+
+        String key = normalize(name);
+        Catalog current = current();
+        List<Long> matches = current.match(key);
+        if (matches.isEmpty() && !current.fresh()) {
+            invalidate();
+            matches = current().match(key);
+        }
+        if (matches.size() != 1) {
+            throw new EntityNotFoundException(matches.isEmpty()
+                    ? "Product not found with name: " + name
+                    : "More than one product matches name: " + name);
+        }
+        return matches.get(0);
+    }
+
+    /**
+     * Drop the cached catalog; the next lookup reloads it
+     */
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        catalog = null;
+    }
+
+    private Catalog current() {
+        Catalog current = catalog;
+        if (current != null && System.nanoTime() - current.loadedAt() < ttlNanos) {
+            return current;
+        }
+
+        long loadGeneration = generation.get();
+        Map<Long, String> keysById = new HashMap<>();
+        Map<String, Long> idsByKey = new HashMap<>();
+        Map<String, List<Long>> idsByGram = new HashMap<>();
+        for (Object[] row : productRepository.findAllIdsAndNames()) {
+            Long id = (Long) row[0];
+            String key = normalize((String) row[1]);
+            keysById.put(id, key);
+            idsByKey.put(key, id);
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                List<Long> ids = idsByGram.computeIfAbsent(key.substring(i, i + GRAM), gram -> new ArrayList<>());
+                if (ids.isEmpty() || !ids.get(ids.size() - 1).equals(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+        Catalog loaded = new Catalog(Map.copyOf(keysById), Map.copyOf(idsByKey), Map.copyOf(idsByGram),
+                System.nanoTime());
+
+        synchronized (this) {
+            if (generation.get() == loadGeneration) {
+                catalog = loaded;
+            }
+        }
+        logger.debug("Loaded product catalog with {} products", keysById.size());
+        return loaded;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Catalog(Map<Long, String> keysById, Map<String, Long> idsByKey,
+            Map<String, List<Long>> idsByGram, long loadedAt) {
+
+        /**
+         * @return The exact match, or up to two products whose name contains the key
+         */
+        List<Long> match(String key) {
+            Long exact = idsByKey.get(key);
+            if (exact != null) {
+                return List.of(exact);
+            }
+            // Same matching as the old per-item "name contains" query
+            List<Long> rarest = null;
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                List<Long> ids = idsByGram.getOrDefault(key.substring(i, i + GRAM), List.of());
+                if (rarest == null || ids.size() < rarest.size()) {
+                    rarest = ids;
+                }
+            }
+            // Keys shorter than a fragment still compare every product
+            Iterable<Long> candidates = rarest != null ? rarest : keysById.keySet();
+            List<Long> matches = new ArrayList<>(2);
+            for (Long id : candidates) {
+                if (keysById.get(id).contains(key)) {
+                    matches.add(id);
+                    if (matches.size() == 2) {
+                        break;
+                    }
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Whether the catalog was loaded too recently for a reload to find anything new
+         */
+        boolean fresh() {
+            return System.nanoTime() - loadedAt < MIN_RELOAD_NANOS;
+        }
+    }
+}
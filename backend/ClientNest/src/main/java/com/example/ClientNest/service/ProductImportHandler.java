@@ -0,0 +1,96 @@
+package com.example.ClientNest.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeDispatcher;
+import com.example.ClientNest.model.ImportJob;
+import com.example.ClientNest.model.Product;
+
+/**
+ * Imports products. Fields are named as in ProductDTO (name, description, price,
+ * category, status); status defaults to Available. Names are unique, so a record
+ * naming a product that already exists is rejected. The product catalog cache is
+ * dropped after every chunk that added products.
+ */
+@Component
+public class ProductImportHandler implements ImportHandler<Product> {
+
+    private static final String DEFAULT_STATUS = "Available";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final EntityChangeDispatcher entityChangeDispatcher;
+    private final ProductCatalog productCatalog;
+
+    public ProductImportHandler(JdbcTemplate jdbcTemplate, SchemaCatalog schemaCatalog,
+            EntityChangeDispatcher entityChangeDispatcher, ProductCatalog productCatalog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.entityChangeDispatcher = entityChangeDispatcher;
+        this.productCatalog = productCatalog;
+    }
+
+    @Override
+    public ImportJob.Dataset dataset() {
+        return ImportJob.Dataset.PRODUCTS;
+    }
+
+    @Override
+    public Session<Product> begin() {
+        String productTable = schemaCatalog.current().productTable();
+        if (productTable == null) {
+            throw new IllegalStateException("Product table not found");
+        }
+        Map<String, Long> names = ImportRows.index(jdbcTemplate, "SELECT id, name FROM " + productTable);
+        String sql = "INSERT INTO " + productTable
+                + " (name, description, price, category, status, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+        return new Session<>() {
+            @Override
+            public Product parse(RecordReader.Row row) {
+                Product product = new Product();
+                product.setName(ImportRows.required(row, "name"));
+                if (names.containsKey(ImportRows.normalize(product.getName()))) {
+                    throw new IllegalArgumentException("Product already exists: " + product.getName());
+                }
+                product.setDescription(row.get("description"));
+                double price = ImportRows.parseDouble(ImportRows.required(row, "price"), "price");
+                if (price < 0) {
+                    throw new IllegalArgumentException("price must not be negative");
+                }
+                product.setPrice(price);
+                product.setCategory(ImportRows.required(row, "category"));
+                product.setStatus(row.get("status") != null ? row.get("status") : DEFAULT_STATUS);
+                return product;
+            }
+
+            @Override
+            public Runnable write(List<Product> products) {
+                LocalDateTime now = LocalDateTime.now();
+                ImportRows.insert(jdbcTemplate, sql, products, (ps, product) -> {
+                    product.setUpdatedAt(now);
+                    ps.setString(1, product.getName());
+                    ps.setString(2, product.getDescription());
+                    ps.setDouble(3, product.getPrice());
+                    ps.setString(4, product.getCategory());
+                    ps.setString(5, product.getStatus());
+                    ps.setTimestamp(6, Timestamp.valueOf(now));
+                }, Product::setId);
+                return () -> {
+                    productCatalog.invalidate();
+                    for (Product product : products) {
+                        names.put(ImportRows.normalize(product.getName()), product.getId());
+                        entityChangeDispatcher.publish(EntityChange.inserted(product));
+                    }
+                };
+            }
+        };
+    }
+}
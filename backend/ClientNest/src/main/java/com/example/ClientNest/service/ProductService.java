@@ -1,10 +1,13 @@
 package com.example.ClientNest.service;
 
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.ProductDTO;
 import java.util.List;
 
 public interface ProductService {
     List<ProductDTO> getAllProducts();
+    CursorPageDTO<ProductDTO> getProductPage(PageQuery page, String category, String status, String search);
     ProductDTO getProductById(Long id);
     ProductDTO createProduct(ProductDTO productDTO);
     ProductDTO updateProduct(Long id, ProductDTO productDTO);
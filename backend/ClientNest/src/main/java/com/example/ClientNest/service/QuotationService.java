@@ -2,20 +2,27 @@ package com.example.ClientNest.service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.ClientNest.dto.QItemDTO;
 import com.example.ClientNest.dto.QuotationDTO;
 import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Product;
 import com.example.ClientNest.model.QItem;
 import com.example.ClientNest.model.Quotation;
 import com.example.ClientNest.repository.OpportunityRepository;
 import com.example.ClientNest.repository.ProductRepository;
 import com.example.ClientNest.repository.QuotationRepository;
 
+import jakarta.persistence.EntityNotFoundException;
+
 @Service
 public class QuotationService {
 
@@ -27,6 +34,9 @@ public class QuotationService {
 
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCatalog productCatalog;
     
     @Autowired
     private EmailService emailService;
@@ -35,6 +45,7 @@ public class QuotationService {
         return quotationRepository.findByOpportunityId(opportunityId);
     }
 
+    @Transactional
     public QuotationDTO createQuotation(Long opportunityId, QuotationDTO quotationDTO) {
         Quotation quotation = new Quotation();
         quotation.setTitle(quotationDTO.getTitle());
@@ -42,21 +53,7 @@ public class QuotationService {
         quotation.setValidUntil(quotationDTO.getValidUntil());
         quotation.setTotal(quotationDTO.getAmount());
 
-        // Create a mutable list instead of using toList() which returns an immutable list
-        List<QItem> itemsList = new ArrayList<>();
-        for (var item : quotationDTO.getItems()) {
-            QItem qItem = new QItem();
-            var product = productRepository.findByNameContainingIgnoreCase(
-                item.getProduct().getName()
-            );
-            qItem.setProduct((product));
-            qItem.setQuantity(item.getQuantity());
-            // Set the discount value from DTO to entity
-            qItem.setDiscount(item.getDiscount() != null ? item.getDiscount() : 0.0);
-            qItem.setQuotation(quotation);
-            itemsList.add(qItem);
-        }
-        quotation.setItems(itemsList);
+        quotation.setItems(buildItems(quotation, quotationDTO.getItems()));
 
         var opportunity = opportunityRepository.findById(opportunityId);
         Quotation savedQuotation = null;
@@ -71,6 +68,7 @@ public class QuotationService {
         return new QuotationDTO(savedQuotation);
     }
 
+    @Transactional
     public QuotationDTO updateQuotation(Long id, QuotationDTO quotationDTO) {
         Optional<Quotation> optionalQuotation = quotationRepository.findById(id);
         if (optionalQuotation.isPresent()) {
@@ -83,21 +81,7 @@ public class QuotationService {
             // Clear existing items to avoid issues with modification
             quotation.getItems().clear();
             
-            // Create a mutable list instead of using toList() which returns an immutable list
-            List<QItem> updatedItems = new ArrayList<>();
-            for (var item : quotationDTO.getItems()) {
-                QItem qItem = new QItem();
-                var product = productRepository.findByNameContainingIgnoreCase(
-                    item.getProduct().getName()
-                );
-                qItem.setProduct((product));
-                qItem.setQuantity(item.getQuantity());
-                // Set the discount value from DTO to entity
-                qItem.setDiscount(item.getDiscount() != null ? item.getDiscount() : 0.0);
-                qItem.setQuotation(quotation);
-                updatedItems.add(qItem);
-            }
-            quotation.setItems(updatedItems);
+            quotation.setItems(buildItems(quotation, quotationDTO.getItems()));
 
             var updatedQuotation = quotationRepository.save(quotation);
             return new QuotationDTO(updatedQuotation);
@@ -106,6 +90,40 @@ public class QuotationService {
         }
     }
 
+    /**
+     * Turn the requested line items into entities, loading all their products in one query
+     * @param quotation The quotation the items belong to
+     * @param items The items from the request, each with a product id or name
+     * @return A mutable list of items
+     */
+    private List<QItem> buildItems(Quotation quotation, List<QItemDTO> items) {
+        List<Long> productIds = items.stream()
+                .map(item -> productCatalog.resolveId(item.getProduct().getId(), item.getProduct().getName()))
+                .toList();
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Create a mutable list instead of using toList() which returns an immutable list
+        List<QItem> itemsList = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            Product product = products.get(productIds.get(i));
+            if (product == null) {
+                // Deleted after the catalog was loaded
+                productCatalog.invalidate();
+                throw new EntityNotFoundException("Product not found with id: " + productIds.get(i));
+            }
+            QItem qItem = new QItem();
+            qItem.setProduct(product);
+            qItem.setQuantity(item.getQuantity());
+            // Set the discount value from DTO to entity
+            qItem.setDiscount(item.getDiscount() != null ? item.getDiscount() : 0.0);
+            qItem.setQuotation(quotation);
+            itemsList.add(qItem);
+        }
+        return itemsList;
+    }
+
     /**
      * Get all quotations for a specific customer that are in SENT stage or later
      * (visible to customers)
@@ -143,6 +161,7 @@ public class QuotationService {
      * @throws IllegalStateException if the quotation is not in DRAFT stage
      * @throws RuntimeException if the quotation is not found
      */
+    @Transactional
     public QuotationDTO sendQuotation(Long id) {
         Optional<Quotation> optionalQuotation = quotationRepository.findById(id);
         if (optionalQuotation.isPresent()) {
@@ -159,20 +178,13 @@ public class QuotationService {
             // Save the updated quotation
             Quotation updatedQuotation = quotationRepository.save(quotation);
             
-            // Send email notification to customer
-            try {
-                var opportunity = opportunityRepository.findByQuotation(updatedQuotation)
-                    .orElseThrow(() -> new RuntimeException("No opportunity found for this quotation"));
-                
-                Customer customer = opportunity.getCustomer();
-                if (customer != null && customer.getEmail() != null) {
-                    QuotationDTO quotationDTO = new QuotationDTO(updatedQuotation);
-                    emailService.sendQuotationNotification(customer.getEmail(), customer.getName(), quotationDTO);
-                }
-            } catch (Exception e) {
-                // Log the error but don't disrupt the main flow
-                System.err.println("Failed to send quotation email notification: " + e.getMessage());
-                e.printStackTrace();
+            // Queue the email notification in the same transaction as the stage change
+            Customer customer = opportunityRepository.findByQuotation(updatedQuotation)
+                .map(opportunity -> opportunity.getCustomer())
+                .orElse(null);
+            if (customer != null && customer.getEmail() != null) {
+                QuotationDTO quotationDTO = new QuotationDTO(updatedQuotation);
+                emailService.sendQuotationNotification(customer.getEmail(), customer.getName(), quotationDTO);
             }
             
             return new QuotationDTO(updatedQuotation);
@@ -0,0 +1,218 @@
+package com.example.ClientNest.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeObserver;
+import com.example.ClientNest.model.Category;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.model.Invoice;
+import com.example.ClientNest.model.Lead;
+import com.example.ClientNest.model.Opportunity;
+import com.example.ClientNest.model.Product;
+import com.example.ClientNest.model.Quotation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lets concurrent identical reads share one computation and, optionally, reuse its
+ * result for a few seconds.
+ *
+ * Every region has a generation number that is bumped whenever an entity the region
+ * reads from is committed, and again by stores that finish writing derived rows the
+ * region reads (see {@link #invalidate(Region)}). Cached results and in-flight
+ * computations are tied to the generation they started in, so a read that begins
+ * after a write never sees data from before it. Cached values are shared between
+ * callers and must not be modified.
+ *
+ * The cache holds at most max-entries results; the least recently used one goes
+ * first, expired ones are dropped when read and by a periodic sweep.
+ */
+@Component
+public class ReadCoalescer implements EntityChangeObserver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadCoalescer.class);
+
+    public enum Region {
+        DASHBOARD(Lead.class, Opportunity.class, Customer.class, Invoice.class, Product.class, Category.class),
+        OPPORTUNITIES(Opportunity.class, Lead.class, Customer.class, Employee.class, Quotation.class),
+        LEADS(Lead.class, Customer.class, Employee.class);
+
+        private final List<Class<?>> sources;
+
+        Region(Class<?>... sources) {
+            this.sources = List.of(sources);
+        }
+
+        private boolean readsFrom(Object entity) {
+            return sources.stream().anyMatch(source -> source.isInstance(entity));
+        }
+    }
+
+    private final Map<Region, AtomicLong> generations = new EnumMap<>(Region.class);
+    private final Map<Region, Long> ttlMillis = new EnumMap<>(Region.class);
+    private final Map<Region, Counters> counters = new EnumMap<>(Region.class);
+
+    // Access-ordered, guarded by itself
+    private final LinkedHashMap<Key, Entry> cache;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${clientnest.read-cache.dashboard-ttl-ms:3000}") long dashboardTtlMillis,
+            @Value("${clientnest.read-cache.opportunities-ttl-ms:2000}") long opportunitiesTtlMillis,
+            @Value("${clientnest.read-cache.leads-ttl-ms:2000}") long leadsTtlMillis,
+            @Value("${clientnest.read-cache.max-entries:1000}") int maxEntries) {
+        int capacity = Math.max(1, maxEntries);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity || eldest.getValue().expiresAt() <= System.currentTimeMillis();
+            }
+        };
+        ttlMillis.put(Region.DASHBOARD, dashboardTtlMillis);
+        ttlMillis.put(Region.OPPORTUNITIES, opportunitiesTtlMillis);
+        ttlMillis.put(Region.LEADS, leadsTtlMillis);
+        for (Region region : Region.values()) {
+            generations.put(region, new AtomicLong());
+            counters.put(region, new Counters(meterRegistry, region));
+        }
+    }
+
+    /**
+     * Get a value, sharing the computation with identical concurrent reads
+     * @param region The region the value is read from
+     * @param key Identifies the read within the region, e.g. the method and its arguments
+     * @param loader Computes the value on a miss
+     * @return The cached, shared or freshly computed value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Region region, Object key, Supplier<T> loader) {
+        long generation = generations.get(region).get();
+        Key cacheKey = new Key(region, key, generation);
+        Counters regionCounters = counters.get(region);
+
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(cacheKey);
+            if (entry != null && entry.expiresAt() <= System.currentTimeMillis()) {
+                cache.remove(cacheKey);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            regionCounters.hits.increment();
+            return (T) entry.value();
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(cacheKey, future);
+        if (existing != null) {
+            regionCounters.coalesced.increment();
+            return (T) join(existing);
+        }
+
+        regionCounters.misses.increment();
+        try {
+            T value = loader.get();
+            long ttl = ttlMillis.get(region);
+            // Only keep the result if no write committed while it was being computed
+            if (ttl > 0 && generations.get(region).get() == generation) {
+                synchronized (cache) {
+                    cache.put(cacheKey, new Entry(value, System.currentTimeMillis() + ttl));
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    /**
+     * Drop everything cached for a region, e.g. after writing rows it reads
+     * @param region The region
+     */
+    public void invalidate(Region region) {
+        long generation = generations.get(region).incrementAndGet();
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.region() == region && key.generation() < generation);
+        }
+        logger.debug("Invalidated {} reads, now at generation {}", region, generation);
+    }
+
+    /**
+     * Drop expired results
+     */
+    @ScheduledJob(name = "read-cache-sweep", scope = ScheduledJob.Scope.NODE,
+            fixedDelay = "${clientnest.read-cache.sweep-interval-ms:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+        }
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        for (Region region : Region.values()) {
+            if (region.readsFrom(change.getEntity())) {
+                invalidate(region);
+            }
+        }
+    }
+
+    private Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(Region region, Object key, long generation) {
+
+        private Key {
+            Objects.requireNonNull(key);
+        }
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    private static final class Counters {
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter coalesced;
+
+        private Counters(MeterRegistry meterRegistry, Region region) {
+            String name = region.name().toLowerCase(Locale.ROOT);
+            this.hits = meterRegistry.counter("clientnest.reads", "region", name, "result", "hit");
+            this.misses = meterRegistry.counter("clientnest.reads", "region", name, "result", "miss");
+            this.coalesced = meterRegistry.counter("clientnest.reads", "region", name, "result", "coalesced");
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.ClientNest.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads an import file one record at a time, so a file of any size is parsed with
+ * constant memory.
+ *
+ * CSV files start with a header row and follow RFC 4180: fields may be quoted, and
+ * quoted fields may contain commas, doubled quotes and line breaks. NDJSON files hold
+ * one JSON object per line. Field names from either format are normalized by
+ * {@link #key(String)}, so "phone_number", "Phone Number" and "phoneNumber" all name
+ * the same field. A malformed record is returned with an error instead of stopping
+ * the read, so the rest of the file can still be imported.
+ */
+public abstract class RecordReader implements Closeable {
+
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown import format: " + format);
+            }
+        }
+
+        /**
+         * Pick the format from a request's content type
+         * @throws IllegalArgumentException If the content type is neither CSV nor NDJSON
+         */
+        public static Format fromContentType(String contentType) {
+            if (contentType != null) {
+                String type = contentType.toLowerCase(Locale.ROOT);
+                if (type.startsWith("text/csv")) {
+                    return CSV;
+                }
+                if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                    return NDJSON;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+        }
+
+        /**
+         * Pick the format from a file name's extension
+         * @throws IllegalArgumentException If the extension is neither .csv nor .ndjson or .jsonl
+         */
+        public static Format fromFileName(String fileName) {
+            if (fileName != null) {
+                String name = fileName.toLowerCase(Locale.ROOT);
+                if (name.endsWith(".csv")) {
+                    return CSV;
+                }
+                if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                    return NDJSON;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported import file: " + fileName);
+        }
+    }
+
+    /**
+     * One record
+     * @param number Position of the record in the file, from 1, not counting the CSV header
+     * @param fields Values by normalized field name; blank values are null
+     * @param error Why the record could not be parsed, or null
+     */
+    public record Row(long number, Map<String, String> fields, String error) {
+
+        public String get(String key) {
+            return fields.get(key);
+        }
+    }
+
+    private final Reader reader;
+    protected long number;
+
+    protected RecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Open a reader for a UTF-8 stream
+     * @param in The file contents; closed with the reader
+     * @param format CSV or NDJSON
+     * @param objectMapper Parses NDJSON lines
+     */
+    public static RecordReader open(InputStream in, Format format, ObjectMapper objectMapper) throws IOException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        return format == Format.CSV ? new CsvReader(reader) : new NdjsonReader(reader, objectMapper);
+    }
+
+    /**
+     * Normalize a field name: lower case, letters and digits only
+     */
+    public static String key(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Read the next record
+     * @return The record, or null at the end of the file
+     */
+    public abstract Row next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
+
+    private static final class CsvReader extends RecordReader {
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private List<String> header;
+
+        private CsvReader(Reader reader) throws IOException {
+            super(reader);
+            this.in = reader;
+            List<String> names = readRecord();
+            if (names == null) {
+                header = List.of();
+                return;
+            }
+            // Drop a UTF-8 byte order mark
+            if (!names.isEmpty() && names.get(0).startsWith("\uFEFF")) {
+                names.set(0, names.get(0).substring(1));
+            }
+            header = names.stream().map(RecordReader::key).toList();
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isEmpty());
+
+            number++;
+            if (values.size() != header.size()) {
+                return new Row(number, Map.of(), "Expected " + header.size() + " fields but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>(header.size() * 2);
+            for (int i = 0; i < values.size(); i++) {
+                fields.put(header.get(i), blankToNull(values.get(i)));
+            }
+            return new Row(number, fields, null);
+        }
+
+        /**
+         * @return The fields of the next physical record, or null at the end of the file
+         */
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean afterQuote = false;
+            while (true) {
+                if (c < 0) {
+                    // The last record may lack a line break
+                    values.add(field.toString());
+                    return values;
+                }
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            afterQuote = true;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        field.append(ch);
+                    }
+                } else if (ch == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                    afterQuote = false;
+                } else if (ch == '\n' || ch == '\r') {
+                    if (ch == '\r') {
+                        int next = read();
+                        if (next != '\n' && next >= 0) {
+                            position--;
+                        }
+                    }
+                    values.add(field.toString());
+                    return values;
+                } else if (ch == '"' && field.isEmpty() && !afterQuote) {
+                    quoted = true;
+                } else {
+                    field.append(ch);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+
+    private static final class NdjsonReader extends RecordReader {
+        private final BufferedReader lines;
+        private final ObjectMapper objectMapper;
+
+        private NdjsonReader(Reader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.lines = new BufferedReader(reader, 8192);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            number++;
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new Row(number, Map.of(), "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Row(number, Map.of(), "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>(node.size() * 2);
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                JsonNode value = field.getValue();
+                String text = value.isNull() ? null : value.isValueNode() ? value.asText() : value.toString();
+                fields.put(key(field.getKey()), blankToNull(text));
+            }
+            return new Row(number, fields, null);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ClientNest.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-argument bean method as a job run by the {@link JobScheduler}.
+ *
+ * Exactly one of cron, fixedRate or fixedDelay must be set. All string attributes
+ * accept ${...} placeholders; durations are in milliseconds. A CLUSTER job runs on
+ * one node at a time, guarded by a lease row in job_lease, and each run is recorded
+ * in job_run. A NODE job looks after state local to the instance and runs on every
+ * node without a lease.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ScheduledJob {
+
+    enum Scope {
+        CLUSTER, NODE
+    }
+
+    /** Unique job name, also the lease key and the metrics tag */
+    String name();
+
+    Scope scope() default Scope.CLUSTER;
+
+    /** Six-field Spring cron expression */
+    String cron() default "";
+
+    /** Period between starts */
+    String fixedRate() default "";
+
+    /** Pause between the end of one run and the start of the next */
+    String fixedDelay() default "";
+
+    /** Delay before the first run of a fixed-rate or fixed-delay job */
+    String initialDelay() default "";
+
+    /** Longest a run may hold the lease, so a crashed node does not block the job forever */
+    String lockAtMost() default "";
+
+    /**
+     * Shortest time the lease is kept after a run starts, so nodes whose clocks or
+     * triggers differ slightly do not run the same occurrence again. Defaults to just
+     * under the period for fixed-rate and fixed-delay jobs.
+     */
+    String lockAtLeast() default "";
+}
@@ -0,0 +1,219 @@
+package com.example.ClientNest.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the physical table and column names used by the raw SQL reporting
+ * queries (lead vs leads, created_at vs creation_date, ...).
+ *
+ * The schema is read once from information_schema when the application is ready
+ * and kept in memory; call {@link #refresh()} after a migration to pick up changes.
+ */
+@Component
+public class SchemaCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCatalog.class);
+
+    private static final List<String> CREATED_COLUMNS = List.of("created_at", "creation_date", "created_date");
+    private static final List<String> INVOICE_DATE_COLUMNS = List.of("invoice_date", "date", "created_at");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Schema schema;
+
+    @Autowired
+    public SchemaCatalog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Get the resolved schema, loading it on first use if startup has not done so yet
+     * @return The current schema snapshot
+     */
+    public Schema current() {
+        Schema current = schema;
+        if (current == null) {
+            current = refresh();
+        }
+        return current;
+    }
+
+    /**
+     * Re-read table and column names from the database
+     * @return The new schema snapshot; if the database cannot be read, the previous one,
+     *         or an empty uncached one before the first successful read
+     */
+    public synchronized Schema refresh() {
+        Map<String, Set<String>> columnsByTable = new HashMap<>();
+        try {
+            jdbcTemplate.query(
+                    "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()",
+                    rs -> {
+                        String table = rs.getString(1).toLowerCase(Locale.ROOT);
+                        String column = rs.getString(2).toLowerCase(Locale.ROOT);
+                        columnsByTable.computeIfAbsent(table, t -> new HashSet<>()).add(column);
+                    });
+        } catch (Exception e) {
+            Schema previous = schema;
+            if (previous != null) {
+                logger.error("Error reading schema from information_schema, keeping the previous one", e);
+                return previous;
+            }
+            // Not cached, so the next current() tries again
+            logger.error("Error reading schema from information_schema, retrying on next use", e);
+            return new Schema(columnsByTable);
+        }
+
+        Schema resolved = new Schema(columnsByTable);
+        schema = resolved;
+        logger.info("Schema catalog loaded: {}", resolved);
+        return resolved;
+    }
+
+    /**
+     * Immutable view of the resolved table and column names.
+     * A null table or column means it does not exist in the database.
+     */
+    public static final class Schema {
+        private final Map<String, Set<String>> columnsByTable;
+
+        private final String leadTable;
+        private final String opportunityTable;
+        private final String customerTable;
+        private final String invoiceTable;
+        private final String productTable;
+        private final String categoryTable;
+        private final String employeeTable;
+        private final String callLogTable;
+
+        private final String leadCreatedColumn;
+        private final String customerCreatedColumn;
+        private final String invoiceDateColumn;
+
+        private Schema(Map<String, Set<String>> columnsByTable) {
+            Map<String, Set<String>> copy = new HashMap<>();
+            columnsByTable.forEach((table, columns) -> copy.put(table, Collections.unmodifiableSet(columns)));
+            this.columnsByTable = Collections.unmodifiableMap(copy);
+
+            this.leadTable = firstTable("leads", "lead");
+            this.opportunityTable = firstTable("opportunity", "opportunities");
+            this.customerTable = firstTable("customer", "customers");
+            this.invoiceTable = firstTable("invoice", "invoices");
+            this.productTable = firstTable("product", "products");
+            this.categoryTable = firstTable("category", "categories");
+            this.employeeTable = firstTable("employee", "employees");
+            this.callLogTable = firstTable("call_logs", "call_log");
+
+            this.leadCreatedColumn = firstColumn(leadTable, CREATED_COLUMNS);
+            this.customerCreatedColumn = firstColumn(customerTable, CREATED_COLUMNS);
+            this.invoiceDateColumn = firstColumn(invoiceTable, INVOICE_DATE_COLUMNS);
+        }
+
+        private String firstTable(String... candidates) {
+            for (String candidate : candidates) {
+                if (columnsByTable.containsKey(candidate)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        private String firstColumn(String table, List<String> candidates) {
+            for (String candidate : candidates) {
+                if (hasColumn(table, candidate)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        public boolean hasColumn(String table, String column) {
+            return table != null && columnsByTable.getOrDefault(table, Set.of()).contains(column);
+        }
+
+        public List<String> tables() {
+            return new ArrayList<>(columnsByTable.keySet());
+        }
+
+        public String leadTable() {
+            return leadTable;
+        }
+
+        public String opportunityTable() {
+            return opportunityTable;
+        }
+
+        public String customerTable() {
+            return customerTable;
+        }
+
+        public String invoiceTable() {
+            return invoiceTable;
+        }
+
+        public String productTable() {
+            return productTable;
+        }
+
+        public String categoryTable() {
+            return categoryTable;
+        }
+
+        public String employeeTable() {
+            return employeeTable;
+        }
+
+        public String callLogTable() {
+            return callLogTable;
+        }
+
+        public String leadCreatedColumn() {
+            return leadCreatedColumn;
+        }
+
+        public String customerCreatedColumn() {
+            return customerCreatedColumn;
+        }
+
+        public String invoiceDateColumn() {
+            return invoiceDateColumn;
+        }
+
+        @Override
+        public String toString() {
+            return "Schema{" +
+                    "leadTable=" + leadTable +
+                    ", opportunityTable=" + opportunityTable +
+                    ", customerTable=" + customerTable +
+                    ", invoiceTable=" + invoiceTable +
+                    ", productTable=" + productTable +
+                    ", categoryTable=" + categoryTable +
+                    ", employeeTable=" + employeeTable +
+                    ", callLogTable=" + callLogTable +
+                    ", leadCreatedColumn=" + leadCreatedColumn +
+                    ", customerCreatedColumn=" + customerCreatedColumn +
+                    ", invoiceDateColumn=" + invoiceDateColumn +
+                    '}';
+        }
+    }
+}
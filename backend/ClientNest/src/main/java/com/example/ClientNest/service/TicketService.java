@@ -1,10 +1,14 @@
 package com.example.ClientNest.service;
 
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.TicketDTO;
+import com.example.ClientNest.model.Ticket;
 import java.util.List;
 
 public interface TicketService {
     List<TicketDTO> getAllTickets();
+    CursorPageDTO<TicketDTO> getTicketPage(PageQuery page, Ticket.TicketStatus status, Long customerId, Long employeeId);
     TicketDTO getTicketById(Long id);
     TicketDTO createTicket(TicketDTO ticketDTO);
     TicketDTO updateTicket(Long id, TicketDTO ticketDTO);
@@ -0,0 +1,392 @@
+package com.example.ClientNest.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ClientNest.event.EntityChange;
+import com.example.ClientNest.event.EntityChangeObserver;
+import com.example.ClientNest.misc.RollupMetric;
+import com.example.ClientNest.misc.TimeBucket;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Invoice;
+import com.example.ClientNest.model.Lead;
+import com.example.ClientNest.model.Opportunity;
+import com.example.ClientNest.service.IncrementWriter.Increment;
+
+/**
+ * Keeps the daily_metric table (leads by source, new customers, opportunities by
+ * stage, paid sales, per day) in step with the base tables and answers bucketed
+ * range queries from it.
+ *
+ * A series over any range reads at most one row per day and dimension, however many
+ * leads or invoices the range covers; monthly growth and trends are month buckets of
+ * the same rows. Leads and opportunities are bucketed by their creation day under
+ * their current source/stage, so a stage change moves the count between stages on
+ * the day the opportunity was created. Rows without a date are kept on the UNDATED
+ * day, which only the all-time totals reach.
+ */
+@Component
+public class TimeBucketStore implements EntityChangeObserver, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeBucketStore.class);
+
+    // MySQL DATE range, used for a full rebuild
+    private static final LocalDate FULL_RANGE_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate FULL_RANGE_END = LocalDate.of(9999, 12, 30);
+    // Day that rows without a creation or invoice date are counted under
+    private static final LocalDate UNDATED = FULL_RANGE_START;
+
+    private static final String NO_DIMENSION = "";
+
+    private static final String UPSERT_SQL = "INSERT INTO daily_metric (metric, dimension, day, item_count, amount) "
+            + "VALUES (?, ?, ?, ?, ?) AS delta "
+            + "ON DUPLICATE KEY UPDATE item_count = daily_metric.item_count + delta.item_count, "
+            + "amount = daily_metric.amount + delta.amount";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final int reconcileDays;
+
+    private final IncrementWriter<Key> writer;
+
+    public TimeBucketStore(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SchemaCatalog schemaCatalog,
+            ReadCoalescer readCoalescer,
+            @Value("${clientnest.buckets.reconcile-days:35}") int reconcileDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.reconcileDays = reconcileDays;
+        // Cached dashboard reads are dropped again once the rows they read are written, not only at commit
+        this.writer = new IncrementWriter<>("daily-metric-writer", this::upsert,
+                () -> readCoalescer.invalidate(ReadCoalescer.Region.DASHBOARD));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        writer.seedIfEmpty("Daily metrics",
+                () -> jdbcTemplate.queryForList("SELECT id FROM daily_metric LIMIT 1", Long.class).isEmpty(),
+                () -> rebuildRange(FULL_RANGE_START, FULL_RANGE_END));
+    }
+
+    /**
+     * Get bucketed totals for a set of metrics
+     * @param metrics The metrics to read
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @param bucket Bucket size
+     * @return Points keyed by metric and dimension, one per bucket in the range including empty buckets
+     */
+    public Map<RollupMetric, Map<String, List<Point>>> series(List<RollupMetric> metrics, LocalDate from, LocalDate to,
+            TimeBucket bucket) {
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+            starts.add(start);
+        }
+
+        Map<RollupMetric, Map<String, Map<LocalDate, Point>>> found = new LinkedHashMap<>();
+        for (RollupMetric metric : metrics) {
+            found.put(metric, new LinkedHashMap<>());
+        }
+
+        String sql = String.format(
+                "SELECT metric, dimension, %s AS bucket_start, SUM(item_count) AS item_count, SUM(amount) AS amount "
+                        + "FROM daily_metric WHERE metric IN (%s) AND day >= ? AND day <= ? "
+                        + "GROUP BY metric, dimension, bucket_start",
+                bucketExpression(bucket), placeholders(metrics.size()));
+        List<Object> args = new ArrayList<>();
+        metrics.forEach(metric -> args.add(metric.name()));
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+
+        logger.debug("Executing SQL: {}", sql);
+        jdbcTemplate.query(sql, rs -> {
+            RollupMetric metric = RollupMetric.valueOf(rs.getString("metric"));
+            LocalDate start = rs.getDate("bucket_start").toLocalDate();
+            found.get(metric)
+                    .computeIfAbsent(rs.getString("dimension"), d -> new LinkedHashMap<>())
+                    .put(start, new Point(start, rs.getLong("item_count"), rs.getBigDecimal("amount")));
+        }, args.toArray());
+
+        // Unsplit metrics always get a series, even when the range is empty
+        Map<RollupMetric, Map<String, List<Point>>> result = new LinkedHashMap<>();
+        for (RollupMetric metric : metrics) {
+            Map<String, Map<LocalDate, Point>> byDimension = found.get(metric);
+            if (byDimension.isEmpty() && !isSplit(metric)) {
+                byDimension.put(NO_DIMENSION, Map.of());
+            }
+            Map<String, List<Point>> filled = new LinkedHashMap<>();
+            byDimension.forEach((dimension, points) -> {
+                List<Point> series = new ArrayList<>(starts.size());
+                for (LocalDate start : starts) {
+                    series.add(points.getOrDefault(start, new Point(start, 0, BigDecimal.ZERO)));
+                }
+                filled.put(dimension, series);
+            });
+            result.put(metric, filled);
+        }
+        return result;
+    }
+
+    /**
+     * Get bucketed totals for a set of metrics, summed over their dimensions
+     * @param metrics The metrics to read
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @param bucket Bucket size
+     * @return Points keyed by metric, one per bucket in the range including empty buckets
+     */
+    public Map<RollupMetric, List<Point>> totals(List<RollupMetric> metrics, LocalDate from, LocalDate to,
+            TimeBucket bucket) {
+        Map<RollupMetric, List<Point>> result = new LinkedHashMap<>();
+        series(metrics, from, to, bucket).forEach((metric, byDimension) -> {
+            List<Point> summed = null;
+            for (List<Point> points : byDimension.values()) {
+                if (summed == null) {
+                    summed = new ArrayList<>(points);
+                    continue;
+                }
+                for (int i = 0; i < points.size(); i++) {
+                    Point point = summed.get(i);
+                    Point other = points.get(i);
+                    summed.set(i, new Point(point.start(), point.count() + other.count(),
+                            point.amount().add(other.amount())));
+                }
+            }
+            if (summed == null) {
+                summed = new ArrayList<>();
+                for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+                    summed.add(new Point(start, 0, BigDecimal.ZERO));
+                }
+            }
+            result.put(metric, summed);
+        });
+        return result;
+    }
+
+    /**
+     * Get the total count per dimension of a split metric
+     * @param metric A metric split by dimension
+     * @param from First day, inclusive, or null for no lower bound, which includes undated rows
+     * @param to Last day, inclusive, or null for no upper bound
+     * @return Counts keyed by dimension, largest first
+     */
+    public Map<String, Long> totalsByDimension(RollupMetric metric, LocalDate from, LocalDate to) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT dimension, SUM(item_count) AS item_count FROM daily_metric "
+                        + "WHERE metric = ? AND day >= ? AND day <= ? GROUP BY dimension ORDER BY item_count DESC",
+                rs -> {
+                    long count = rs.getLong("item_count");
+                    if (count != 0) {
+                        result.put(rs.getString("dimension"), count);
+                    }
+                },
+                metric.name(),
+                Date.valueOf(from != null ? from : FULL_RANGE_START),
+                Date.valueOf(to != null ? to : FULL_RANGE_END));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Recompute a range of days from the base tables and wait for it to finish
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        writer.executeAndWait(() -> rebuildRange(from, to));
+    }
+
+    /**
+     * Recompute the most recent days, picking up anything the change events missed
+     */
+    @ScheduledJob(name = "daily-metric-reconcile", cron = "${clientnest.buckets.reconcile-cron:0 45 2 * * *}")
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(reconcileDays - 1), today);
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        List<Increment<Key>> increments = new ArrayList<>();
+        switch (change.getEntity()) {
+            case Lead lead -> dimensionChange(change, RollupMetric.NEW_LEADS, lead.getCreatedAt(),
+                    nameOf(lead.getSource()), nameOf(change.getPrevious("source")), increments);
+            case Opportunity opportunity -> dimensionChange(change, RollupMetric.NEW_OPPORTUNITIES,
+                    opportunity.getCreatedAt(), nameOf(opportunity.getStage()), nameOf(change.getPrevious("stage")),
+                    increments);
+            case Customer customer -> dimensionChange(change, RollupMetric.NEW_CUSTOMERS, customer.getCreatedAt(),
+                    NO_DIMENSION, NO_DIMENSION, increments);
+            case Invoice invoice -> invoiceChange(change, invoice, increments);
+            default -> {
+                return;
+            }
+        }
+        writer.add(increments);
+    }
+
+    @Override
+    public void destroy() {
+        writer.shutdown();
+    }
+
+    // Increments for a single change
+
+    private void dimensionChange(EntityChange change, RollupMetric metric, LocalDateTime createdAt,
+            String dimension, String previousDimension, List<Increment<Key>> increments) {
+        LocalDate day = createdAt != null ? createdAt.toLocalDate() : UNDATED;
+        switch (change.getType()) {
+            case INSERT -> increments.add(new Increment<>(new Key(metric, dimension, day), 1, BigDecimal.ZERO));
+            case DELETE -> increments.add(new Increment<>(new Key(metric, dimension, day), -1, BigDecimal.ZERO));
+            case UPDATE -> {
+                // Creation dates are not updatable, only a dimension change moves the count
+                if (change.hasPreviousState() && !dimension.equals(previousDimension)) {
+                    increments.add(new Increment<>(new Key(metric, previousDimension, day), -1, BigDecimal.ZERO));
+                    increments.add(new Increment<>(new Key(metric, dimension, day), 1, BigDecimal.ZERO));
+                }
+            }
+        }
+    }
+
+    private void invoiceChange(EntityChange change, Invoice invoice, List<Increment<Key>> increments) {
+        switch (change.getType()) {
+            case INSERT -> paidSale(invoice.getStatus(), invoice.getInvoiceDate(), invoice.getTotal(), 1, increments);
+            case DELETE -> paidSale(invoice.getStatus(), invoice.getInvoiceDate(), invoice.getTotal(), -1, increments);
+            case UPDATE -> {
+                if (!change.hasPreviousState()) {
+                    return;
+                }
+                paidSale(invoice.getStatus(), invoice.getInvoiceDate(), invoice.getTotal(), 1, increments);
+                paidSale((String) change.getPrevious("status"), (LocalDate) change.getPrevious("invoiceDate"),
+                        (Double) change.getPrevious("total"), -1, increments);
+            }
+        }
+    }
+
+    private void paidSale(String status, LocalDate invoiceDate, Double total, long sign, List<Increment<Key>> increments) {
+        if (!"PAID".equals(status) || total == null) {
+            return;
+        }
+        BigDecimal amount = BigDecimal.valueOf(total).multiply(BigDecimal.valueOf(sign));
+        increments.add(new Increment<>(new Key(RollupMetric.PAID_SALES, NO_DIMENSION,
+                invoiceDate != null ? invoiceDate : UNDATED), sign, amount));
+    }
+
+    private static String nameOf(Object value) {
+        return value instanceof Enum<?> e ? e.name() : value != null ? value.toString() : NO_DIMENSION;
+    }
+
+    private static boolean isSplit(RollupMetric metric) {
+        return metric == RollupMetric.NEW_LEADS || metric == RollupMetric.NEW_OPPORTUNITIES;
+    }
+
+    // Writer thread
+
+    private void upsert(List<Increment<Key>> batch) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, increment) -> {
+            ps.setString(1, increment.key().metric().name());
+            ps.setString(2, increment.key().dimension());
+            ps.setDate(3, Date.valueOf(increment.key().day()));
+            ps.setLong(4, increment.count());
+            ps.setBigDecimal(5, increment.amount());
+        });
+    }
+
+    private void rebuildRange(LocalDate from, LocalDate to) {
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+        String leadTable = schema.leadTable();
+        String opportunityTable = schema.opportunityTable();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            rebuildMetric(RollupMetric.NEW_LEADS, leadTable, schema.leadCreatedColumn(),
+                    schema.hasColumn(leadTable, "source") ? "source" : null, "COUNT(*)", "0", null, from, to);
+            rebuildMetric(RollupMetric.NEW_CUSTOMERS, schema.customerTable(), schema.customerCreatedColumn(),
+                    null, "COUNT(*)", "0", null, from, to);
+            rebuildMetric(RollupMetric.NEW_OPPORTUNITIES, opportunityTable,
+                    schema.hasColumn(opportunityTable, "created_at") ? "created_at" : null,
+                    schema.hasColumn(opportunityTable, "stage") ? "stage" : null, "COUNT(*)", "0", null, from, to);
+            rebuildMetric(RollupMetric.PAID_SALES, schema.invoiceTable(), schema.invoiceDateColumn(),
+                    null, "COUNT(total)", "COALESCE(SUM(total), 0)", "status = 'PAID' AND total IS NOT NULL", from, to);
+        });
+        logger.info("Rebuilt daily metrics from {} to {}", from, to);
+    }
+
+    private void rebuildMetric(RollupMetric metric, String table, String dateColumn, String dimensionColumn,
+            String countExpression, String amountExpression, String condition, LocalDate from, LocalDate to) {
+        if (table == null || dateColumn == null) {
+            logger.debug("No table or date column for {}, skipping rebuild", metric);
+            return;
+        }
+
+        LocalDate end = to.plusDays(1);
+        jdbcTemplate.update("UPDATE daily_metric SET item_count = 0, amount = 0 WHERE metric = ? AND day >= ? AND day < ?",
+                metric.name(), Date.valueOf(from), Date.valueOf(end));
+
+        // Plain range on the date column so an index on it can be used
+        String dimension = dimensionColumn != null ? "COALESCE(" + dimensionColumn + ", '')" : "''";
+        String sql = String.format(
+                "INSERT INTO daily_metric (metric, dimension, day, item_count, amount) "
+                        + "SELECT * FROM (SELECT ? AS metric, %2$s AS dimension, DATE(%1$s) AS day, "
+                        + "%3$s AS item_count, %4$s AS amount FROM %5$s "
+                        + "WHERE %1$s >= ? AND %1$s < ?%6$s GROUP BY %2$s, DATE(%1$s)) AS source "
+                        + "ON DUPLICATE KEY UPDATE item_count = source.item_count, amount = source.amount",
+                dateColumn, dimension, countExpression, amountExpression, table,
+                condition != null ? " AND " + condition : "");
+        logger.debug("Executing SQL: {}", sql);
+        jdbcTemplate.update(sql, metric.name(), Date.valueOf(from), Date.valueOf(end));
+
+        if (!from.isAfter(UNDATED)) {
+            String undatedSql = String.format(
+                    "INSERT INTO daily_metric (metric, dimension, day, item_count, amount) "
+                            + "SELECT * FROM (SELECT ? AS metric, %2$s AS dimension, ? AS day, "
+                            + "%3$s AS item_count, %4$s AS amount FROM %5$s "
+                            + "WHERE %1$s IS NULL%6$s GROUP BY %2$s) AS source "
+                            + "ON DUPLICATE KEY UPDATE item_count = source.item_count, amount = source.amount",
+                    dateColumn, dimension, countExpression, amountExpression, table,
+                    condition != null ? " AND " + condition : "");
+            jdbcTemplate.update(undatedSql, metric.name(), Date.valueOf(UNDATED));
+        }
+    }
+
+    private static String bucketExpression(TimeBucket bucket) {
+        return switch (bucket) {
+            case DAY -> "day";
+            case WEEK -> "DATE_SUB(day, INTERVAL WEEKDAY(day) DAY)";
+            case MONTH -> "DATE_SUB(day, INTERVAL DAYOFMONTH(day) - 1 DAY)";
+            case QUARTER -> "MAKEDATE(YEAR(day), 1) + INTERVAL QUARTER(day) - 1 QUARTER";
+        };
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private record Key(RollupMetric metric, String dimension, LocalDate day) {
+    }
+
+    /**
+     * Totals for one bucket
+     */
+    public record Point(LocalDate start, long count, BigDecimal amount) {
+    }
+}
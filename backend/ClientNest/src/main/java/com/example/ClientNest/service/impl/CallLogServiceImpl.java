@@ -1,6 +1,8 @@
 package com.example.ClientNest.service.impl;
 
 import com.example.ClientNest.dto.CallLogDTO;
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.model.CallLog;
 import com.example.ClientNest.model.CallLog.CallType;
 import com.example.ClientNest.model.Customer;
@@ -8,14 +10,19 @@ import com.example.ClientNest.model.Employee;
 import com.example.ClientNest.repository.CallLogRepository;
 import com.example.ClientNest.repository.CustomerRepository;
 import com.example.ClientNest.repository.EmployeeRepository;
+import com.example.ClientNest.repository.ListSpecifications;
 import com.example.ClientNest.service.CallLogService;
+import com.example.ClientNest.service.KeysetPager;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Optional;
 
@@ -30,6 +37,13 @@ public class CallLogServiceImpl implements CallLogService {
     
     @Autowired
     private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    private static final Set<String> SORTABLE = Set.of("id", "dateTime");
+    // Date range pages follow the (customer_id|employee_id, date_time) indexes
+    private static final Set<String> RANGE_SORTABLE = Set.of("dateTime");
     
     // Helper method to convert CallLog entity to DTO
     private CallLogDTO convertToDTO(CallLog callLog) {
@@ -115,6 +129,20 @@ public class CallLogServiceImpl implements CallLogService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<CallLogDTO> getCallLogPage(PageQuery page, CallType type, Long customerId, Long employeeId,
+            LocalDate from, LocalDate to) {
+        Specification<CallLog> filter = Specification.allOf(
+                ListSpecifications.equal("type", type),
+                ListSpecifications.idEquals("customer", customerId),
+                ListSpecifications.idEquals("employee", employeeId),
+                ListSpecifications.range("dateTime",
+                        from != null ? from.atStartOfDay() : null,
+                        to != null ? to.plusDays(1).atStartOfDay() : null));
+        return keysetPager.page(callLogRepository, CallLog.class, filter, page, SORTABLE, "id",
+                this::convertToDTO, "customer", "employee");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<CallLogDTO> getCallLogsByCustomerId(Long customerId) {
@@ -198,21 +226,20 @@ public class CallLogServiceImpl implements CallLogService {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<CallLogDTO> getCallLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        List<CallLog> callLogs = callLogRepository.findByDateTimeBetween(startDate, endDate);
-        return callLogs.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<CallLogDTO> getCallLogsByDateRange(PageQuery page, LocalDateTime startDate, LocalDateTime endDate) {
+        return getDateRangePage(page, null, null, startDate, endDate);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<CallLogDTO> getCallLogsByCustomerIdAndDateRange(Long customerId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<CallLog> callLogs = callLogRepository.findByCustomerIdAndDateTimeBetween(customerId, startDate, endDate);
-        return callLogs.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<CallLogDTO> getCallLogsByCustomerIdAndDateRange(PageQuery page, Long customerId,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        return getDateRangePage(page, customerId, null, startDate, endDate);
+    }
+
+    @Override
+    public CursorPageDTO<CallLogDTO> getCallLogsByEmployeeIdAndDateRange(PageQuery page, Long employeeId,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        return getDateRangePage(page, null, employeeId, startDate, endDate);
     }
 
     @Override
@@ -234,11 +261,34 @@ public class CallLogServiceImpl implements CallLogService {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<CallLogDTO> getCallLogsByCustomerEmailAndDateRange(String email, LocalDateTime startDate, LocalDateTime endDate) {
-        List<CallLog> callLogs = callLogRepository.findByCustomerEmailAndDateTimeBetween(email, startDate, endDate);
-        return callLogs.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<CallLogDTO> getCallLogsByCustomerEmailAndDateRange(PageQuery page, String email,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        // Resolved up front so the page is read by customer id rather than through a join
+        Optional<Customer> customer = customerRepository.findByEmail(email);
+        if (customer.isEmpty()) {
+            return CursorPageDTO.<CallLogDTO>builder()
+                    .items(List.of())
+                    .size(0)
+                    .sort("dateTime,asc")
+                    .build();
+        }
+        return getDateRangePage(page, customer.get().getId(), null, startDate, endDate);
+    }
+
+    /**
+     * Read one page of an inclusive date range, ordered by date and time. The
+     * range only touches the monthly partitions it overlaps.
+     */
+    private CursorPageDTO<CallLogDTO> getDateRangePage(PageQuery page, Long customerId, Long employeeId,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Range start " + startDate + " is after its end " + endDate);
+        }
+        Specification<CallLog> filter = Specification.allOf(
+                ListSpecifications.idEquals("customer", customerId),
+                ListSpecifications.idEquals("employee", employeeId),
+                ListSpecifications.between("dateTime", startDate, endDate));
+        return keysetPager.page(callLogRepository, CallLog.class, filter, page, RANGE_SORTABLE, "dateTime",
+                this::convertToDTO, "customer", "employee");
     }
 }
\ No newline at end of file
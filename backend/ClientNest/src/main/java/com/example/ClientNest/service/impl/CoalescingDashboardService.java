@@ -0,0 +1,84 @@
+package com.example.ClientNest.service.impl;
+
+import com.example.ClientNest.dto.DashboardDTO;
+import com.example.ClientNest.dto.EmployeeDashboardDTO;
+import com.example.ClientNest.dto.GrowthDTO;
+import com.example.ClientNest.dto.TrendPointDTO;
+import com.example.ClientNest.misc.TimeBucket;
+import com.example.ClientNest.service.DashboardService;
+import com.example.ClientNest.service.EmployeeMetricsStore;
+import com.example.ClientNest.service.ReadCoalescer;
+import com.example.ClientNest.service.ReadCoalescer.Region;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dashboard reads shared between concurrent identical requests and cached for a few
+ * seconds; see {@link ReadCoalescer}.
+ */
+@Service
+@Primary
+public class CoalescingDashboardService implements DashboardService {
+
+    private final DashboardServiceImpl delegate;
+    private final ReadCoalescer readCoalescer;
+
+    public CoalescingDashboardService(DashboardServiceImpl delegate, ReadCoalescer readCoalescer) {
+        this.delegate = delegate;
+        this.readCoalescer = readCoalescer;
+    }
+
+    @Override
+    public DashboardDTO getDashboardData() {
+        return getDashboardData(null, null, TimeBucket.DAY);
+    }
+
+    @Override
+    public DashboardDTO getDashboardData(LocalDate from, LocalDate to, TimeBucket bucket) {
+        return readCoalescer.get(Region.DASHBOARD, Arrays.asList("dashboard", from, to, bucket),
+                () -> delegate.getDashboardData(from, to, bucket));
+    }
+
+    @Override
+    public GrowthDTO getGrowthData() {
+        return readCoalescer.get(Region.DASHBOARD, "growth", delegate::getGrowthData);
+    }
+
+    @Override
+    public List<TrendPointDTO> getMonthlyTrends(YearMonth from, YearMonth to) {
+        return readCoalescer.get(Region.DASHBOARD, Arrays.asList("trends", from, to),
+                () -> delegate.getMonthlyTrends(from, to));
+    }
+
+    @Override
+    public List<DashboardDTO.ChartDataDTO> getLeadsBySource() {
+        return readCoalescer.get(Region.DASHBOARD, "leadsBySource", delegate::getLeadsBySource);
+    }
+
+    @Override
+    public List<DashboardDTO.ChartDataDTO> getProductsByCategory() {
+        return readCoalescer.get(Region.DASHBOARD, "productsByCategory", delegate::getProductsByCategory);
+    }
+
+    @Override
+    public List<DashboardDTO.ChartDataDTO> getOpportunitiesByStage() {
+        return readCoalescer.get(Region.DASHBOARD, "opportunitiesByStage", delegate::getOpportunitiesByStage);
+    }
+
+    // Already served from memory, nothing to share
+
+    @Override
+    public EmployeeDashboardDTO getEmployeeDashboard(Long employeeId) {
+        return delegate.getEmployeeDashboard(employeeId);
+    }
+
+    @Override
+    public List<EmployeeDashboardDTO> getLeaderboard(EmployeeMetricsStore.Ranking ranking, int limit) {
+        return delegate.getLeaderboard(ranking, limit);
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.ClientNest.service.impl;
 
 import com.example.ClientNest.dto.DashboardDTO;
+import com.example.ClientNest.dto.EmployeeDashboardDTO;
 import com.example.ClientNest.dto.GrowthDTO;
+import com.example.ClientNest.dto.TimeSeriesDTO;
+import com.example.ClientNest.dto.TrendPointDTO;
+import com.example.ClientNest.misc.RollupMetric;
+import com.example.ClientNest.misc.TimeBucket;
 import com.example.ClientNest.repository.CategoryRepository;
 import com.example.ClientNest.repository.EmployeeRepository;
+import com.example.ClientNest.service.DashboardQueryExecutor;
 import com.example.ClientNest.service.DashboardService;
+import com.example.ClientNest.service.EmployeeMetricsStore;
+import com.example.ClientNest.service.KpiStore;
+import com.example.ClientNest.service.SchemaCatalog;
+import com.example.ClientNest.service.TimeBucketStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import jakarta.persistence.EntityNotFoundException;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -23,108 +36,140 @@ public class DashboardServiceImpl implements DashboardService {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardServiceImpl.class);
 
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    private static final int MAX_BUCKETS = 1000;
+    private static final List<RollupMetric> SERIES_METRICS = List.of(
+            RollupMetric.NEW_LEADS, RollupMetric.NEW_CUSTOMERS, RollupMetric.NEW_OPPORTUNITIES, RollupMetric.PAID_SALES);
+    private static final List<RollupMetric> MONTHLY_METRICS = List.of(
+            RollupMetric.NEW_CUSTOMERS, RollupMetric.NEW_LEADS, RollupMetric.PAID_SALES);
+
     private final JdbcTemplate jdbcTemplate;
+    private final SchemaCatalog schemaCatalog;
+    private final DashboardQueryExecutor queryExecutor;
+    private final KpiStore kpiStore;
+    private final TimeBucketStore timeBucketStore;
+    private final EmployeeMetricsStore employeeMetricsStore;
 
     @Autowired
     public DashboardServiceImpl(
             JdbcTemplate jdbcTemplate,
+            SchemaCatalog schemaCatalog,
+            DashboardQueryExecutor queryExecutor,
+            KpiStore kpiStore,
+            TimeBucketStore timeBucketStore,
+            EmployeeMetricsStore employeeMetricsStore,
             CategoryRepository categoryRepository,
             EmployeeRepository employeeRepository) {
         this.jdbcTemplate = jdbcTemplate;
+        this.schemaCatalog = schemaCatalog;
+        this.queryExecutor = queryExecutor;
+        this.kpiStore = kpiStore;
+        this.timeBucketStore = timeBucketStore;
+        this.employeeMetricsStore = employeeMetricsStore;
     }
 
     @Override
     public DashboardDTO getDashboardData() {
-        // Create DTO builder
-        DashboardDTO.DashboardDTOBuilder builder = DashboardDTO.builder();
+        return getDashboardData(null, null, TimeBucket.DAY);
+    }
+
+    @Override
+    public DashboardDTO getDashboardData(LocalDate from, LocalDate to, TimeBucket bucket) {
+        // Without a range the charts cover all time and the series the last 30 days
+        boolean ranged = from != null || to != null;
+        LocalDate seriesTo = to != null ? to : LocalDate.now();
+        LocalDate seriesFrom = from != null ? from : seriesTo.minusDays(DEFAULT_RANGE_DAYS - 1);
+        validateRange(seriesFrom, seriesTo, bucket);
+        LocalDate chartFrom = ranged ? seriesFrom : null;
+        LocalDate chartTo = ranged ? seriesTo : null;
+
+        // Headline numbers are kept in memory, growth, charts and series come from
+        // the daily buckets
+        DashboardQueryExecutor.Batch batch = queryExecutor.newBatch();
+
+        var growthQuery = batch.submit("growth", this::loadGrowth);
+        var seriesQuery = batch.submit("series", () -> loadSeries(seriesFrom, seriesTo, bucket));
+
+        var leadsBySourceQuery = batch.submit("leadsBySource", () -> loadLeadsBySource(chartFrom, chartTo));
+        var productsByCategoryQuery = batch.submit("productsByCategory", this::loadProductsByCategory);
+        var opportunitiesByStageQuery = batch.submit("opportunitiesByStage", () -> loadOpportunitiesByStage(chartFrom, chartTo));
+
+        KpiStore.Snapshot kpis = kpiStore.snapshot();
+        long totalLeads = kpis.getTotalLeads();
+        long totalOpportunities = kpis.getTotalOpportunities();
+        long totalCustomers = kpis.getTotalCustomers();
+        BigDecimal totalSales = kpis.getTotalSales();
+        BigDecimal averageOrderValue = kpis.getAverageOrderValue();
+
+        GrowthDTO growth = batch.get(growthQuery, new GrowthDTO());
+
+        List<DashboardDTO.ChartDataDTO> leadsBySource = batch.get(leadsBySourceQuery, new ArrayList<>());
+        List<DashboardDTO.ChartDataDTO> productsByCategory = batch.get(productsByCategoryQuery, new ArrayList<>());
+        List<DashboardDTO.ChartDataDTO> opportunitiesByStage = batch.get(opportunitiesByStageQuery, new ArrayList<>());
+
+        // Log results for debugging
+        logger.info("Dashboard data retrieved - Leads: {}, Opportunities: {}, Customers: {}, Sales: {}",
+            totalLeads, totalOpportunities, totalCustomers, totalSales);
+        if (batch.isDegraded()) {
+            logger.warn("Dashboard data is partial, unavailable metrics: {}", batch.getFailedQueries());
+        }
 
+        return DashboardDTO.builder()
+                .totalLeads(totalLeads)
+                .totalOpportunities(totalOpportunities)
+                .totalCustomers(totalCustomers)
+                .totalSales(totalSales)
+                .averageOrderValue(averageOrderValue)
+                .customerGrowth(growth.getCustomers())
+                .leadGrowth(growth.getLeads())
+                .salesGrowth(growth.getSales())
+                .leadsBySource(leadsBySource)
+                .productsByCategory(productsByCategory)
+                .opportunitiesByStage(opportunitiesByStage)
+                .from(seriesFrom.toString())
+                .to(seriesTo.toString())
+                .bucket(bucket.name())
+                .series(batch.get(seriesQuery, new ArrayList<>()))
+                .degraded(batch.isDegraded())
+                .unavailableMetrics(batch.getFailedQueries().stream().distinct().toList())
+                .build();
+    }
+
+    @Override
+    public GrowthDTO getGrowthData() {
         try {
-            // Get counts
-            long totalLeads = countLeads();
-            long totalOpportunities = countOpportunities();
-            long totalCustomers = countCustomers();
-            BigDecimal totalSales = calculateTotalSales();
-            BigDecimal averageOrderValue = calculateAverageOrderValue();
-    
-            // Get growth percentages
-            int customerGrowth = calculateCustomerGrowth();
-            int leadGrowth = calculateLeadGrowth();
-            int salesGrowth = calculateSalesGrowth();
-    
-            // Get chart data
-            List<DashboardDTO.ChartDataDTO> leadsBySource = getLeadsBySource();
-            List<DashboardDTO.ChartDataDTO> productsByCategory = getProductsByCategory();
-            List<DashboardDTO.ChartDataDTO> opportunitiesByStage = getOpportunitiesByStage();
-    
-            // Log results for debugging
-            logger.info("Dashboard data retrieved - Leads: {}, Opportunities: {}, Customers: {}, Sales: {}", 
-                totalLeads, totalOpportunities, totalCustomers, totalSales);
-            
-            // Build and return the DTO
-            return builder
-                    .totalLeads(totalLeads)
-                    .totalOpportunities(totalOpportunities)
-                    .totalCustomers(totalCustomers)
-                    .totalSales(totalSales)
-                    .averageOrderValue(averageOrderValue)
-                    .customerGrowth(customerGrowth)
-                    .leadGrowth(leadGrowth)
-                    .salesGrowth(salesGrowth)
-                    .leadsBySource(leadsBySource)
-                    .productsByCategory(productsByCategory)
-                    .opportunitiesByStage(opportunitiesByStage)
-                    .build();
+            return loadGrowth();
         } catch (Exception e) {
-            logger.error("Error retrieving dashboard data", e);
-            throw e;
+            logger.error("Error getting growth data", e);
+            return new GrowthDTO();
         }
     }
 
     @Override
-    public GrowthDTO getGrowthData() {
-        return GrowthDTO.builder()
-                .customers(calculateCustomerGrowth())
-                .leads(calculateLeadGrowth())
-                .sales(calculateSalesGrowth())
-                .build();
+    public List<TrendPointDTO> getMonthlyTrends(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Trend range start " + from + " is after its end " + to);
+        }
+
+        Map<RollupMetric, List<TimeBucketStore.Point>> totals = monthlyTotals(from, to);
+
+        List<TrendPointDTO> result = new ArrayList<>();
+        for (int i = 0; !from.plusMonths(i).isAfter(to); i++) {
+            result.add(TrendPointDTO.builder()
+                    .month(from.plusMonths(i).toString())
+                    .newCustomers(totals.get(RollupMetric.NEW_CUSTOMERS).get(i).count())
+                    .newLeads(totals.get(RollupMetric.NEW_LEADS).get(i).count())
+                    .paidInvoices(totals.get(RollupMetric.PAID_SALES).get(i).count())
+                    .paidSales(totals.get(RollupMetric.PAID_SALES).get(i).amount())
+                    .build());
+        }
+        return result;
     }
 
     @Override
     public List<DashboardDTO.ChartDataDTO> getLeadsBySource() {
         try {
-            List<DashboardDTO.ChartDataDTO> result = new ArrayList<>();
-            
-            List<String> tables = listTables();
-            logger.debug("Tables in database: {}", tables);
-            
-            String tableName = "lead";
-            if (!tables.contains("lead") && tables.contains("leads")) {
-                tableName = "leads";
-            }
-            
-            // Check columns
-            List<String> columns = listColumns(tableName);
-            logger.debug("Columns in {} table: {}", tableName, columns);
-            
-            if (!columns.contains("source")) {
-                logger.error("Source column not found in {} table", tableName);
-                return new ArrayList<>();
-            }
-            
-            String sql = String.format("SELECT source, COUNT(*) as count FROM %s GROUP BY source ORDER BY count DESC LIMIT 5", tableName);
-            logger.debug("Executing SQL for leads by source: {}", sql);
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-            
-            logger.debug("Leads by source results: {}", rows);
-
-            for (Map<String, Object> row : rows) {
-                result.add(DashboardDTO.ChartDataDTO.builder()
-                        .source((String) row.get("source"))
-                        .value(((Number) row.get("count")).longValue())
-                        .build());
-            }
-            
-            return result;
+            return loadLeadsBySource(null, null);
         } catch (Exception e) {
             logger.error("Error getting leads by source", e);
             return new ArrayList<>();
@@ -134,46 +179,7 @@ public class DashboardServiceImpl implements DashboardService {
     @Override
     public List<DashboardDTO.ChartDataDTO> getProductsByCategory() {
         try {
-            List<DashboardDTO.ChartDataDTO> result = new ArrayList<>();
-            
-            // First check if the tables exist
-            List<String> tables = listTables();
-            logger.debug("Tables in database for product category check: {}", tables);
-            
-            if (!tables.contains("product") || !tables.contains("category")) {
-                logger.error("Required tables (product, category) not found");
-                return new ArrayList<>();
-            }
-            
-            // Check if the columns exist
-            List<String> productColumns = listColumns("product");
-            List<String> categoryColumns = listColumns("category");
-            
-            logger.debug("Columns in product table: {}", productColumns);
-            logger.debug("Columns in category table: {}", categoryColumns);
-            
-            if (!productColumns.contains("category_id") || !categoryColumns.contains("name")) {
-                logger.error("Required columns not found in product or category tables");
-                return new ArrayList<>();
-            }
-            
-            String sql = "SELECT c.name as category, COUNT(p.id) as count " +
-                    "FROM product p JOIN category c ON p.category_id = c.id " +
-                    "GROUP BY c.name ORDER BY count DESC LIMIT 5";
-            
-            logger.debug("Executing SQL for products by category: {}", sql);
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-            
-            logger.debug("Products by category results: {}", rows);
-
-            for (Map<String, Object> row : rows) {
-                result.add(DashboardDTO.ChartDataDTO.builder()
-                        .category((String) row.get("category"))
-                        .value(((Number) row.get("count")).longValue())
-                        .build());
-            }
-
-            return result;
+            return loadProductsByCategory();
         } catch (Exception e) {
             logger.error("Error getting products by category", e);
             return new ArrayList<>();
@@ -183,325 +189,147 @@ public class DashboardServiceImpl implements DashboardService {
     @Override
     public List<DashboardDTO.ChartDataDTO> getOpportunitiesByStage() {
         try {
-            List<DashboardDTO.ChartDataDTO> result = new ArrayList<>();
-            
-            // Check if the opportunity table exists
-            List<String> tables = listTables();
-            logger.debug("Tables in database for opportunity stage check: {}", tables);
-            
-            String tableName = "opportunity";
-            if (!tables.contains("opportunity") && tables.contains("opportunities")) {
-                tableName = "opportunities";
-            }
-            
-            // Check columns
-            List<String> columns = listColumns(tableName);
-            logger.debug("Columns in {} table: {}", tableName, columns);
-            
-            if (!columns.contains("stage")) {
-                logger.error("Stage column not found in {} table", tableName);
-                return new ArrayList<>();
-            }
-            
-            String sql = String.format("SELECT stage, COUNT(*) as count FROM %s GROUP BY stage ORDER BY count DESC", tableName);
-            logger.debug("Executing SQL for opportunities by stage: {}", sql);
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-            
-            logger.debug("Opportunities by stage results: {}", rows);
-
-            for (Map<String, Object> row : rows) {
-                result.add(DashboardDTO.ChartDataDTO.builder()
-                        .stage((String) row.get("stage"))
-                        .value(((Number) row.get("count")).longValue())
-                        .build());
-            }
-
-            return result;
+            return loadOpportunitiesByStage(null, null);
         } catch (Exception e) {
             logger.error("Error getting opportunities by stage", e);
             return new ArrayList<>();
         }
     }
 
-    // Helper methods to fetch data from repositories
+    @Override
+    public EmployeeDashboardDTO getEmployeeDashboard(Long employeeId) {
+        return employeeMetricsStore.get(employeeId)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found with id: " + employeeId));
+    }
 
-    private long countLeads() {
-        try {
-            String sql = "SELECT COUNT(*) FROM leads WHERE status = 'ACTIVE'";
-            logger.debug("Executing SQL: {}", sql);
-            Long count = jdbcTemplate.queryForObject(sql, Long.class);
-            logger.debug("Lead count result: {}", count);
-            return count != null ? count : 0;
-        } catch (DataAccessException e) {
-            logger.error("Error counting leads", e);
-            
-            // Try alternative table name
-            try {
-                String sql = "SELECT COUNT(*) FROM lead";
-                logger.debug("Trying alternative SQL: {}", sql);
-                Long count = jdbcTemplate.queryForObject(sql, Long.class);
-                logger.debug("Lead count result with alternative query: {}", count);
-                return count != null ? count : 0;
-            } catch (DataAccessException ex) {
-                logger.error("Error counting leads with alternative query", ex);
-                return 0;
-            }
-        }
+    @Override
+    public List<EmployeeDashboardDTO> getLeaderboard(EmployeeMetricsStore.Ranking ranking, int limit) {
+        return employeeMetricsStore.leaderboard(ranking, limit);
     }
 
-    private long countOpportunities() {
-        try {
-            String sql = "SELECT COUNT(*) FROM opportunities";
-            logger.debug("Executing SQL: {}", sql);
-            Long count = jdbcTemplate.queryForObject(sql, Long.class);
-            logger.debug("Opportunities count result: {}", count);
-            return count != null ? count : 0;
-        } catch (DataAccessException e) {
-            logger.error("Error counting opportunities", e);
-            
-            // Try alternative table name
-            try {
-                String sql = "SELECT COUNT(*) FROM opportunity";
-                logger.debug("Trying alternative SQL: {}", sql);
-                Long count = jdbcTemplate.queryForObject(sql, Long.class);
-                logger.debug("Opportunities count result with alternative query: {}", count);
-                return count != null ? count : 0;
-            } catch (DataAccessException ex) {
-                logger.error("Error counting opportunities with alternative query", ex);
-                return 0;
-            }
-        }
+    // Chart queries, errors are left to the caller
+
+    private List<DashboardDTO.ChartDataDTO> loadLeadsBySource(LocalDate from, LocalDate to) {
+        return timeBucketStore.totalsByDimension(RollupMetric.NEW_LEADS, from, to).entrySet().stream()
+                .limit(5)
+                .map(entry -> DashboardDTO.ChartDataDTO.builder()
+                        .source(entry.getKey())
+                        .value(entry.getValue())
+                        .build())
+                .toList();
     }
 
-    private long countCustomers() {
-        try {
-            String sql = "SELECT COUNT(*) FROM customers";
-            logger.debug("Executing SQL: {}", sql);
-            Long count = jdbcTemplate.queryForObject(sql, Long.class);
-            logger.debug("Customers count result: {}", count);
-            return count != null ? count : 0;
-        } catch (DataAccessException e) {
-            logger.error("Error counting customers", e);
-            
-            // Try alternative table name
-            try {
-                String sql = "SELECT COUNT(*) FROM customer";
-                logger.debug("Trying alternative SQL: {}", sql);
-                Long count = jdbcTemplate.queryForObject(sql, Long.class);
-                logger.debug("Customers count result with alternative query: {}", count);
-                return count != null ? count : 0;
-            } catch (DataAccessException ex) {
-                logger.error("Error counting customers with alternative query", ex);
-                return 0;
-            }
+    private List<DashboardDTO.ChartDataDTO> loadProductsByCategory() {
+        List<DashboardDTO.ChartDataDTO> result = new ArrayList<>();
+        SchemaCatalog.Schema schema = schemaCatalog.current();
+
+        String productTable = schema.productTable();
+        String categoryTable = schema.categoryTable();
+
+        String sql;
+        if (schema.hasColumn(productTable, "category_id") && schema.hasColumn(categoryTable, "name")) {
+            sql = String.format("SELECT c.name as category, COUNT(p.id) as count " +
+                    "FROM %s p JOIN %s c ON p.category_id = c.id " +
+                    "GROUP BY c.name ORDER BY count DESC LIMIT 5", productTable, categoryTable);
+        } else if (schema.hasColumn(productTable, "category")) {
+            // Products store the category name directly
+            sql = String.format("SELECT category, COUNT(*) as count " +
+                    "FROM %s GROUP BY category ORDER BY count DESC LIMIT 5", productTable);
+        } else {
+            logger.error("Required product/category columns not found");
+            return result;
         }
-    }
 
-    private BigDecimal calculateTotalSales() {
-        try {
-            String sql = "SELECT COALESCE(SUM(total), 0) FROM invoices WHERE status = 'PAID'";
-            logger.debug("Executing SQL: {}", sql);
-            BigDecimal total = jdbcTemplate.queryForObject(sql, BigDecimal.class);
-            logger.debug("Total sales result: {}", total);
-            return total != null ? total : BigDecimal.ZERO;
-        } catch (DataAccessException e) {
-            logger.error("Error calculating total sales", e);
-            
-            // Try alternative table name
-            try {
-                String sql = "SELECT COALESCE(SUM(total), 0) FROM invoice WHERE status = 'PAID'";
-                logger.debug("Trying alternative SQL: {}", sql);
-                BigDecimal total = jdbcTemplate.queryForObject(sql, BigDecimal.class);
-                logger.debug("Total sales result with alternative query: {}", total);
-                return total != null ? total : BigDecimal.ZERO;
-            } catch (DataAccessException ex) {
-                logger.error("Error calculating total sales with alternative query", ex);
-                return BigDecimal.ZERO;
-            }
+        logger.debug("Executing SQL for products by category: {}", sql);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
+
+        logger.debug("Products by category results: {}", rows);
+
+        for (Map<String, Object> row : rows) {
+            result.add(DashboardDTO.ChartDataDTO.builder()
+                    .category((String) row.get("category"))
+                    .value(((Number) row.get("count")).longValue())
+                    .build());
         }
+
+        return result;
     }
 
-    private BigDecimal calculateAverageOrderValue() {
-        try {
-            String sql = "SELECT COALESCE(AVG(total), 0) FROM invoices WHERE status = 'PAID'";
-            logger.debug("Executing SQL: {}", sql);
-            BigDecimal average = jdbcTemplate.queryForObject(sql, BigDecimal.class);
-            logger.debug("Average order value result: {}", average);
-            return average != null ? average : BigDecimal.ZERO;
-        } catch (DataAccessException e) {
-            logger.error("Error calculating average order value", e);
-            
-            // Try alternative table name
-            try {
-                String sql = "SELECT COALESCE(AVG(total), 0) FROM invoice WHERE status = 'PAID'";
-                logger.debug("Trying alternative SQL: {}", sql);
-                BigDecimal average = jdbcTemplate.queryForObject(sql, BigDecimal.class);
-                logger.debug("Average order value result with alternative query: {}", average);
-                return average != null ? average : BigDecimal.ZERO;
-            } catch (DataAccessException ex) {
-                logger.error("Error calculating average order value with alternative query", ex);
-                return BigDecimal.ZERO;
-            }
-        }
+    private List<DashboardDTO.ChartDataDTO> loadOpportunitiesByStage(LocalDate from, LocalDate to) {
+        return timeBucketStore.totalsByDimension(RollupMetric.NEW_OPPORTUNITIES, from, to).entrySet().stream()
+                .map(entry -> DashboardDTO.ChartDataDTO.builder()
+                        .stage(entry.getKey())
+                        .value(entry.getValue())
+                        .build())
+                .toList();
     }
 
-    private int calculateCustomerGrowth() {
-        try {
-            // List tables to check column names
-            List<String> tables = listTables();
-            logger.debug("Tables in database: {}", tables);
-            
-            // Check if created_at column exists in customer table
-            List<String> columns = listColumns("customer");
-            logger.debug("Columns in customer table: {}", columns);
-            
-            String createdAtColumn = "created_at";
-            if (columns.contains("creation_date")) {
-                createdAtColumn = "creation_date";
-            } else if (columns.contains("created_date")) {
-                createdAtColumn = "created_date";
-            }
-            
-            // Get customer count this month
-            String currentSql = String.format(
-                "SELECT COUNT(*) FROM customer WHERE YEAR(%s) = YEAR(CURRENT_DATE) AND MONTH(%s) = MONTH(CURRENT_DATE)",
-                createdAtColumn, createdAtColumn
-            );
-            logger.debug("Executing SQL for current month customers: {}", currentSql);
-            Long currentCount = jdbcTemplate.queryForObject(currentSql, Long.class);
-            
-            // Get customer count last month
-            String previousSql = String.format(
-                "SELECT COUNT(*) FROM customer WHERE YEAR(%s) = YEAR(DATE_SUB(CURRENT_DATE, INTERVAL 1 MONTH)) AND MONTH(%s) = MONTH(DATE_SUB(CURRENT_DATE, INTERVAL 1 MONTH))",
-                createdAtColumn, createdAtColumn
-            );
-            logger.debug("Executing SQL for previous month customers: {}", previousSql);
-            Long previousCount = jdbcTemplate.queryForObject(previousSql, Long.class);
-
-            logger.debug("Current month customer count: {}, Previous month customer count: {}", currentCount, previousCount);
-            
-            if (currentCount == null || previousCount == null || previousCount == 0) {
-                return 0;
-            }
+    // Time series from the daily buckets
 
-            // Calculate growth percentage
-            return (int) (((double) (currentCount - previousCount) / previousCount) * 100);
-        } catch (Exception e) {
-            logger.error("Error calculating customer growth", e);
-            return 0;
+    private void validateRange(LocalDate from, LocalDate to, TimeBucket bucket) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Range start " + from + " is after its end " + to);
+        }
+        int buckets = 0;
+        for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+            if (++buckets > MAX_BUCKETS) {
+                throw new IllegalArgumentException("Range " + from + " to " + to + " has more than "
+                        + MAX_BUCKETS + " " + bucket + " buckets");
+            }
         }
     }
 
-    private int calculateLeadGrowth() {
-        try {
-            // Check if created_at column exists in lead table
-            List<String> columns = listColumns("lead");
-            logger.debug("Columns in lead table: {}", columns);
-            
-            String createdAtColumn = "created_at";
-            if (columns.contains("creation_date")) {
-                createdAtColumn = "creation_date";
-            } else if (columns.contains("created_date")) {
-                createdAtColumn = "created_date";
-            }
-            
-            // Get lead count this month
-            String currentSql = String.format(
-                "SELECT COUNT(*) FROM lead WHERE YEAR(%s) = YEAR(CURRENT_DATE) AND MONTH(%s) = MONTH(CURRENT_DATE)",
-                createdAtColumn, createdAtColumn
-            );
-            logger.debug("Executing SQL for current month leads: {}", currentSql);
-            Long currentCount = jdbcTemplate.queryForObject(currentSql, Long.class);
-            
-            // Get lead count last month
-            String previousSql = String.format(
-                "SELECT COUNT(*) FROM lead WHERE YEAR(%s) = YEAR(DATE_SUB(CURRENT_DATE, INTERVAL 1 MONTH)) AND MONTH(%s) = MONTH(DATE_SUB(CURRENT_DATE, INTERVAL 1 MONTH))",
-                createdAtColumn, createdAtColumn
-            );
-            logger.debug("Executing SQL for previous month leads: {}", previousSql);
-            Long previousCount = jdbcTemplate.queryForObject(previousSql, Long.class);
-
-            logger.debug("Current month lead count: {}, Previous month lead count: {}", currentCount, previousCount);
-
-            if (currentCount == null || previousCount == null || previousCount == 0) {
-                return 0;
-            }
+    private List<TimeSeriesDTO> loadSeries(LocalDate from, LocalDate to, TimeBucket bucket) {
+        List<TimeSeriesDTO> result = new ArrayList<>();
+        timeBucketStore.series(SERIES_METRICS, from, to, bucket).forEach((metric, byDimension) ->
+                byDimension.forEach((dimension, points) -> result.add(TimeSeriesDTO.builder()
+                        .metric(metric.name())
+                        .dimension(dimension.isEmpty() ? null : dimension)
+                        .points(points.stream()
+                                .map(point -> TimeSeriesDTO.PointDTO.builder()
+                                        .start(point.start().toString())
+                                        .count(point.count())
+                                        .amount(point.amount())
+                                        .build())
+                                .toList())
+                        .build())));
+        return result;
+    }
 
-            // Calculate growth percentage
-            return (int) (((double) (currentCount - previousCount) / previousCount) * 100);
-        } catch (Exception e) {
-            logger.error("Error calculating lead growth", e);
-            return 0;
-        }
+    // Month-over-month growth from the month buckets of this month and the previous one
+
+    private GrowthDTO loadGrowth() {
+        YearMonth currentMonth = YearMonth.now();
+        Map<RollupMetric, List<TimeBucketStore.Point>> totals = monthlyTotals(currentMonth.minusMonths(1), currentMonth);
+
+        List<TimeBucketStore.Point> customers = totals.get(RollupMetric.NEW_CUSTOMERS);
+        List<TimeBucketStore.Point> leads = totals.get(RollupMetric.NEW_LEADS);
+        List<TimeBucketStore.Point> sales = totals.get(RollupMetric.PAID_SALES);
+        return GrowthDTO.builder()
+                .customers(percentageChange(customers.get(1).count(), customers.get(0).count()))
+                .leads(percentageChange(leads.get(1).count(), leads.get(0).count()))
+                .sales(percentageChange(sales.get(1).amount(), sales.get(0).amount()))
+                .build();
     }
 
-    private int calculateSalesGrowth() {
-        try {
-            // Check if invoice_date column exists in invoice table
-            List<String> columns = listColumns("invoice");
-            logger.debug("Columns in invoice table: {}", columns);
-            
-            String invoiceDateColumn = "invoice_date";
-            if (columns.contains("date")) {
-                invoiceDateColumn = "date";
-            } else if (columns.contains("created_at")) {
-                invoiceDateColumn = "created_at";
-            }
-            
-            // Get sales total this month
-            String currentSql = String.format(
-                "SELECT COALESCE(SUM(total), 0) FROM invoice WHERE status = 'PAID' AND YEAR(%s) = YEAR(CURRENT_DATE) AND MONTH(%s) = MONTH(CURRENT_DATE)",
-                invoiceDateColumn, invoiceDateColumn
-            );
-            logger.debug("Executing SQL for current month sales: {}", currentSql);
-            BigDecimal currentTotal = jdbcTemplate.queryForObject(currentSql, BigDecimal.class);
-            
-            // Get sales total last month
-            String previousSql = String.format(
-                "SELECT COALESCE(SUM(total), 0) FROM invoice WHERE status = 'PAID' AND YEAR(%s) = YEAR(DATE_SUB(CURRENT_DATE, INTERVAL 1 MONTH)) AND MONTH(%s) = MONTH(DATE_SUB(CURRENT_DATE, INTERVAL 1 MONTH))",
-                invoiceDateColumn, invoiceDateColumn
-            );
-            logger.debug("Executing SQL for previous month sales: {}", previousSql);
-            BigDecimal previousTotal = jdbcTemplate.queryForObject(previousSql, BigDecimal.class);
-
-            logger.debug("Current month sales: {}, Previous month sales: {}", currentTotal, previousTotal);
-
-            if (currentTotal == null || previousTotal == null || previousTotal.compareTo(BigDecimal.ZERO) == 0) {
-                return 0;
-            }
+    private Map<RollupMetric, List<TimeBucketStore.Point>> monthlyTotals(YearMonth from, YearMonth to) {
+        return timeBucketStore.totals(MONTHLY_METRICS, from.atDay(1), to.atEndOfMonth(), TimeBucket.MONTH);
+    }
 
-            // Calculate growth percentage
-            return currentTotal.subtract(previousTotal)
-                    .multiply(BigDecimal.valueOf(100))
-                    .divide(previousTotal, 0, RoundingMode.HALF_UP)
-                    .intValue();
-        } catch (Exception e) {
-            logger.error("Error calculating sales growth", e);
+    private int percentageChange(long currentCount, long previousCount) {
+        if (previousCount == 0) {
             return 0;
         }
+        return (int) (((double) (currentCount - previousCount) / previousCount) * 100);
     }
 
-    // Helper methods to inspect database structure
-    private List<String> listTables() {
-        try {
-            return jdbcTemplate.queryForList("SHOW TABLES", String.class);
-        } catch (Exception e) {
-            logger.error("Error listing tables", e);
-            return new ArrayList<>();
-        }
-    }
-    
-    private List<String> listColumns(String tableName) {
-        try {
-            List<String> columns = new ArrayList<>();
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList("DESCRIBE " + tableName);
-            for (Map<String, Object> row : rows) {
-                columns.add((String) row.get("Field"));
-            }
-            return columns;
-        } catch (Exception e) {
-            logger.error("Error listing columns for table: " + tableName, e);
-            return new ArrayList<>();
+    private int percentageChange(BigDecimal currentTotal, BigDecimal previousTotal) {
+        if (previousTotal.compareTo(BigDecimal.ZERO) == 0) {
+            return 0;
         }
+        return currentTotal.subtract(previousTotal)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(previousTotal, 0, RoundingMode.HALF_UP)
+                .intValue();
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,20 @@
 package com.example.ClientNest.service.impl;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.ClientNest.dto.CursorPageDTO;
 import com.example.ClientNest.dto.InvoiceDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.model.Customer;
 import com.example.ClientNest.model.Employee;
 import com.example.ClientNest.model.Invoice;
@@ -20,10 +22,13 @@ import com.example.ClientNest.model.Quotation;
 import com.example.ClientNest.repository.CustomerRepository;
 import com.example.ClientNest.repository.EmployeeRepository;
 import com.example.ClientNest.repository.InvoiceRepository;
+import com.example.ClientNest.repository.ListSpecifications;
 import com.example.ClientNest.repository.OpportunityRepository;
 import com.example.ClientNest.repository.QuotationRepository;
 import com.example.ClientNest.service.EmailService;
+import com.example.ClientNest.service.InvoiceNumberAllocator;
 import com.example.ClientNest.service.InvoiceService;
+import com.example.ClientNest.service.KeysetPager;
 
 @Service
 public class InvoiceServiceImpl implements InvoiceService {
@@ -46,12 +51,32 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    private static final Set<String> SORTABLE = Set.of("id", "invoiceNumber", "createdAt");
+
     @Override
     public List<InvoiceDTO> getAllInvoices() {
         System.out.println("\n\nInvoice: ");
         return invoiceRepository.findAllInvoices();
     }
     
+    @Override
+    public CursorPageDTO<InvoiceDTO> getInvoicePage(PageQuery page, String status, Long customerId,
+            Long employeeId, LocalDate from, LocalDate to) {
+        Specification<Invoice> filter = Specification.allOf(
+                ListSpecifications.equal("status", status),
+                ListSpecifications.idEquals("customer", customerId),
+                ListSpecifications.idEquals("employee", employeeId),
+                ListSpecifications.range("invoiceDate", from, to != null ? to.plusDays(1) : null));
+        return keysetPager.page(invoiceRepository, Invoice.class, filter, page, SORTABLE, "id",
+                invoice -> new InvoiceDTO(invoice.getQuotation(), invoice), "customer", "employee", "quotation");
+    }
+    
     @Override
     public List<InvoiceDTO> getInvoicesByCustomerId(Long customerId) {
         var i = invoiceRepository.findByCustomerId(customerId);
@@ -77,18 +102,7 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     @Override
     public String generateInvoiceNumber() {
-        LocalDate today = LocalDate.now();
-        String datePart = today.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        int randomNum;
-        String invoiceNumber;
-        
-        // Keep generating until we find a unique invoice number
-        do {
-            randomNum = ThreadLocalRandom.current().nextInt(1000, 10000);
-            invoiceNumber = "INV-" + datePart + "-" + randomNum;
-        } while (invoiceRepository.findByInvoiceNumber(invoiceNumber).isPresent());
-        
-        return invoiceNumber;
+        return invoiceNumberAllocator.next();
     }
     
     @Override
@@ -197,19 +211,13 @@ public class InvoiceServiceImpl implements InvoiceService {
         // Generate the DTO to return
         InvoiceDTO invoiceDTO = new InvoiceDTO(quotation, savedInvoice);
         
-        // Send email notification to the customer
-        try {
-            if (customer.getEmail() != null) {
-                emailService.sendInvoiceNotification(
-                    customer.getEmail(),
-                    customer.getName(),
-                    invoiceDTO
-                );
-            }
-        } catch (Exception e) {
-            // Log the error but don't disrupt the main flow
-            System.err.println("Failed to send invoice email notification: " + e.getMessage());
-            e.printStackTrace();
+        // Queue the email notification; it is only sent if the invoice commits
+        if (customer.getEmail() != null) {
+            emailService.sendInvoiceNotification(
+                customer.getEmail(),
+                customer.getName(),
+                invoiceDTO
+            );
         }
         
         return invoiceDTO;
@@ -1,24 +1,37 @@
 package com.example.ClientNest.service.impl;
 
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.ProductDTO;
 import com.example.ClientNest.model.Product;
+import com.example.ClientNest.repository.ListSpecifications;
 import com.example.ClientNest.repository.ProductRepository;
+import com.example.ClientNest.service.KeysetPager;
+import com.example.ClientNest.service.ProductCatalog;
 import com.example.ClientNest.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import jakarta.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final KeysetPager keysetPager;
+    private final ProductCatalog productCatalog;
+
+    private static final Set<String> SORTABLE = Set.of("id", "name", "price");
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, KeysetPager keysetPager, ProductCatalog productCatalog) {
         this.productRepository = productRepository;
+        this.keysetPager = keysetPager;
+        this.productCatalog = productCatalog;
     }
 
     @Override
@@ -29,6 +42,15 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<ProductDTO> getProductPage(PageQuery page, String category, String status, String search) {
+        Specification<Product> filter = Specification.allOf(
+                ListSpecifications.equal("category", category),
+                ListSpecifications.equal("status", status),
+                ListSpecifications.contains(search, "name"));
+        return keysetPager.page(productRepository, Product.class, filter, page, SORTABLE, "id", this::convertToDTO);
+    }
+
     @Override
     public ProductDTO getProductById(Long id) {
         Product product = productRepository.findById(id)
@@ -40,6 +62,7 @@ public class ProductServiceImpl implements ProductService {
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = convertToEntity(productDTO);
         product = productRepository.save(product);
+        productCatalog.invalidate();
         return convertToDTO(product);
     }
 
@@ -55,6 +78,7 @@ public class ProductServiceImpl implements ProductService {
         existingProduct.setStatus(productDTO.getStatus());
 
         existingProduct = productRepository.save(existingProduct);
+        productCatalog.invalidate();
         return convertToDTO(existingProduct);
     }
 
@@ -64,6 +88,7 @@ public class ProductServiceImpl implements ProductService {
             throw new EntityNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        productCatalog.invalidate();
     }
 
     @Override
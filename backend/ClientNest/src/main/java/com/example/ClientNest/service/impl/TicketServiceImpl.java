@@ -1,5 +1,7 @@
 package com.example.ClientNest.service.impl;
 
+import com.example.ClientNest.dto.CursorPageDTO;
+import com.example.ClientNest.dto.PageQuery;
 import com.example.ClientNest.dto.TicketDTO;
 import com.example.ClientNest.model.Customer;
 import com.example.ClientNest.model.Employee;
@@ -7,16 +9,20 @@ import com.example.ClientNest.model.Ticket;
 import com.example.ClientNest.model.Ticket.TicketStatus;
 import com.example.ClientNest.repository.CustomerRepository;
 import com.example.ClientNest.repository.EmployeeRepository;
+import com.example.ClientNest.repository.ListSpecifications;
 import com.example.ClientNest.repository.TicketRepository;
+import com.example.ClientNest.service.KeysetPager;
 import com.example.ClientNest.service.TicketService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,12 +31,17 @@ public class TicketServiceImpl implements TicketService {
     private final TicketRepository ticketRepository;
     private final CustomerRepository customerRepository;
     private EmployeeRepository employeeRepository;
+    private final KeysetPager keysetPager;
+
+    private static final Set<String> SORTABLE = Set.of("id", "createdAt");
 
     @Autowired
-    public TicketServiceImpl(TicketRepository ticketRepository, CustomerRepository customerRepository, EmployeeRepository employeeRepository) {
+    public TicketServiceImpl(TicketRepository ticketRepository, CustomerRepository customerRepository, EmployeeRepository employeeRepository,
+            KeysetPager keysetPager) {
         this.ticketRepository = ticketRepository;
         this.customerRepository = customerRepository;
         this.employeeRepository = employeeRepository;
+        this.keysetPager = keysetPager;
     }
 
     @Override
@@ -41,6 +52,16 @@ public class TicketServiceImpl implements TicketService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<TicketDTO> getTicketPage(PageQuery page, TicketStatus status, Long customerId, Long employeeId) {
+        Specification<Ticket> filter = Specification.allOf(
+                ListSpecifications.equal("status", status),
+                ListSpecifications.idEquals("customer", customerId),
+                ListSpecifications.idEquals("employee", employeeId));
+        return keysetPager.page(ticketRepository, Ticket.class, filter, page, SORTABLE, "id",
+                TicketDTO::new, "customer", "employee");
+    }
+
     @Override
     public TicketDTO getTicketById(Long id) {
         Ticket ticket = ticketRepository.findById(id)
@@ -0,0 +1,151 @@
+package com.example.ClientNest.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.ClientNest.dto.LeadDTO;
+import com.example.ClientNest.dto.OpportunityDTO;
+import com.example.ClientNest.model.Customer;
+import com.example.ClientNest.model.Employee;
+import com.example.ClientNest.model.Lead;
+import com.example.ClientNest.model.Opportunity;
+import com.example.ClientNest.model.Quotation;
+
+/**
+ * The opportunity and lead lists must cost one select however many rows they return.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class ListQueryCountTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OpportunityRepository opportunityRepository;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    private Statistics statistics;
+    private Employee employee;
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        employee = new Employee();
+        employee.setName("Alex Employee");
+        employee.setEmail("alex@example.com");
+        entityManager.persist(employee);
+    }
+
+    @Test
+    void activeOpportunitiesAreOneSelectRegardlessOfCount() {
+        createOpportunities(3);
+        assertEquals(1, countSelects(opportunityRepository::findAllActiveOpportunityDTOs, 3));
+
+        createOpportunities(25);
+        assertEquals(1, countSelects(opportunityRepository::findAllActiveOpportunityDTOs, 28));
+    }
+
+    @Test
+    void opportunityListsByStageAndEmployeeAreOneSelect() {
+        createOpportunities(10);
+        assertEquals(1, countSelects(
+                () -> opportunityRepository.findActiveOpportunityDTOsByStage(Opportunity.Stage.NEW), 10));
+        assertEquals(1, countSelects(
+                () -> opportunityRepository.findActiveOpportunityDTOsByEmployeeId(employee.getId()), 10));
+    }
+
+    @Test
+    void activeLeadsAreOneSelectRegardlessOfCount() {
+        createOpportunities(4);
+        assertEquals(1, countSelects(leadRepository::getAllLeadDetails, 4));
+
+        createOpportunities(30);
+        assertEquals(1, countSelects(leadRepository::getAllLeadDetails, 34));
+    }
+
+    @Test
+    void projectionsCarryTheSameFieldsAsTheEntityConstructors() {
+        createOpportunities(2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OpportunityDTO> opportunities = opportunityRepository.findAllActiveOpportunityDTOs().stream()
+                .sorted(Comparator.comparing(OpportunityDTO::getId))
+                .toList();
+        OpportunityDTO withQuotation = opportunities.get(0);
+        assertNotNull(withQuotation.getQuotationId());
+        assertNotNull(withQuotation.getCreatedDate());
+        assertEquals(Opportunity.Stage.NEW, withQuotation.getStage());
+        assertEquals("Customer 0", withQuotation.getLead().getName());
+        assertEquals("Alex Employee", withQuotation.getLead().getAssignedTo());
+        assertEquals("REFERRAL", withQuotation.getLead().getSource());
+        assertNotNull(withQuotation.getLead().getCreatedDate());
+        assertNull(opportunities.get(1).getQuotationId());
+
+        LeadDTO lead = leadRepository.getLeadDetailsById(withQuotation.getLead().getId());
+        assertEquals("customer0@example.com", lead.getEmail());
+        assertEquals(40, lead.getConversionProbability());
+    }
+
+    private void createOpportunities(int count) {
+        for (int i = 0; i < count; i++, created++) {
+            Customer customer = new Customer();
+            customer.setName("Customer " + created);
+            customer.setEmail("customer" + created + "@example.com");
+            entityManager.persist(customer);
+
+            Lead lead = new Lead();
+            lead.setRequirement("Requirement " + created);
+            lead.setProbability(40);
+            lead.setExpectedRevenue(1000.0);
+            lead.setSource(Lead.Source.REFERRAL);
+            lead.setCustomer(customer);
+            lead.setEmployee(employee);
+            entityManager.persist(lead);
+
+            Opportunity opportunity = new Opportunity();
+            opportunity.setLead(lead);
+            opportunity.setCustomer(customer);
+            opportunity.setEmployee(employee);
+            if (created % 2 == 0) {
+                Quotation quotation = new Quotation();
+                quotation.setTitle("Quotation " + created);
+                entityManager.persist(quotation);
+                opportunity.setQuotation(quotation);
+            }
+            entityManager.persist(opportunity);
+        }
+    }
+
+    private long countSelects(Supplier<List<?>> query, int expectedRows) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<?> rows = query.get();
+
+        assertEquals(expectedRows, rows.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.ClientNest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ClientNest.model.OutboundEmail;
+import com.example.ClientNest.repository.OutboundEmailRepository;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Outbox delivery against an in-process SMTP server.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "clientnest.email.outbox.enabled=false",
+        "clientnest.email.outbox.max-attempts=3",
+        "clientnest.email.outbox.initial-backoff-ms=60000"
+})
+@Import({EmailService.class, EmailOutboxDispatcher.class, EmailTemplateEngine.class, EmailOutboxDispatcherTests.MailConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxDispatcherTests {
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private CountingMailSender mailSender;
+
+    private GreenMail greenMail;
+
+    @BeforeEach
+    void setUp() {
+        outboundEmailRepository.deleteAll();
+        mailSender.connections.set(0);
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        greenMail.stop();
+    }
+
+    @Test
+    void queuedMailIsDeliveredInOneBatchOverOneConnection() throws Exception {
+        emailService.sendRegistrationConfirmation("ana@example.com", "Ana");
+        emailService.sendPasswordResetLink("ben@example.com", "Ben", "token-123");
+        emailService.sendPasswordNotification("cy@example.com", "Cy", true);
+
+        // Queueing never touches the mail server
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        assertEquals(3, dispatcher.dispatchBatch());
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Welcome to ClientNest - Registration Complete", received[0].getSubject());
+        assertTrue(received[0].isMimeType("multipart/*"));
+        assertTrue(GreenMailUtil.getBody(received[1]).contains("token-123"));
+        assertEquals("Your ClientNest Password Has Been Updated", received[2].getSubject());
+        assertEquals(1, mailSender.connections.get());
+
+        for (OutboundEmail email : outboundEmailRepository.findAll()) {
+            assertEquals(OutboundEmail.Status.SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+            assertNotNull(email.getSentAt());
+            assertNull(email.getClaimToken());
+        }
+    }
+
+    @Test
+    void failedDeliveryBacksOffAndIsDeadLetteredAfterMaxAttempts() {
+        greenMail.stop();
+        emailService.sendEmail("dee@example.com", "Hello", "Body");
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        OutboundEmail email = single();
+        assertEquals(OutboundEmail.Status.PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+        assertBackoff(email, Duration.ofMinutes(1));
+
+        // Not due again until the backoff has passed
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        makeDue(email);
+        assertEquals(1, dispatcher.dispatchBatch());
+        email = single();
+        assertEquals(2, email.getAttempts());
+        assertBackoff(email, Duration.ofMinutes(2));
+
+        makeDue(email);
+        assertEquals(1, dispatcher.dispatchBatch());
+        email = single();
+        assertEquals(OutboundEmail.Status.DEAD, email.getStatus());
+        assertEquals(3, email.getAttempts());
+
+        makeDue(email);
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void retriedMailIsDeliveredOnceTheServerIsBack() {
+        greenMail.stop();
+        emailService.sendEmail("eve@example.com", "Hello", "Body");
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        makeDue(single());
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(OutboundEmail.Status.SENT, single().getStatus());
+        assertEquals(2, single().getAttempts());
+    }
+
+    private OutboundEmail single() {
+        List<OutboundEmail> all = outboundEmailRepository.findAll();
+        assertEquals(1, all.size());
+        return all.get(0);
+    }
+
+    private void makeDue(OutboundEmail email) {
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboundEmailRepository.save(email);
+    }
+
+    private static void assertBackoff(OutboundEmail email, Duration expected) {
+        Duration actual = Duration.between(LocalDateTime.now(), email.getNextAttemptAt());
+        assertTrue(actual.compareTo(expected.minusSeconds(10)) > 0 && actual.compareTo(expected) <= 0,
+                "Unexpected backoff " + actual);
+    }
+
+    /**
+     * Counts calls that open a connection to the server
+     */
+    static class CountingMailSender extends JavaMailSenderImpl {
+        final AtomicInteger connections = new AtomicInteger();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            connections.incrementAndGet();
+            super.doSend(mimeMessages, originalMessages);
+        }
+    }
+
+    @TestConfiguration
+    static class MailConfig {
+
+        @Bean
+        CountingMailSender mailSender() {
+            CountingMailSender sender = new CountingMailSender();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
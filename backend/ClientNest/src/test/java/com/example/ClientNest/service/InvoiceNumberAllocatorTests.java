@@ -0,0 +1,125 @@
+package com.example.ClientNest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Invoice numbers must stay unique across allocators sharing one database, and
+ * continue after numbers issued before the sequence existed.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:invoice-numbers;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.hikari.maximum-pool-size=8",
+        "spring.test.database.replace=none"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceNumberAllocatorTests {
+
+    private static final String LEGACY_TABLE = "legacy_invoices";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SchemaCatalog schemaCatalog;
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        // H2's MySQL mode has LAST_INSERT_ID(expr) and INSERT ... ON DUPLICATE KEY but not UNSIGNED
+        jdbcTemplate.execute("CREATE DOMAIN IF NOT EXISTS UNSIGNED AS BIGINT");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + LEGACY_TABLE + " (invoice_number VARCHAR(64))");
+        jdbcTemplate.update("DELETE FROM " + LEGACY_TABLE);
+        jdbcTemplate.update("DELETE FROM invoice_sequence");
+
+        SchemaCatalog.Schema schema = mock(SchemaCatalog.Schema.class);
+        when(schema.invoiceTable()).thenReturn(LEGACY_TABLE);
+        schemaCatalog = mock(SchemaCatalog.class);
+        when(schemaCatalog.current()).thenReturn(schema);
+        prefix = "INV-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
+    }
+
+    @Test
+    void allocatorsOnTwoNodesNeverHandOutTheSameNumber() throws Exception {
+        List<InvoiceNumberAllocator> nodes = List.of(allocator(5), allocator(5));
+        int threadsPerNode = 4;
+        int numbersPerThread = 100;
+
+        ExecutorService pool = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (InvoiceNumberAllocator node : nodes) {
+            for (int i = 0; i < threadsPerNode; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<String> numbers = new ArrayList<>();
+                    for (int n = 0; n < numbersPerThread; n++) {
+                        numbers.add(node.next());
+                    }
+                    return numbers;
+                }));
+            }
+        }
+        start.countDown();
+
+        Set<String> unique = ConcurrentHashMap.newKeySet();
+        int total = 0;
+        for (Future<List<String>> result : results) {
+            for (String number : result.get()) {
+                assertTrue(number.startsWith(prefix), number);
+                unique.add(number);
+                total++;
+            }
+        }
+        pool.shutdown();
+        assertEquals(nodes.size() * threadsPerNode * numbersPerThread, total);
+        assertEquals(total, unique.size());
+    }
+
+    @Test
+    void firstBlockStartsAfterTheHighestLegacyNumber() {
+        jdbcTemplate.update("INSERT INTO " + LEGACY_TABLE + " VALUES (?), (?), (?)",
+                prefix + "0007", prefix + "0041", "INV-19990101-0999");
+
+        InvoiceNumberAllocator first = allocator(3);
+        assertEquals(prefix + "0042", first.next());
+        assertEquals(prefix + "0043", first.next());
+
+        // A second node reserves the next block, not the legacy range again
+        InvoiceNumberAllocator second = allocator(3);
+        assertEquals(prefix + "0045", second.next());
+        assertEquals(prefix + "0044", first.next());
+        assertEquals(prefix + "0048", first.next());
+    }
+
+    private InvoiceNumberAllocator allocator(int blockSize) {
+        return new InvoiceNumberAllocator(jdbcTemplate, schemaCatalog, transactionManager, blockSize);
+    }
+}